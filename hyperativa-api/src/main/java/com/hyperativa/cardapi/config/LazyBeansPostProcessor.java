@@ -0,0 +1,59 @@
+package com.hyperativa.cardapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.type.MethodMetadata;
+
+import java.util.List;
+
+/**
+ * Marks beans that no startup path needs as lazy, so they are created on first use instead
+ * of during context refresh (fast-startup profile, app.startup.lazy-bean-prefixes).
+ * <p>
+ * A bean is matched by its class, or for @Bean methods by the return type or the declaring
+ * configuration class, against the configured class name prefixes. With Spring AOT the flag
+ * is captured in the generated bean definitions at build time.
+ */
+@Slf4j
+public class LazyBeansPostProcessor implements BeanFactoryPostProcessor {
+
+    private final List<String> prefixes;
+
+    public LazyBeansPostProcessor(List<String> prefixes) {
+        this.prefixes = prefixes;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        int lazy = 0;
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            if (definition.isLazyInit() || definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE) {
+                continue;
+            }
+            if (matches(definition.getBeanClassName()) || matchesFactoryMethod(definition)
+                    || (definition.getFactoryBeanName() != null && beanFactory.containsBeanDefinition(definition.getFactoryBeanName())
+                    && matches(beanFactory.getBeanDefinition(definition.getFactoryBeanName()).getBeanClassName()))) {
+                definition.setLazyInit(true);
+                lazy++;
+            }
+        }
+        log.debug("{} beans marked lazy", lazy);
+    }
+
+    private boolean matchesFactoryMethod(BeanDefinition definition) {
+        if (!(definition instanceof AnnotatedBeanDefinition annotated)) {
+            return false;
+        }
+        MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+        return factoryMethod != null
+                && (matches(factoryMethod.getReturnTypeName()) || matches(factoryMethod.getDeclaringClassName()));
+    }
+
+    private boolean matches(String className) {
+        return className != null && prefixes.stream().anyMatch(className::startsWith);
+    }
+}
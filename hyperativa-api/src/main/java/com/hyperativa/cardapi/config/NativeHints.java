@@ -0,0 +1,100 @@
+package com.hyperativa.cardapi.config;
+
+import com.hyperativa.cardapi.dto.AuthRequest;
+import com.hyperativa.cardapi.dto.AuthResponse;
+import com.hyperativa.cardapi.dto.BatchError;
+import com.hyperativa.cardapi.dto.BatchUploadResponse;
+import com.hyperativa.cardapi.dto.CardPageResponse;
+import com.hyperativa.cardapi.dto.CardRequest;
+import com.hyperativa.cardapi.dto.CardResponse;
+import com.hyperativa.cardapi.dto.CardSummaryResponse;
+import com.hyperativa.cardapi.dto.EndpointStatsResponse;
+import com.hyperativa.cardapi.dto.ErrorResponse;
+import com.hyperativa.cardapi.dto.KeyStatusResponse;
+import com.hyperativa.cardapi.dto.RefreshTokenRequest;
+import com.hyperativa.cardapi.dto.RequestStatsResponse;
+import com.hyperativa.cardapi.dto.UploadSessionResponse;
+import com.hyperativa.cardapi.entity.Card;
+import com.hyperativa.cardapi.entity.EncryptionKey;
+import com.hyperativa.cardapi.entity.RefreshToken;
+import com.hyperativa.cardapi.entity.RequestLogRollup;
+import com.hyperativa.cardapi.entity.User;
+import com.hyperativa.cardapi.repository.CardExportView;
+import com.hyperativa.cardapi.repository.CardHashView;
+import com.hyperativa.cardapi.repository.CardSummaryView;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.data.projection.TargetAware;
+
+import java.util.List;
+
+/**
+ * GraalVM native-image hints for what Spring AOT cannot infer from the bean definitions.
+ * <p>
+ * Covers the JPA entities (field access), the projection interfaces (JDK proxies), DTOs written
+ * by ObjectMapper outside controller signatures, the JDBC drivers Hikari loads by name, the
+ * classes jjwt instantiates by name plus its Jackson serializer services, and the shard schema
+ * scripts. RequestLog is written through JdbcTemplate and needs no hints; Lombok builders are
+ * plain generated code and are not reached by reflection.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHints.Registrar.class)
+@RegisterReflectionForBinding({
+        AuthRequest.class, AuthResponse.class, RefreshTokenRequest.class, CardRequest.class, CardResponse.class,
+        CardSummaryResponse.class, CardPageResponse.class, BatchUploadResponse.class, BatchError.class, UploadSessionResponse.class,
+        KeyStatusResponse.class, EndpointStatsResponse.class, RequestStatsResponse.class, ErrorResponse.class
+})
+public class NativeHints {
+
+    static final List<Class<?>> ENTITIES = List.of(
+            Card.class, User.class, RefreshToken.class, EncryptionKey.class, RequestLogRollup.class);
+
+    static final List<Class<?>> PROJECTIONS = List.of(CardHashView.class, CardExportView.class, CardSummaryView.class);
+
+    static final List<String> JDBC_DRIVERS = List.of("org.h2.Driver", "com.mysql.cj.jdbc.Driver");
+
+    static final List<String> JJWT_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> entity : ENTITIES) {
+                hints.reflection().registerType(entity, MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+            }
+            for (Class<?> projection : PROJECTIONS) {
+                hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(projection, TargetAware.class));
+                hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            for (String driver : JDBC_DRIVERS) {
+                hints.reflection().registerTypeIfPresent(classLoader, driver, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerTypeIfPresent(classLoader, type,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+            hints.resources().registerPattern("db/*.sql");
+        }
+    }
+}
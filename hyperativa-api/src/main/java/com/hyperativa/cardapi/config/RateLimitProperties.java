@@ -0,0 +1,72 @@
+package com.hyperativa.cardapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-user rate limits and batch admission control (app.rate-limit.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Buckets kept per endpoint class. Buckets of idle users are evicted; beyond this many
+     * active users, the extra users share one bucket.
+     */
+    private int maxUsers = 10_000;
+
+    /**
+     * GET /api/v1/cards/search
+     */
+    private Limit search = new Limit(50, 100);
+
+    /**
+     * POST /api/v1/cards
+     */
+    private Limit create = new Limit(20, 40);
+
+    /**
+     * Batch uploads (multipart, raw body and completion of resumable uploads).
+     */
+    private Limit batch = new Limit(0.2, 5);
+
+    /**
+     * Batch uploads processed at the same time across all users; further uploads wait up to
+     * batchAdmissionWaitMs, then get 503 with Retry-After.
+     */
+    private int maxConcurrentBatches = 2;
+
+    private long batchAdmissionWaitMs = 1000;
+
+    private long batchRetryAfterSeconds = 10;
+
+    @Getter
+    @Setter
+    public static class Limit {
+
+        /**
+         * Sustained requests per second.
+         */
+        private double perSecond;
+
+        /**
+         * Requests allowed back to back after a quiet period.
+         */
+        private int burst;
+
+        public Limit() {
+        }
+
+        public Limit(double perSecond, int burst) {
+            this.perSecond = perSecond;
+            this.burst = burst;
+        }
+    }
+}
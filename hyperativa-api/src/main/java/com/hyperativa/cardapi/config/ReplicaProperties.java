@@ -0,0 +1,27 @@
+package com.hyperativa.cardapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read replica routing (app.replica.*).
+ * <p>
+ * The replica pool itself is configured under app.replica.datasource.* (Hikari properties:
+ * jdbc-url, username, password, maximum-pool-size, ...), independently of the primary pool.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.replica")
+@Getter
+@Setter
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Re-checks card lookups that miss on the replica against the primary, so a card is
+     * visible right after it is registered even while the replica lags behind.
+     */
+    private boolean fallbackOnMiss = true;
+}
@@ -1,10 +1,12 @@
 package com.hyperativa.cardapi.config;
 
 import com.hyperativa.cardapi.filter.JwtAuthenticationFilter;
+import com.hyperativa.cardapi.filter.RateLimitFilter;
 import com.hyperativa.cardapi.filter.RequestLoggingFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -22,6 +24,7 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final RequestLoggingFilter requestLoggingFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -43,10 +46,13 @@ public class SecurityConfig {
                                 "/api-docs/**",
                                 "/actuator/**"
                         ).permitAll()
+                        // Rotation re-encrypts every stored card
+                        .requestMatchers(HttpMethod.POST, "/api/v1/keys/rotate").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
-                .addFilterAfter(requestLoggingFilter, JwtAuthenticationFilter.class);
+                .addFilterAfter(requestLoggingFilter, JwtAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, RequestLoggingFilter.class);
 
         return http.build();
     }
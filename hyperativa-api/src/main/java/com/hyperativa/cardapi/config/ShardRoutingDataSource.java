@@ -0,0 +1,50 @@
+package com.hyperativa.cardapi.config;
+
+import com.hyperativa.cardapi.repository.CardShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes connections to the shard bound by {@link CardShardRouter}.
+ * Without a bound shard (users, request logs, schema management) the primary is used.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> shards;
+
+    public ShardRoutingDataSource(HikariDataSource primary, List<HikariDataSource> shards) {
+        this.primary = primary;
+        this.shards = shards;
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setDefaultTargetDataSource(primary);
+        setTargetDataSources(targets);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return CardShardRouter.currentShard();
+    }
+
+    public DataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
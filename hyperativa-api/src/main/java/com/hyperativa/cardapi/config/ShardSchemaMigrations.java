@@ -0,0 +1,80 @@
+package com.hyperativa.cardapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Changes to the shard cards table after its creation (db/shard-schema.sql), applied on every
+ * startup when app.sharding.init-schema=true.
+ * <p>
+ * MySQL 8 accepts neither ADD COLUMN IF NOT EXISTS nor CREATE INDEX IF NOT EXISTS, so each
+ * step checks the JDBC metadata for its column or index and only runs its DDL when it is
+ * missing. New steps go at the end; a step is never edited once released.
+ */
+@Slf4j
+final class ShardSchemaMigrations {
+
+    private static final String TABLE = "cards";
+
+    private static final List<Step> STEPS = List.of(
+            Step.index("idx_card_batch", "CREATE INDEX idx_card_batch ON cards (batch_id, id)"),
+            Step.column("card_bin", "ALTER TABLE cards ADD COLUMN card_bin VARCHAR(8)"),
+            Step.column("last_four", "ALTER TABLE cards ADD COLUMN last_four VARCHAR(4)"),
+            Step.index("idx_card_bin", "CREATE INDEX idx_card_bin ON cards (card_bin, id)"),
+            Step.index("idx_card_hash_external_id",
+                    "CREATE INDEX idx_card_hash_external_id ON cards (card_hash, external_id)"));
+
+    private ShardSchemaMigrations() {
+    }
+
+    static void apply(DataSource dataSource) {
+        new JdbcTemplate(dataSource).execute((ConnectionCallback<Void>) connection -> {
+            for (Step step : STEPS) {
+                if (!step.isApplied(connection)) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute(step.ddl());
+                    }
+                    log.info("Applied shard migration: {}", step.ddl());
+                }
+            }
+            return null;
+        });
+    }
+
+    private record Step(boolean index, String name, String ddl) {
+
+        static Step index(String name, String ddl) {
+            return new Step(true, name, ddl);
+        }
+
+        static Step column(String name, String ddl) {
+            return new Step(false, name, ddl);
+        }
+
+        boolean isApplied(Connection connection) throws SQLException {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers() ? TABLE.toUpperCase(Locale.ROOT) : TABLE;
+            String nameColumn = index ? "INDEX_NAME" : "COLUMN_NAME";
+            try (ResultSet rows = index
+                    ? metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, true)
+                    : metaData.getColumns(connection.getCatalog(), connection.getSchema(), table, null)) {
+                while (rows.next()) {
+                    if (name.equalsIgnoreCase(rows.getString(nameColumn))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.hyperativa.cardapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured datasource with a {@link ShardRoutingDataSource}
+ * when app.sharding.enabled=true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+@Slf4j
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(DataSourceProperties dataSourceProperties,
+                                             ShardingProperties shardingProperties) {
+        if (shardingProperties.getShards().isEmpty()) {
+            throw new IllegalStateException("app.sharding.enabled=true requires at least one app.sharding.shards entry");
+        }
+
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+
+        List<HikariDataSource> shards = new ArrayList<>();
+        for (ShardingProperties.Shard shard : shardingProperties.getShards()) {
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            pool.setPoolName("shard-" + shards.size());
+            pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+
+            if (shardingProperties.isInitSchema()) {
+                new ResourceDatabasePopulator(new ClassPathResource("db/shard-schema.sql")).execute(pool);
+                ShardSchemaMigrations.apply(pool);
+            }
+            shards.add(pool);
+        }
+
+        log.info("Card sharding enabled with {} shards", shards.size());
+        return new ShardRoutingDataSource(primary, shards);
+    }
+}
@@ -0,0 +1,41 @@
+package com.hyperativa.cardapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shard layout for the cards table (app.sharding.*).
+ * <p>
+ * When enabled, each card lives in exactly one shard, chosen by a prefix of its hash.
+ * Users and request logs stay on the primary datasource (spring.datasource.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.sharding")
+@Getter
+@Setter
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Creates the cards table on every shard at startup (db/shard-schema.sql) and applies
+     * the missing {@link ShardSchemaMigrations}.
+     */
+    private boolean initSchema = true;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
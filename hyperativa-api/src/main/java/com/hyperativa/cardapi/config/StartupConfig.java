@@ -0,0 +1,46 @@
+package com.hyperativa.cardapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Startup tuning and measurement.
+ * <p>
+ * Time to first request (from JVM start to the end of the first handled request) is logged
+ * once, next to Spring Boot's own "Started ... in" line and the application.started.time /
+ * application.ready.time metrics.
+ */
+@Configuration
+@Slf4j
+public class StartupConfig {
+
+    private final AtomicBoolean firstRequest = new AtomicBoolean();
+
+    @Bean
+    @Profile("fast-startup")
+    static LazyBeansPostProcessor lazyBeansPostProcessor(Environment environment) {
+        List<String> prefixes = Binder.get(environment)
+                .bind("app.startup.lazy-bean-prefixes", String[].class)
+                .map(List::of)
+                .orElse(List.of());
+        return new LazyBeansPostProcessor(prefixes);
+    }
+
+    @EventListener
+    void onRequestHandled(ServletRequestHandledEvent event) {
+        if (!firstRequest.get() && firstRequest.compareAndSet(false, true)) {
+            long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            log.info("First request ({}) served {} ms after JVM start", event.getRequestUrl(), sinceJvmStart);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.hyperativa.cardapi.controller;
 
 import com.hyperativa.cardapi.dto.AuthRequest;
 import com.hyperativa.cardapi.dto.AuthResponse;
+import com.hyperativa.cardapi.dto.RefreshTokenRequest;
 import com.hyperativa.cardapi.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -26,6 +27,19 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/refresh")
+    @Operation(summary = "Refresh token", description = "Exchanges a refresh token for a new JWT token and refresh token")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Logout", description = "Revokes the refresh token and every token rotated from the same login")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        authService.logout(request.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/register")
     @Operation(summary = "Register new user", description = "Creates a new user for API access")
     public ResponseEntity<Void> register(@Valid @RequestBody AuthRequest request) {
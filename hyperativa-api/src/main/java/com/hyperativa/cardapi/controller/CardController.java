@@ -1,29 +1,48 @@
 package com.hyperativa.cardapi.controller;
 
 import com.hyperativa.cardapi.dto.BatchUploadResponse;
+import com.hyperativa.cardapi.dto.CardPageResponse;
 import com.hyperativa.cardapi.dto.CardRequest;
 import com.hyperativa.cardapi.dto.CardResponse;
+import com.hyperativa.cardapi.service.BatchErrorReportService;
+import com.hyperativa.cardapi.service.CardExportService;
+import com.hyperativa.cardapi.service.CardQueryService;
 import com.hyperativa.cardapi.service.CardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.security.Principal;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/v1/cards")
 @RequiredArgsConstructor
+@Slf4j
 @Tag(name = "Cards", description = "Card registration and lookup endpoints")
 public class CardController {
 
     private final CardService cardService;
+    private final CardExportService cardExportService;
+    private final CardQueryService cardQueryService;
+    private final BatchErrorReportService batchErrorReportService;
 
     @PostMapping
     @Operation(summary = "Register card", description = "Registers a single card number")
@@ -36,16 +55,46 @@ public class CardController {
     @Operation(summary = "Batch upload", description = "Registers cards from a TXT file in Hyperativa format")
     public ResponseEntity<BatchUploadResponse> uploadBatch(
             @Parameter(description = "TXT file in Hyperativa format")
-            @RequestParam("file") MultipartFile file) throws IOException {
+            @RequestParam("file") MultipartFile file,
+            Principal principal) throws IOException {
 
         if (file.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
 
-        BatchUploadResponse response = cardService.uploadBatch(file);
+        BatchUploadResponse response = cardService.uploadBatch(file, principal.getName());
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    @Operation(summary = "Batch upload (streaming)",
+            description = "Registers cards from a TXT file sent as the raw request body, processed while it is received. "
+                    + "gzip and zstd bodies are decompressed on the fly (Content-Encoding or magic bytes)")
+    public ResponseEntity<BatchUploadResponse> uploadBatchStream(HttpServletRequest request, Principal principal)
+            throws IOException {
+        if (request.getContentLengthLong() == 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        BatchUploadResponse response = cardService.uploadBatch(request.getInputStream(),
+                request.getHeader("Content-Encoding"), principal.getName());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/batch/errors/{reportId}")
+    @Operation(summary = "Batch error report",
+            description = "Downloads every error and duplicate of a batch upload as NDJSON, by the errorReportId of its response. "
+                    + "Only the user who uploaded the batch can download it")
+    public ResponseEntity<Resource> downloadErrorReport(@PathVariable String reportId, Principal principal) {
+        return batchErrorReportService.find(reportId, principal.getName())
+                .map(file -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                .filename("batch-errors-" + reportId + ".ndjson").build().toString())
+                        .<Resource>body(new FileSystemResource(file)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/search")
     @Operation(summary = "Search card", description = "Checks if a card exists and returns its unique identifier")
     public ResponseEntity<CardResponse> findCard(
@@ -60,4 +109,55 @@ public class CardController {
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    @GetMapping
+    @Operation(summary = "List cards",
+            description = "Pages cards by BIN (6 to 8 digits) and/or batch with masked numbers, without decrypting")
+    public ResponseEntity<CardPageResponse> listCards(
+            @RequestParam(value = "bin", required = false) String bin,
+            @RequestParam(value = "batchId", required = false) String batchId,
+            @Parameter(description = "nextCursor of the previous page")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "100") int size) {
+
+        return ResponseEntity.ok(cardQueryService.find(bin, batchId, cursor, size));
+    }
+
+    @GetMapping("/batches/{batchId}/export")
+    @Operation(summary = "Export batch",
+            description = "Streams the cards of a batch as NDJSON or as a TXT file in Hyperativa format. "
+                    + "Card numbers are masked; reveal=true is for admins and only when app.export.reveal-enabled is on")
+    public ResponseEntity<StreamingResponseBody> exportBatch(
+            @PathVariable String batchId,
+            @Parameter(description = "ndjson or txt")
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "reveal", defaultValue = "false") boolean reveal,
+            Authentication authentication) {
+
+        if (reveal && !cardExportService.canReveal(authentication)) {
+            log.warn("User {} denied revealed export of batch '{}'", authentication.getName(), batchId);
+            throw new AccessDeniedException("Exporting clear card numbers is not allowed");
+        }
+
+        CardExportService.Format exportFormat;
+        try {
+            exportFormat = CardExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+
+        long count = cardExportService.countBatch(batchId);
+        if (count == 0) {
+            return ResponseEntity.notFound().build();
+        }
+        if (reveal) {
+            log.warn("User {} exporting batch '{}' with card numbers revealed", authentication.getName(), batchId);
+        }
+
+        MediaType contentType = exportFormat == CardExportService.Format.TXT
+                ? MediaType.TEXT_PLAIN
+                : MediaType.parseMediaType("application/x-ndjson");
+        StreamingResponseBody body = out -> cardExportService.exportBatch(batchId, exportFormat, reveal, count, out);
+        return ResponseEntity.ok().contentType(contentType).body(body);
+    }
 }
@@ -0,0 +1,31 @@
+package com.hyperativa.cardapi.controller;
+
+import com.hyperativa.cardapi.dto.KeyStatusResponse;
+import com.hyperativa.cardapi.service.DataKeyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/keys")
+@RequiredArgsConstructor
+@Tag(name = "Keys", description = "Data key rotation endpoints")
+public class KeyController {
+
+    private final DataKeyService dataKeyService;
+
+    @PostMapping("/rotate")
+    @Operation(summary = "Rotate data key", description = "Activates a new data key and re-encrypts stored cards in the background")
+    public ResponseEntity<KeyStatusResponse> rotate() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(dataKeyService.rotate());
+    }
+
+    @GetMapping("/status")
+    @Operation(summary = "Key status", description = "Returns the active data key and re-encryption progress")
+    public ResponseEntity<KeyStatusResponse> status() {
+        return ResponseEntity.ok(dataKeyService.getStatus());
+    }
+}
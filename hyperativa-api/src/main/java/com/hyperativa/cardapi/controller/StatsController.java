@@ -0,0 +1,24 @@
+package com.hyperativa.cardapi.controller;
+
+import com.hyperativa.cardapi.dto.RequestStatsResponse;
+import com.hyperativa.cardapi.service.RequestStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/stats")
+@RequiredArgsConstructor
+@Tag(name = "Stats", description = "Live request statistics")
+public class StatsController {
+
+    private final RequestStatsService requestStatsService;
+
+    @GetMapping("/requests")
+    @Operation(summary = "Request latency", description = "Per-endpoint latency percentiles and status counts over the rolling window")
+    public ResponseEntity<RequestStatsResponse> requests() {
+        return ResponseEntity.ok(requestStatsService.getStats());
+    }
+}
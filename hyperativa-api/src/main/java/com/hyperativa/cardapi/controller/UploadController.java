@@ -0,0 +1,75 @@
+package com.hyperativa.cardapi.controller;
+
+import com.hyperativa.cardapi.dto.UploadSessionResponse;
+import com.hyperativa.cardapi.service.UploadSessionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/v1/cards/uploads")
+@RequiredArgsConstructor
+@Tag(name = "Uploads", description = "Resumable chunked upload of large batch files")
+public class UploadController {
+
+    private final UploadSessionService uploadSessionService;
+
+    @PostMapping
+    @Operation(summary = "Create upload session", description = "Starts a resumable upload of a TXT file in Hyperativa format")
+    public ResponseEntity<UploadSessionResponse> create(Principal principal) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(uploadSessionService.create(principal.getName()));
+    }
+
+    @PutMapping(value = "/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Upload chunk", description = "Appends the request body at the given offset; resend from receivedBytes after a failure")
+    public ResponseEntity<UploadSessionResponse> appendChunk(
+            @PathVariable String uploadId,
+            @Parameter(description = "Byte offset of the chunk in the file")
+            @RequestParam("offset") long offset,
+            @Parameter(description = "Optional SHA-256 (hex) of the chunk")
+            @RequestHeader(value = "X-Chunk-SHA256", required = false) String sha256,
+            HttpServletRequest request,
+            Principal principal) throws IOException {
+
+        if (offset < 0) {
+            throw new IllegalArgumentException("The 'offset' parameter must not be negative");
+        }
+
+        return uploadSessionService.appendChunk(uploadId, principal.getName(), offset, sha256, request.getInputStream())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{uploadId}")
+    @Operation(summary = "Upload status", description = "Returns the bytes received so far (the offset to resume from) and, once completed, the processing status and batch result")
+    public ResponseEntity<UploadSessionResponse> status(@PathVariable String uploadId, Principal principal) {
+        return uploadSessionService.getStatus(uploadId, principal.getName())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    @Operation(summary = "Complete upload", description = "Queues the uploaded file for processing as a batch; poll the upload status for the result")
+    public ResponseEntity<UploadSessionResponse> complete(@PathVariable String uploadId, Principal principal) throws IOException {
+        return uploadSessionService.complete(uploadId, principal.getName())
+                .map(response -> ResponseEntity.status(HttpStatus.ACCEPTED).body(response))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{uploadId}")
+    @Operation(summary = "Abort upload", description = "Discards the session and its data")
+    public ResponseEntity<Void> abort(@PathVariable String uploadId, Principal principal) {
+        return uploadSessionService.abort(uploadId, principal.getName())
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -11,4 +11,10 @@ public class AuthResponse {
     private String token;
     private String type;
     private Long expiresIn;
+
+    /**
+     * Single-use token for POST /api/v1/auth/refresh; each refresh returns a new one.
+     */
+    private String refreshToken;
+    private Long refreshExpiresIn;
 }
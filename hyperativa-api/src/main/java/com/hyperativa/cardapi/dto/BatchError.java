@@ -0,0 +1,33 @@
+package com.hyperativa.cardapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One problem found while processing a batch file.
+ *
+ * @param line    line number in the file (non-blank lines, header is 1); null for file-level errors
+ * @param code    kind of problem, counted per code in the upload summary
+ * @param field   field of the line the problem is about, when there is one
+ * @param message human-readable detail
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchError(Integer line, Code code, String field, String message) {
+
+    public enum Code {
+        INVALID_HEADER,
+        INVALID_FORMAT,
+        INVALID_CARD_NUMBER,
+        DUPLICATE,
+        EMPTY_FILE,
+        READ_FAILED,
+        PERSIST_FAILED
+    }
+
+    public static BatchError of(Code code, String message) {
+        return new BatchError(null, code, null, message);
+    }
+
+    public BatchError withLine(int line) {
+        return new BatchError(line, code, field, message);
+    }
+}
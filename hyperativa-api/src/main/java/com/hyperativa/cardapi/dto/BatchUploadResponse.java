@@ -3,6 +3,7 @@ package com.hyperativa.cardapi.dto;
 import lombok.*;
 
 import java.util.List;
+import java.util.Map;
 
 @Getter
 @Setter
@@ -13,6 +14,41 @@ public class BatchUploadResponse {
     private String batchId;
     private int totalProcessed;
     private int totalSuccess;
-    private int totalErrors;
-    private List<String> errors;
+    private long totalErrors;
+
+    /**
+     * First errors of the file (up to app.batch.error-report.sample-size); the full list is in
+     * the error report.
+     */
+    private List<BatchError> errors;
+
+    /**
+     * Number of errors and duplicates per code.
+     */
+    private Map<BatchError.Code, Long> errorCounts;
+
+    /**
+     * Card lines repeating an earlier card of the same file; they are not registered again
+     * and not counted in totalSuccess. The list holds the first ones only, like errors.
+     */
+    private long totalDuplicates;
+    private List<BatchError> duplicates;
+
+    /**
+     * Id of the full error report (GET /api/v1/cards/batch/errors/{id}); null when the file had
+     * no errors or duplicates.
+     */
+    private String errorReportId;
+
+    /**
+     * Transfer encoding of the file (identity, gzip or zstd).
+     */
+    private String encoding;
+
+    /**
+     * Bytes received and bytes after decompression; equal for uncompressed files.
+     */
+    private long compressedBytes;
+    private long uncompressedBytes;
+    private long durationMs;
 }
@@ -0,0 +1,19 @@
+package com.hyperativa.cardapi.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CardPageResponse {
+    private List<CardSummaryResponse> cards;
+
+    /**
+     * Cursor for the next page, or null when there are no more cards.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,24 @@
+package com.hyperativa.cardapi.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CardSummaryResponse {
+    private String externalId;
+
+    /**
+     * First 6 and last 4 digits; the number of hidden digits is not significant.
+     */
+    private String maskedNumber;
+
+    private String bin;
+    private String lastFour;
+    private String batchId;
+    private LocalDateTime createdAt;
+}
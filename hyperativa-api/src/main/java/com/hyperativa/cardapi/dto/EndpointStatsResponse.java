@@ -0,0 +1,30 @@
+package com.hyperativa.cardapi.dto;
+
+import lombok.*;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EndpointStatsResponse {
+
+    /**
+     * HTTP method and route pattern, e.g. "GET /api/v1/cards/search".
+     */
+    private String endpoint;
+
+    private long count;
+
+    /**
+     * Latency percentiles in milliseconds, within about 6% of the exact value.
+     */
+    private double p50Ms;
+    private double p95Ms;
+    private double p99Ms;
+    private double maxMs;
+
+    private Map<Integer, Long> statusCounts;
+}
@@ -0,0 +1,15 @@
+package com.hyperativa.cardapi.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class KeyStatusResponse {
+    private int activeKeyId;
+    private boolean reEncryptionRunning;
+    private long scanned;
+    private long reEncrypted;
+}
@@ -0,0 +1,20 @@
+package com.hyperativa.cardapi.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RequestStatsResponse {
+
+    /**
+     * Length of the rolling window the statistics cover.
+     */
+    private long windowSeconds;
+
+    private List<EndpointStatsResponse> endpoints;
+}
@@ -0,0 +1,45 @@
+package com.hyperativa.cardapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UploadSessionResponse {
+
+    public enum Status {
+        RECEIVING,
+        PROCESSING,
+        COMPLETED,
+        FAILED
+    }
+
+    private String uploadId;
+
+    /**
+     * RECEIVING until completed; PROCESSING while the batch is ingested, then COMPLETED
+     * (with result) or FAILED (with error).
+     */
+    private Status status;
+
+    /**
+     * Bytes stored so far; the offset of the next chunk.
+     */
+    private long receivedBytes;
+
+    /**
+     * SHA-256 (hex) of the last chunk stored, for client-side verification.
+     */
+    private String lastChunkSha256;
+
+    /**
+     * Outcome of the batch once status is COMPLETED.
+     */
+    private BatchUploadResponse result;
+
+    private String error;
+}
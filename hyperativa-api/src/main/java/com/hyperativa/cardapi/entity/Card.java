@@ -8,7 +8,11 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "cards", indexes = {
-        @Index(name = "idx_card_hash", columnList = "cardHash", unique = true)
+        @Index(name = "idx_card_hash", columnList = "cardHash", unique = true),
+        // Covering index of the lookup by hash (external_id is not in idx_card_hash on InnoDB)
+        @Index(name = "idx_card_hash_external_id", columnList = "card_hash, external_id"),
+        @Index(name = "idx_card_batch", columnList = "batch_id, id"),
+        @Index(name = "idx_card_bin", columnList = "card_bin, id")
 })
 @Getter
 @Setter
@@ -24,6 +28,8 @@ public class Card {
     /**
      * Public unique card identifier (UUID).
      * Returned in queries instead of the internal ID.
+     * Assigned by CardService through the configured ExternalIdGenerator; the random
+     * default only applies to cards built elsewhere.
      */
     @Column(name = "external_id", nullable = false, unique = true, updatable = false, length = 36)
     @Builder.Default
@@ -43,6 +49,17 @@ public class Card {
     @Column(name = "card_hash", nullable = false, unique = true, length = 64)
     private String cardHash;
 
+    /**
+     * Issuer BIN (first 6 or 8 digits) and last four digits, in clear.
+     * Used for masked display and BIN filters without decryption; null until backfilled
+     * for cards registered before these columns existed.
+     */
+    @Column(name = "card_bin", length = 8)
+    private String cardBin;
+
+    @Column(name = "last_four", length = 4)
+    private String lastFour;
+
     /**
      * Source batch (when imported via TXT file).
      */
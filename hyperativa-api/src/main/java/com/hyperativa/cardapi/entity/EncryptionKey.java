@@ -0,0 +1,35 @@
+package com.hyperativa.cardapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "encryption_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EncryptionKey {
+
+    /**
+     * Key version, referenced by the "k{id}:" prefix of each ciphertext.
+     * The highest id is the active key.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    /**
+     * Data key encrypted with the master key (Base64).
+     * Never stored in plain form.
+     */
+    @Column(name = "wrapped_key", nullable = false, updatable = false, length = 100)
+    private String wrappedKey;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -1,12 +1,16 @@
 package com.hyperativa.cardapi.entity;
 
-import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
 
-@Entity
-@Table(name = "request_logs")
+/**
+ * One API call, as written by RequestLoggingFilter.
+ * <p>
+ * Not a JPA entity: rows go to daily segment tables (request_logs_yyyyMMdd) through
+ * {@link com.hyperativa.cardapi.repository.RequestLogStore}, so that retention drops whole
+ * tables instead of deleting rows.
+ */
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,32 +18,22 @@ import java.time.LocalDateTime;
 @Builder
 public class RequestLog {
 
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    @Column(nullable = false, length = 10)
     private String method;
 
-    @Column(nullable = false, length = 500)
     private String uri;
 
-    @Column(length = 100)
+    /**
+     * Matched route pattern (e.g. /api/v1/cards/batches/{batchId}/export), or the URI when no
+     * route matched. Rollups group by it so path variables do not explode the cardinality.
+     */
+    private String endpoint;
+
     private String username;
 
-    @Column(name = "status_code")
     private Integer statusCode;
 
-    @Column(name = "duration_ms")
     private Long durationMs;
 
-    @Column(name = "request_body", columnDefinition = "TEXT")
-    private String requestBody;
-
-    @Column(name = "response_summary", length = 500)
-    private String responseSummary;
-
-    @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
 }
@@ -0,0 +1,56 @@
+package com.hyperativa.cardapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-minute aggregate of request logs for one endpoint, method and user.
+ * Kept for long-term reporting after the raw segments are dropped.
+ */
+@Entity
+@Table(name = "request_log_rollups", indexes = {
+        @Index(name = "idx_rollup_minute", columnList = "bucket_minute")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RequestLogRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Start of the minute.
+     */
+    @Column(name = "bucket_minute", nullable = false)
+    private LocalDateTime bucketMinute;
+
+    @Column(nullable = false, length = 10)
+    private String method;
+
+    @Column(length = 500)
+    private String endpoint;
+
+    @Column(length = 100)
+    private String username;
+
+    @Column(name = "request_count", nullable = false)
+    private long requestCount;
+
+    @Column(name = "client_error_count", nullable = false)
+    private long clientErrorCount;
+
+    @Column(name = "server_error_count", nullable = false)
+    private long serverErrorCount;
+
+    @Column(name = "total_duration_ms", nullable = false)
+    private long totalDurationMs;
+
+    @Column(name = "max_duration_ms", nullable = false)
+    private long maxDurationMs;
+}
@@ -0,0 +1,11 @@
+package com.hyperativa.cardapi.exception;
+
+/**
+ * A key rotation was requested while the previous re-encryption job is still running.
+ */
+public class KeyRotationInProgressException extends RuntimeException {
+
+    public KeyRotationInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.hyperativa.cardapi.exception;
+
+/**
+ * A chunk does not fit the current state of its upload session (e.g. a gap in the offsets).
+ */
+public class UploadConflictException extends RuntimeException {
+
+    public UploadConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.hyperativa.cardapi.exception;
+
+/**
+ * An upload would exceed the caller's share of upload sessions or spool space, or the
+ * completion queue is full.
+ */
+public class UploadLimitException extends RuntimeException {
+
+    public UploadLimitException(String message) {
+        super(message);
+    }
+}
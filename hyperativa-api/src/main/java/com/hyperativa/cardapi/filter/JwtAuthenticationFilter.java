@@ -2,6 +2,7 @@ package com.hyperativa.cardapi.filter;
 
 import com.hyperativa.cardapi.service.CustomUserDetailsService;
 import com.hyperativa.cardapi.util.JwtUtil;
+import com.hyperativa.cardapi.util.PipelineEvents;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,14 +11,23 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+/**
+ * Authenticates requests carrying a valid Bearer token.
+ * <p>
+ * The context is also saved as a request attribute, where the async dispatch of a streaming
+ * response (batch export) finds it again, so that dispatch is authorized like the request.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -25,6 +35,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
 
     @Override
     protected void doFilterInternal(
@@ -42,8 +53,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = authHeader.substring(7);
 
         try {
-            if (jwtUtil.validateToken(token)) {
-                String username = jwtUtil.getUsernameFromToken(token);
+            PipelineEvents.JwtValidation validationEvent = new PipelineEvents.JwtValidation();
+            validationEvent.begin();
+            boolean valid = jwtUtil.validateToken(token);
+            String username = valid ? jwtUtil.getUsernameFromToken(token) : null;
+            validationEvent.emit(valid);
+
+            if (valid) {
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
                 UsernamePasswordAuthenticationToken authToken =
@@ -51,7 +67,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                 userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authToken);
+                SecurityContextHolder.setContext(context);
+                securityContextRepository.saveContext(context, request, response);
             }
         } catch (Exception e) {
             log.warn("JWT authentication failed: {}", e.getMessage());
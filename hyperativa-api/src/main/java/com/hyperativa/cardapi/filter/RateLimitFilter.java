@@ -0,0 +1,193 @@
+package com.hyperativa.cardapi.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyperativa.cardapi.config.RateLimitProperties;
+import com.hyperativa.cardapi.dto.ErrorResponse;
+import com.hyperativa.cardapi.util.TokenBucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user rate limiting and batch admission control. Runs after JwtAuthenticationFilter,
+ * so requests are keyed by username (client address when unauthenticated).
+ * <p>
+ * Search, single registration and batch uploads each have their own token bucket per user
+ * (see {@link TokenBucket}); a request over the limit gets 429 with Retry-After. Buckets are
+ * evicted once full again, which is lossless, and their number is capped. Batch uploads also
+ * need one of app.rate-limit.max-concurrent-batches global permits for their whole
+ * processing, so a few large files cannot take every database connection from interactive
+ * traffic. Completing an upload session only queues the file, so there the permit covers
+ * the request alone; the session's processing pool bounds the work itself.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum EndpointClass { SEARCH, CREATE, BATCH }
+
+    static final String OVERFLOW_KEY = "*";
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<EndpointClass, Map<String, TokenBucket>> buckets = new EnumMap<>(EndpointClass.class);
+    private final Semaphore batchPermits;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.batchPermits = new Semaphore(properties.getMaxConcurrentBatches(), true);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            buckets.put(endpointClass, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.isEnabled() || classify(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        EndpointClass endpointClass = classify(request);
+        String key = callerKey(request);
+
+        long waitNanos = bucketFor(endpointClass, key).tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            meterRegistry.counter("http.rate-limit.rejected", "class", name(endpointClass)).increment();
+            log.warn("Rate limit exceeded for {} on {}", key, name(endpointClass));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds(waitNanos),
+                    "Rate limit exceeded, retry later");
+            return;
+        }
+
+        if (endpointClass != EndpointClass.BATCH) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean admitted;
+        try {
+            admitted = batchPermits.tryAcquire(properties.getBatchAdmissionWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            meterRegistry.counter("http.rate-limit.rejected", "class", "batch-concurrency").increment();
+            log.warn("Batch upload from {} rejected: {} batches already running", key, properties.getMaxConcurrentBatches());
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, properties.getBatchRetryAfterSeconds(),
+                    "Too many batch uploads in progress, retry later");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            batchPermits.release();
+        }
+    }
+
+    /**
+     * Drops buckets that are full again; a new bucket behaves exactly the same.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().forEach(byUser -> byUser.values().removeIf(bucket -> bucket.isIdle(now)));
+    }
+
+    int availableBatchPermits() {
+        return batchPermits.availablePermits();
+    }
+
+    private TokenBucket bucketFor(EndpointClass endpointClass, String key) {
+        Map<String, TokenBucket> byUser = buckets.get(endpointClass);
+        TokenBucket bucket = byUser.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+
+        if (byUser.size() >= properties.getMaxUsers()) {
+            long now = System.nanoTime();
+            byUser.values().removeIf(idle -> idle.isIdle(now));
+            if (byUser.size() >= properties.getMaxUsers()) {
+                key = OVERFLOW_KEY;
+            }
+        }
+        RateLimitProperties.Limit limit = switch (endpointClass) {
+            case SEARCH -> properties.getSearch();
+            case CREATE -> properties.getCreate();
+            case BATCH -> properties.getBatch();
+        };
+        return byUser.computeIfAbsent(key, k -> new TokenBucket(limit.getPerSecond(), limit.getBurst()));
+    }
+
+    private static EndpointClass classify(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String method = request.getMethod();
+        if ("GET".equals(method) && uri.equals("/api/v1/cards/search")) {
+            return EndpointClass.SEARCH;
+        }
+        if ("POST".equals(method) && uri.equals("/api/v1/cards")) {
+            return EndpointClass.CREATE;
+        }
+        if ("POST".equals(method) && (uri.equals("/api/v1/cards/batch")
+                || (uri.startsWith("/api/v1/cards/uploads/") && uri.endsWith("/complete")))) {
+            return EndpointClass.BATCH;
+        }
+        return null;
+    }
+
+    private static String callerKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !"anonymousUser".equals(auth.getPrincipal())) {
+            return auth.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static String name(EndpointClass endpointClass) {
+        return endpointClass.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.builder()
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .build());
+    }
+}
@@ -1,7 +1,8 @@
 package com.hyperativa.cardapi.filter;
 
 import com.hyperativa.cardapi.entity.RequestLog;
-import com.hyperativa.cardapi.repository.RequestLogRepository;
+import com.hyperativa.cardapi.repository.RequestLogStore;
+import com.hyperativa.cardapi.service.RequestStatsService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,15 +14,18 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class RequestLoggingFilter extends OncePerRequestFilter {
 
-    private final RequestLogRepository requestLogRepository;
+    private final RequestLogStore requestLogStore;
+    private final RequestStatsService requestStatsService;
 
     @Override
     protected void doFilterInternal(
@@ -29,12 +33,13 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
 
-        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
         try {
             filterChain.doFilter(request, response);
         } finally {
-            long duration = System.currentTimeMillis() - startTime;
+            long durationNanos = System.nanoTime() - startNanos;
+            long duration = TimeUnit.NANOSECONDS.toMillis(durationNanos);
 
             String username = null;
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -47,16 +52,21 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
             if (!uri.startsWith("/actuator") && !uri.startsWith("/h2-console")
                     && !uri.startsWith("/swagger") && !uri.startsWith("/api-docs")) {
 
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                requestStatsService.record(request.getMethod(), pattern != null ? pattern.toString() : null,
+                        response.getStatus(), durationNanos);
+
                 RequestLog logEntry = RequestLog.builder()
                         .method(request.getMethod())
                         .uri(uri)
+                        .endpoint(pattern != null ? pattern.toString() : uri)
                         .username(username)
                         .statusCode(response.getStatus())
                         .durationMs(duration)
                         .build();
 
                 try {
-                    requestLogRepository.save(logEntry);
+                    requestLogStore.save(logEntry);
                 } catch (Exception e) {
                     log.error("Error saving request log", e);
                 }
@@ -0,0 +1,15 @@
+package com.hyperativa.cardapi.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the columns needed to export a card, without loading the entity.
+ */
+public interface CardExportView {
+    Long getId();
+    String getExternalId();
+    String getCardNumberEncrypted();
+    String getCardBin();
+    String getLastFour();
+    LocalDateTime getCreatedAt();
+}
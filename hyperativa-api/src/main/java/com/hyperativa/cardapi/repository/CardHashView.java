@@ -0,0 +1,10 @@
+package com.hyperativa.cardapi.repository;
+
+/**
+ * Projection of the columns needed to index a card, without loading the entity.
+ */
+public interface CardHashView {
+    Long getId();
+    String getCardHash();
+    String getExternalId();
+}
@@ -0,0 +1,69 @@
+package com.hyperativa.cardapi.repository;
+
+import com.hyperativa.cardapi.entity.Card;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Locale;
+
+/**
+ * Inserts a card unless its card_hash is already registered, in a single statement.
+ * <p>
+ * MySQL uses INSERT IGNORE, which reports zero rows for an existing hash instead of failing
+ * (ON DUPLICATE KEY UPDATE would report one found row with Connector/J's default flags).
+ * Other databases (H2) use a MERGE that only inserts when no row matches. H2 can still lose a
+ * race against a concurrent commit of the same hash; that surfaces as a duplicate key and is
+ * reported as zero rows too. The statement runs on whichever datasource the caller is routed
+ * to (primary or shard), outside Hibernate, so the entity is not attached afterwards.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CardInsertStore {
+
+    private static final String COLUMNS =
+            "external_id, card_number_encrypted, card_hash, card_bin, last_four, batch_id, created_at";
+
+    private static final String MYSQL_INSERT = "INSERT IGNORE INTO cards (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String MERGE_INSERT = "MERGE INTO cards c USING (VALUES (CAST(? AS VARCHAR(36)), "
+            + "CAST(? AS CLOB), CAST(? AS VARCHAR(64)), CAST(? AS VARCHAR(8)), CAST(? AS VARCHAR(4)), "
+            + "CAST(? AS VARCHAR(50)), CAST(? AS TIMESTAMP(6)))) s(" + COLUMNS + ") ON c.card_hash = s.card_hash "
+            + "WHEN NOT MATCHED THEN INSERT (" + COLUMNS + ") VALUES (s.external_id, s.card_number_encrypted, "
+            + "s.card_hash, s.card_bin, s.last_four, s.batch_id, s.created_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns true if the card was inserted, false if its hash was already registered.
+     */
+    public boolean insertIfAbsent(Card card) {
+        try {
+            Integer rows = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> insert(connection, card));
+            return rows != null && rows > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private static int insert(Connection connection, Card card) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        String sql = product.contains("mysql") || product.contains("mariadb") ? MYSQL_INSERT : MERGE_INSERT;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, card.getExternalId());
+            statement.setString(2, card.getCardNumberEncrypted());
+            statement.setString(3, card.getCardHash());
+            statement.setString(4, card.getCardBin());
+            statement.setString(5, card.getLastFour());
+            statement.setString(6, card.getBatchId());
+            statement.setTimestamp(7, Timestamp.valueOf(card.getCreatedAt()));
+            return statement.executeUpdate();
+        }
+    }
+}
@@ -1,13 +1,86 @@
 package com.hyperativa.cardapi.repository;
 
 import com.hyperativa.cardapi.entity.Card;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CardRepository extends JpaRepository<Card, Long> {
-    Optional<Card> findByCardHash(String cardHash);
+
+    // Read-only so that, with replica routing, standalone lookups go to the replica.
+    // Inside a read-write transaction they join it and stay on the primary.
+    @Transactional(readOnly = true)
     boolean existsByCardHash(String cardHash);
+
+    // Lookup path: a scalar, so no entity is loaded, attached or dirty-checked, and
+    // idx_card_hash_external_id covers it without reading the row (nor card_number_encrypted).
+    @Transactional(readOnly = true)
+    @Query("SELECT c.externalId FROM Card c WHERE c.cardHash = :cardHash")
+    Optional<String> findExternalIdByCardHash(@Param("cardHash") String cardHash);
+
+    @Query("SELECT c.id AS id, c.cardHash AS cardHash, c.externalId AS externalId FROM Card c WHERE c.cardHash IN :cardHashes")
+    List<CardHashView> findHashesIn(@Param("cardHashes") Collection<String> cardHashes);
+
+    // Keyset pagination for background jobs: constant cost per chunk regardless of offset.
+    @Query("SELECT c FROM Card c WHERE c.id > :afterId ORDER BY c.id")
+    List<Card> findChunkAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT c.id AS id, c.cardHash AS cardHash, c.externalId AS externalId FROM Card c WHERE c.id > :afterId ORDER BY c.id")
+    List<CardHashView> findHashChunkAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    // With count(), the fingerprint the card index snapshot is checked against at startup
+    @Query("SELECT MAX(c.id) FROM Card c")
+    Long findMaxId();
+
+    // Most recently registered cards first; used to preload the lookup path during warm-up.
+    @Transactional(readOnly = true)
+    @Query("SELECT c.id AS id, c.cardHash AS cardHash, c.externalId AS externalId FROM Card c ORDER BY c.id DESC")
+    List<CardHashView> findLatestHashes(Pageable pageable);
+
+    long countByBatchId(String batchId);
+
+    @Query("SELECT c.id AS id, c.externalId AS externalId, c.cardNumberEncrypted AS cardNumberEncrypted, "
+            + "c.cardBin AS cardBin, c.lastFour AS lastFour, c.createdAt AS createdAt "
+            + "FROM Card c WHERE c.batchId = :batchId AND c.id > :afterId ORDER BY c.id")
+    List<CardExportView> findExportChunkAfter(@Param("batchId") String batchId, @Param("afterId") long afterId,
+                                              Pageable pageable);
+
+    // Masked export: the ciphertext is only read for cards whose BIN is not backfilled yet.
+    @Query("SELECT c.id AS id, c.externalId AS externalId, "
+            + "CASE WHEN c.cardBin IS NULL THEN c.cardNumberEncrypted ELSE NULL END AS cardNumberEncrypted, "
+            + "c.cardBin AS cardBin, c.lastFour AS lastFour, c.createdAt AS createdAt "
+            + "FROM Card c WHERE c.batchId = :batchId AND c.id > :afterId ORDER BY c.id")
+    List<CardExportView> findMaskedExportChunkAfter(@Param("batchId") String batchId, @Param("afterId") long afterId,
+                                                    Pageable pageable);
+
+    @Query("SELECT c FROM Card c WHERE c.cardBin IS NULL AND c.id > :afterId ORDER BY c.id")
+    List<Card> findWithoutBinAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    // Keyset over idx_card_bin in (card_bin, id) order: the BIN prefix and the cursor's card_bin
+    // both bound the index range, so a page reads only its own entries, already sorted.
+    // The optional batch is a residual filter. Start with afterBin "" and afterId 0.
+    @Transactional(readOnly = true)
+    @Query("SELECT c.id AS id, c.externalId AS externalId, c.cardBin AS cardBin, c.lastFour AS lastFour, "
+            + "c.batchId AS batchId, c.createdAt AS createdAt FROM Card c "
+            + "WHERE c.cardBin LIKE CONCAT(:bin, '%') AND c.cardBin >= :afterBin "
+            + "AND (c.cardBin > :afterBin OR c.id > :afterId) AND (:batchId IS NULL OR c.batchId = :batchId) "
+            + "ORDER BY c.cardBin, c.id")
+    List<CardSummaryView> findSummariesByBin(@Param("bin") String bin, @Param("batchId") String batchId,
+                                             @Param("afterBin") String afterBin, @Param("afterId") long afterId,
+                                             Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT c.id AS id, c.externalId AS externalId, c.cardBin AS cardBin, c.lastFour AS lastFour, "
+            + "c.batchId AS batchId, c.createdAt AS createdAt FROM Card c "
+            + "WHERE c.batchId = :batchId AND c.id > :afterId ORDER BY c.id")
+    List<CardSummaryView> findSummariesByBatch(@Param("batchId") String batchId, @Param("afterId") long afterId,
+                                               Pageable pageable);
 }
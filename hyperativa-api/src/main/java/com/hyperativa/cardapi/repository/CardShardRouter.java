@@ -0,0 +1,119 @@
+package com.hyperativa.cardapi.repository;
+
+import com.hyperativa.cardapi.config.ShardingProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Binds {@link CardRepository} calls to the shard owning a card hash.
+ * <p>
+ * The shard is the first 4 hex digits of the SHA-256 hash modulo the shard count, so
+ * cards spread uniformly. The binding is thread-local and must be in place before a
+ * transaction opens, since the connection is taken from the shard at that point.
+ * With sharding disabled there is a single shard and nothing is bound.
+ */
+@Component
+public class CardShardRouter {
+
+    private static final int PREFIX_HEX_DIGITS = 4;
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final int shardCount;
+    private final ExecutorService executor;
+
+    public CardShardRouter(ShardingProperties properties) {
+        this.shardCount = properties.isEnabled() ? properties.getShards().size() : 1;
+        this.executor = shardCount > 1
+                ? Executors.newFixedThreadPool(shardCount, Thread.ofPlatform().name("shard-writer-", 0).daemon().factory())
+                : null;
+    }
+
+    /**
+     * Shard bound to the current thread, or null for the primary datasource.
+     */
+    public static Integer currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardFor(String cardHash) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        return Integer.parseInt(cardHash, 0, PREFIX_HEX_DIGITS, 16) % shardCount;
+    }
+
+    public <T> T onShardOf(String cardHash, Supplier<T> action) {
+        return onShard(shardFor(cardHash), action);
+    }
+
+    public <T> T onShard(int shard, Supplier<T> action) {
+        if (shardCount == 1) {
+            return action.get();
+        }
+
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Runs the task once per shard, in parallel when more than one shard is involved.
+     * Results are returned in shard order.
+     */
+    public <K, R> List<R> fanOut(Map<Integer, List<K>> itemsByShard, BiFunction<Integer, List<K>, R> task) {
+        SortedMap<Integer, List<K>> ordered = new TreeMap<>(itemsByShard);
+
+        if (executor == null || ordered.size() <= 1) {
+            List<R> results = new ArrayList<>();
+            ordered.forEach((shard, items) -> results.add(onShard(shard, () -> task.apply(shard, items))));
+            return results;
+        }
+
+        List<Future<R>> futures = new ArrayList<>();
+        ordered.forEach((shard, items) ->
+                futures.add(executor.submit(() -> onShard(shard, () -> task.apply(shard, items)))));
+
+        List<R> results = new ArrayList<>();
+        for (Future<R> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException("Shard task failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for shard tasks", e);
+            }
+        }
+        return results;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
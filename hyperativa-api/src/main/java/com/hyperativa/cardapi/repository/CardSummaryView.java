@@ -0,0 +1,15 @@
+package com.hyperativa.cardapi.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the clear columns of a card, for listings that must not decrypt.
+ */
+public interface CardSummaryView {
+    Long getId();
+    String getExternalId();
+    String getCardBin();
+    String getLastFour();
+    String getBatchId();
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,12 @@
+package com.hyperativa.cardapi.repository;
+
+import com.hyperativa.cardapi.entity.EncryptionKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface EncryptionKeyRepository extends JpaRepository<EncryptionKey, Integer> {
+    Optional<EncryptionKey> findTopByOrderByIdDesc();
+}
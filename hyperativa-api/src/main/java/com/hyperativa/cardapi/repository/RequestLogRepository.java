@@ -1,9 +0,0 @@
-package com.hyperativa.cardapi.repository;
-
-import com.hyperativa.cardapi.entity.RequestLog;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-
-@Repository
-public interface RequestLogRepository extends JpaRepository<RequestLog, Long> {
-}
@@ -0,0 +1,24 @@
+package com.hyperativa.cardapi.repository;
+
+import com.hyperativa.cardapi.entity.RequestLogRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RequestLogRollupRepository extends JpaRepository<RequestLogRollup, Long> {
+
+    @Query("SELECT MAX(r.bucketMinute) FROM RequestLogRollup r")
+    Optional<LocalDateTime> findLatestMinute();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RequestLogRollup r WHERE r.bucketMinute < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
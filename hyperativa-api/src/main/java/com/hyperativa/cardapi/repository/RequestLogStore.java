@@ -0,0 +1,156 @@
+package com.hyperativa.cardapi.repository;
+
+import com.hyperativa.cardapi.entity.RequestLog;
+import com.hyperativa.cardapi.entity.RequestLogRollup;
+import com.hyperativa.cardapi.util.PipelineEvents;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Request logs in daily segment tables, request_logs_yyyyMMdd, on the primary datasource.
+ * <p>
+ * Each row goes to the segment of its creation day, created on first use. Rows carry their
+ * minute (minute_bucket, minutes since the epoch of the local timestamp), indexed, so rollups
+ * read a range of minutes without scanning the day. Retention drops whole segments, which is
+ * a metadata operation on every database, instead of deleting rows from a live table.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class RequestLogStore {
+
+    private static final String PREFIX = "request_logs_";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final Pattern SEGMENT = Pattern.compile(PREFIX + "(\\d{8})", Pattern.CASE_INSENSITIVE);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Set<LocalDate> knownSegments = ConcurrentHashMap.newKeySet();
+
+    public void save(RequestLog requestLog) {
+        PipelineEvents.AuditWrite writeEvent = new PipelineEvents.AuditWrite();
+        writeEvent.begin();
+        LocalDateTime createdAt = requestLog.getCreatedAt();
+        String table = ensureSegment(createdAt.toLocalDate());
+        jdbcTemplate.update("INSERT INTO " + table
+                        + " (method, uri, endpoint, username, status_code, duration_ms, created_at, minute_bucket)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                requestLog.getMethod(), requestLog.getUri(), requestLog.getEndpoint(), requestLog.getUsername(),
+                requestLog.getStatusCode(), requestLog.getDurationMs(), Timestamp.valueOf(createdAt),
+                minuteOf(createdAt));
+        writeEvent.emit(table, requestLog.getStatusCode() == null ? 0 : requestLog.getStatusCode());
+    }
+
+    /**
+     * Creates the segment of the given day if needed and returns its table name.
+     */
+    public String ensureSegment(LocalDate day) {
+        String table = tableOf(day);
+        if (knownSegments.contains(day)) {
+            return table;
+        }
+
+        synchronized (knownSegments) {
+            if (knownSegments.contains(day)) {
+                return table;
+            }
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                    + "id BIGINT NOT NULL AUTO_INCREMENT, "
+                    + "method VARCHAR(10) NOT NULL, "
+                    + "uri VARCHAR(500) NOT NULL, "
+                    + "endpoint VARCHAR(500), "
+                    + "username VARCHAR(100), "
+                    + "status_code INT, "
+                    + "duration_ms BIGINT, "
+                    + "created_at TIMESTAMP(6) NOT NULL, "
+                    + "minute_bucket BIGINT NOT NULL, "
+                    + "PRIMARY KEY (id))");
+            try {
+                jdbcTemplate.execute("CREATE INDEX idx_" + table + "_minute ON " + table + " (minute_bucket)");
+            } catch (DataAccessException e) {
+                // Already created by another node or a previous run
+                log.debug("Index on {} not created: {}", table, e.getMessage());
+            }
+            knownSegments.add(day);
+        }
+        return table;
+    }
+
+    /**
+     * Days that have a segment, oldest first.
+     */
+    public List<LocalDate> listSegments() {
+        List<LocalDate> days = jdbcTemplate.execute((Connection connection) -> {
+            TreeSet<LocalDate> found = new TreeSet<>();
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), "%",
+                    new String[]{"TABLE"})) {
+                while (tables.next()) {
+                    Matcher matcher = SEGMENT.matcher(tables.getString("TABLE_NAME"));
+                    if (matcher.matches()) {
+                        found.add(LocalDate.parse(matcher.group(1), SUFFIX));
+                    }
+                }
+            }
+            return new ArrayList<>(found);
+        });
+        return days == null ? List.of() : days;
+    }
+
+    public void dropSegment(LocalDate day) {
+        knownSegments.remove(day);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + tableOf(day));
+    }
+
+    /**
+     * Aggregates the rows of one segment in [from, to) per minute, method, endpoint and user.
+     */
+    public List<RequestLogRollup> aggregate(LocalDate day, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query("SELECT minute_bucket, method, endpoint, username, COUNT(*) AS request_count, "
+                        + "SUM(CASE WHEN status_code >= 400 AND status_code < 500 THEN 1 ELSE 0 END) AS client_errors, "
+                        + "SUM(CASE WHEN status_code >= 500 THEN 1 ELSE 0 END) AS server_errors, "
+                        + "SUM(duration_ms) AS total_duration, MAX(duration_ms) AS max_duration "
+                        + "FROM " + tableOf(day) + " WHERE minute_bucket >= ? AND minute_bucket < ? "
+                        + "GROUP BY minute_bucket, method, endpoint, username",
+                (rs, rowNum) -> RequestLogRollup.builder()
+                        .bucketMinute(LocalDateTime.ofEpochSecond(rs.getLong("minute_bucket") * 60, 0, ZoneOffset.UTC))
+                        .method(rs.getString("method"))
+                        .endpoint(rs.getString("endpoint"))
+                        .username(rs.getString("username"))
+                        .requestCount(rs.getLong("request_count"))
+                        .clientErrorCount(rs.getLong("client_errors"))
+                        .serverErrorCount(rs.getLong("server_errors"))
+                        .totalDurationMs(rs.getLong("total_duration"))
+                        .maxDurationMs(rs.getLong("max_duration"))
+                        .build(),
+                minuteOf(from), minuteOf(to));
+    }
+
+    private static String tableOf(LocalDate day) {
+        return (PREFIX + day.format(SUFFIX)).toLowerCase(Locale.ROOT);
+    }
+
+    private static long minuteOf(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+}
@@ -19,9 +19,10 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
 
     /**
-     * Authenticates the user and returns a JWT token.
+     * Authenticates the user and returns a JWT token and a refresh token.
      */
     public AuthResponse authenticate(AuthRequest request) {
         User user = userRepository.findByUsername(request.getUsername())
@@ -35,13 +36,42 @@ public class AuthService {
             throw new BadCredentialsException("Invalid credentials");
         }
 
-        String token = jwtUtil.generateToken(user.getUsername());
         log.info("User '{}' authenticated successfully", user.getUsername());
+        return tokens(user.getUsername(), refreshTokenService.issue(user.getUsername()));
+    }
+
+    /**
+     * Exchanges a refresh token for a new JWT token and the next refresh token, without
+     * checking the password again.
+     */
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Issued issued = refreshTokenService.rotate(refreshToken);
+
+        boolean active = userRepository.findByUsername(issued.username())
+                .map(User::getActive)
+                .orElse(false);
+        if (!active) {
+            refreshTokenService.revoke(issued.token());
+            throw new BadCredentialsException("Inactive user");
+        }
+
+        return tokens(issued.username(), issued.token());
+    }
+
+    /**
+     * Revokes the refresh token and all tokens rotated from the same login.
+     */
+    public void logout(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
+    }
 
+    private AuthResponse tokens(String username, String refreshToken) {
         return AuthResponse.builder()
-                .token(token)
+                .token(jwtUtil.generateToken(username))
                 .type("Bearer")
                 .expiresIn(jwtUtil.getExpirationMs() / 1000)
+                .refreshToken(refreshToken)
+                .refreshExpiresIn(refreshTokenService.getRefreshExpirationMs() / 1000)
                 .build();
     }
 
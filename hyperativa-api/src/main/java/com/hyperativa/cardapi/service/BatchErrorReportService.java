@@ -0,0 +1,93 @@
+package com.hyperativa.cardapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyperativa.cardapi.util.BatchErrorReport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Spool files with the full error list of batch uploads.
+ * <p>
+ * Each upload gets a {@link BatchErrorReport} writing to app.batch.error-report.directory;
+ * the upload response carries its id, under which the file can be downloaded until it
+ * expires after app.batch.error-report.ttl-ms. Ids are random UUIDs, and a report is only
+ * found for the user who uploaded the batch: its file name also carries the uploader.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchErrorReportService {
+
+    private static final Pattern REPORT_ID = Pattern.compile("[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}");
+    private static final String SUFFIX = ".ndjson";
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.batch.error-report.directory:${java.io.tmpdir}/card-batch-errors}")
+    private String directory;
+
+    @Value("${app.batch.error-report.sample-size:100}")
+    private int sampleSize;
+
+    @Value("${app.batch.error-report.ttl-ms:86400000}")
+    private long ttlMs;
+
+    public BatchErrorReport create(String username) {
+        try {
+            Path reportDirectory = Files.createDirectories(Path.of(directory));
+            String reportId = UUID.randomUUID().toString();
+            return new BatchErrorReport(reportId, reportDirectory.resolve(fileName(reportId, username)), sampleSize,
+                    objectMapper);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error creating batch error report directory", e);
+        }
+    }
+
+    /**
+     * Report file of the given id, if username created it and it has not expired.
+     */
+    public Optional<Path> find(String reportId, String username) {
+        if (reportId == null || !REPORT_ID.matcher(reportId).matches()) {
+            return Optional.empty();
+        }
+        Path file = Path.of(directory, fileName(reportId, username));
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    private static String fileName(String reportId, String username) {
+        return UUID.nameUUIDFromBytes(username.getBytes(StandardCharsets.UTF_8)) + "_" + reportId + SUFFIX;
+    }
+
+    @Scheduled(fixedDelayString = "${app.batch.error-report.cleanup-ms:600000}")
+    public void expireReports() {
+        Path reportDirectory = Path.of(directory);
+        if (!Files.isDirectory(reportDirectory)) {
+            return;
+        }
+
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(reportDirectory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    Files.deleteIfExists(file);
+                    log.info("Batch error report {} expired", file.getFileName());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error expiring batch error reports in {}", reportDirectory, e);
+        }
+    }
+}
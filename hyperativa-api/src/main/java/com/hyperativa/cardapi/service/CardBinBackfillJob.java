@@ -0,0 +1,147 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.entity.Card;
+import com.hyperativa.cardapi.repository.CardRepository;
+import com.hyperativa.cardapi.repository.CardShardRouter;
+import com.hyperativa.cardapi.util.CardNumbers;
+import com.hyperativa.cardapi.util.EncryptionUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills card_bin and last_four for cards registered before those columns existed.
+ * <p>
+ * Runs once at startup (app.card-bin.backfill.enabled). Walks the cards without a BIN on
+ * every shard by id in small chunks, each in its own short transaction, decrypting each
+ * number one last time; new cards get both columns at ingest. Once the table is filled a
+ * run costs one empty query per shard.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CardBinBackfillJob {
+
+    private final CardRepository cardRepository;
+    private final EncryptionUtil encryptionUtil;
+    private final CardShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("card-bin-backfill").daemon().factory());
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong filled = new AtomicLong();
+
+    @Value("${app.card-bin.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.card-bin.backfill.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.card-bin.backfill.pause-ms:20}")
+    private long pauseMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onStartup() {
+        if (enabled) {
+            start();
+        }
+    }
+
+    /**
+     * Starts the job unless it is already running.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        filled.set(0);
+        executor.submit(this::run);
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public long getFilled() {
+        return filled.get();
+    }
+
+    private void run() {
+        try {
+            for (int shard = 0; shard < shardRouter.shardCount() && !Thread.currentThread().isInterrupted(); shard++) {
+                shardRouter.onShard(shard, () -> {
+                    backfillShard();
+                    return null;
+                });
+            }
+            if (filled.get() > 0) {
+                log.info("BIN backfill finished: {} cards filled", filled.get());
+            }
+        } catch (Exception e) {
+            log.error("BIN backfill failed after {} cards", filled.get(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void backfillShard() {
+        long afterId = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            long from = afterId;
+            Long lastId = transactionTemplate.execute(status -> backfillChunk(from));
+            if (lastId == null) {
+                return;
+            }
+            afterId = lastId;
+            pause();
+        }
+    }
+
+    /**
+     * Fills one chunk through dirty checking; returns the last id seen, or null when done.
+     */
+    private Long backfillChunk(long afterId) {
+        List<Card> cards = cardRepository.findWithoutBinAfter(afterId, PageRequest.of(0, chunkSize));
+        if (cards.isEmpty()) {
+            return null;
+        }
+
+        for (Card card : cards) {
+            String cardNumber = encryptionUtil.decrypt(card.getCardNumberEncrypted());
+            card.setCardBin(CardNumbers.bin(cardNumber));
+            card.setLastFour(CardNumbers.lastFour(cardNumber));
+        }
+        filled.addAndGet(cards.size());
+        return cards.getLast().getId();
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
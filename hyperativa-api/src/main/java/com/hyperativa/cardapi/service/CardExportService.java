@@ -0,0 +1,221 @@
+package com.hyperativa.cardapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyperativa.cardapi.repository.CardExportView;
+import com.hyperativa.cardapi.repository.CardRepository;
+import com.hyperativa.cardapi.repository.CardShardRouter;
+import com.hyperativa.cardapi.util.CardNumbers;
+import com.hyperativa.cardapi.util.EncryptionUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming export of the cards of a batch.
+ * <p>
+ * Cards are read shard by shard in keyset-paginated chunks of projections (never entities)
+ * and lines are written in order as soon as the chunk is done. Memory use is bounded by one
+ * chunk regardless of the batch size.
+ * <p>
+ * Numbers are masked from the clear card_bin / last_four columns, like the card listings
+ * ({@link CardNumbers#mask}), without decrypting; only cards not yet backfilled are decrypted.
+ * Clear numbers are exported only when the caller asks to reveal them, which only admins may
+ * do and only with app.export.reveal-enabled=true. Those chunks are decrypted in slices on a
+ * bounded pool of their own (app.export.decrypt-threads; when its queue is full the request
+ * thread decrypts).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CardExportService {
+
+    public enum Format { NDJSON, TXT }
+
+    private static final DateTimeFormatter HEADER_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final CardRepository cardRepository;
+    private final EncryptionUtil encryptionUtil;
+    private final CardShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.export.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.export.reveal-enabled:false}")
+    private boolean revealEnabled;
+
+    @Value("${app.export.decrypt-threads:4}")
+    private int decryptThreads;
+
+    @Value("${app.export.decrypt-queue-size:64}")
+    private int decryptQueueSize;
+
+    private ThreadPoolExecutor decryptPool;
+
+    @PostConstruct
+    void startDecryptPool() {
+        decryptPool = new ThreadPoolExecutor(decryptThreads, decryptThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(decryptQueueSize),
+                Thread.ofPlatform().name("card-export-", 0).daemon().factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void stopDecryptPool() {
+        decryptPool.shutdown();
+    }
+
+    /**
+     * Whether the caller may export clear card numbers.
+     */
+    public boolean canReveal(Authentication authentication) {
+        return revealEnabled && authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+
+    /**
+     * Number of cards in the batch across all shards.
+     */
+    public long countBatch(String batchId) {
+        long count = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            Long shardCount = shardRouter.onShard(shard,
+                    () -> transactionTemplate.execute(status -> cardRepository.countByBatchId(batchId)));
+            count += shardCount == null ? 0 : shardCount;
+        }
+        return count;
+    }
+
+    /**
+     * Writes the batch to out. For TXT the expected record count goes in the header and footer.
+     */
+    public void exportBatch(String batchId, Format format, boolean reveal, long expectedCount, OutputStream out)
+            throws IOException {
+        long start = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+
+        if (format == Format.TXT) {
+            writer.write(String.format("%-29s%s%-8s%06d%n", "HYPERATIVA-EXPORT",
+                    LocalDate.now().format(HEADER_DATE), batchId, expectedCount));
+        }
+
+        long written = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            long afterId = 0;
+            while (true) {
+                long from = afterId;
+                PageRequest page = PageRequest.of(0, chunkSize);
+                List<CardExportView> chunk = shardRouter.onShard(shard, () -> transactionTemplate.execute(status ->
+                        reveal ? cardRepository.findExportChunkAfter(batchId, from, page)
+                                : cardRepository.findMaskedExportChunkAfter(batchId, from, page)));
+                if (chunk == null || chunk.isEmpty()) {
+                    break;
+                }
+
+                List<String> cardNumbers = reveal ? decrypt(chunk) : mask(chunk);
+
+                for (int i = 0; i < chunk.size(); i++) {
+                    written++;
+                    writeLine(writer, format, written, chunk.get(i), cardNumbers.get(i));
+                }
+                writer.flush();
+                afterId = chunk.getLast().getId();
+            }
+        }
+
+        if (format == Format.TXT) {
+            writer.write(String.format("%-8s%06d%n", batchId, expectedCount));
+        }
+        writer.flush();
+
+        log.info("Batch '{}' exported: {} cards as {} ({}) in {}ms",
+                batchId, written, format, reveal ? "revealed" : "masked", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Clear card numbers of the chunk in order, decrypted in one slice per decrypt thread.
+     */
+    private List<String> decrypt(List<CardExportView> chunk) {
+        int sliceSize = Math.ceilDiv(chunk.size(), decryptThreads);
+        List<Future<List<String>>> slices = new ArrayList<>();
+        for (int from = 0; from < chunk.size(); from += sliceSize) {
+            List<CardExportView> slice = chunk.subList(from, Math.min(from + sliceSize, chunk.size()));
+            slices.add(decryptPool.submit(() -> slice.stream()
+                    .map(card -> encryptionUtil.decrypt(card.getCardNumberEncrypted()))
+                    .toList()));
+        }
+
+        List<String> cardNumbers = new ArrayList<>(chunk.size());
+        try {
+            for (Future<List<String>> slice : slices) {
+                cardNumbers.addAll(slice.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Decrypting export chunk failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            slices.forEach(slice -> slice.cancel(true));
+            throw new IllegalStateException("Interrupted while decrypting export chunk", e);
+        }
+        return cardNumbers;
+    }
+
+    /**
+     * Masked card numbers of the chunk in order; only cards without a stored BIN are decrypted.
+     */
+    private List<String> mask(List<CardExportView> chunk) {
+        List<String> cardNumbers = new ArrayList<>(chunk.size());
+        for (CardExportView card : chunk) {
+            if (card.getCardBin() != null) {
+                cardNumbers.add(CardNumbers.mask(card.getCardBin(), card.getLastFour()));
+            } else {
+                String cardNumber = encryptionUtil.decrypt(card.getCardNumberEncrypted());
+                cardNumbers.add(CardNumbers.mask(CardNumbers.bin(cardNumber), CardNumbers.lastFour(cardNumber)));
+            }
+        }
+        return cardNumbers;
+    }
+
+    private void writeLine(Writer writer, Format format, long sequence, CardExportView card, String cardNumber)
+            throws IOException {
+        if (format == Format.TXT) {
+            writer.write(String.format("C%-6d%s%n", sequence % 1_000_000, cardNumber));
+            return;
+        }
+
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("externalId", card.getExternalId());
+        line.put("cardNumber", cardNumber);
+        line.put("createdAt", card.getCreatedAt().toString());
+        writer.write(objectMapper.writeValueAsString(line));
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,357 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.repository.CardHashView;
+import com.hyperativa.cardapi.repository.CardRepository;
+import com.hyperativa.cardapi.repository.CardShardRouter;
+import com.hyperativa.cardapi.util.OffHeapHashIndex;
+import com.hyperativa.cardapi.util.OffHeapHashIndex.Entry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Optional full card_hash → external_id index held off-heap ({@link OffHeapHashIndex}).
+ * <p>
+ * When enabled (app.card-index.enabled), lookups that hit the index never touch the database.
+ * A miss still falls back to the database, since other nodes may have registered the card;
+ * the result is then added to the index. On first start the index is sized from the card
+ * count and built in the background from the cards table, recording a watermark (shard, last
+ * id) after each chunk so a build interrupted by a restart resumes where it stopped;
+ * afterwards restarts reuse the mapped snapshot and its append log. A complete build records
+ * a fingerprint of the cards table (card count and highest id per shard); on restart the
+ * snapshot is only reused if the table can have merely gained cards since, otherwise (restored,
+ * truncated or different database) it is deleted and rebuilt.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CardIndexService {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final String WATERMARK_FILE = "card-index.build";
+
+    private final CardRepository cardRepository;
+    private final CardShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.card-index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.card-index.directory:./data/card-index}")
+    private String directory;
+
+    @Value("${app.card-index.initial-capacity:1000000}")
+    private long initialCapacity;
+
+    @Value("${app.card-index.load-chunk-size:10000}")
+    private int loadChunkSize;
+
+    private volatile OffHeapHashIndex index;
+
+    // Committed cards that did not fit while the index was growing; written once it has grown
+    private final Queue<Entry> deferred = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    @PostConstruct
+    void open() {
+        if (!enabled) {
+            return;
+        }
+
+        Path indexDirectory = Path.of(directory);
+        BuildWatermark watermark = BuildWatermark.load(indexDirectory);
+        List<Fingerprint> fingerprints = fingerprints();
+        if (watermark == null) {
+            // First start, or a snapshot built before watermarks were recorded
+            OffHeapHashIndex.delete(indexDirectory);
+            watermark = BuildWatermark.START;
+        } else if (watermark.complete() && !watermark.admits(fingerprints)) {
+            log.warn("Card index snapshot does not match the cards table (built at {}, now {}); rebuilding",
+                    watermark.fingerprints(), fingerprints);
+            OffHeapHashIndex.delete(indexDirectory);
+            watermark = BuildWatermark.START;
+        }
+        boolean building = !watermark.complete();
+        long cards = fingerprints.stream().mapToLong(Fingerprint::count).sum();
+        long expectedCards = building ? Math.max(initialCapacity, cards) : initialCapacity;
+
+        OffHeapHashIndex opened = OffHeapHashIndex.open(indexDirectory, expectedCards);
+        log.info("Card index opened with {} entries (capacity {})", opened.size(), opened.capacity());
+        index = opened;
+
+        if (building) {
+            BuildWatermark from = watermark;
+            from.save(indexDirectory);
+            Thread.ofPlatform().name("card-index-build").daemon().start(() -> build(from));
+        }
+    }
+
+    /**
+     * External id of the card with the given hash, if indexed.
+     */
+    public Optional<String> find(String cardHash) {
+        OffHeapHashIndex current = index;
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        byte[] value = current.get(HEX.parseHex(cardHash));
+        if (value == null) {
+            return Optional.empty();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(value);
+        return Optional.of(new UUID(buffer.getLong(), buffer.getLong()).toString());
+    }
+
+    public void record(String cardHash, String externalId) {
+        recordAll(Map.of(cardHash, externalId));
+    }
+
+    /**
+     * Adds committed cards (hash → external id) to the index.
+     * External ids that are not UUIDs cannot be stored in the fixed-width slot and are skipped.
+     * Cards that do not fit while the index is growing are queued and written by a background
+     * thread once the resize is done, so the caller never waits for the copy.
+     */
+    public void recordAll(Map<String, String> externalIdsByHash) {
+        OffHeapHashIndex current = index;
+        if (current == null || externalIdsByHash.isEmpty()) {
+            return;
+        }
+
+        List<Entry> entries = new ArrayList<>(externalIdsByHash.size());
+        externalIdsByHash.forEach((hash, externalId) -> toEntry(hash, externalId).ifPresent(entries::add));
+        if (!current.putAll(entries)) {
+            deferred.addAll(entries);
+            if (draining.compareAndSet(false, true)) {
+                Thread.ofPlatform().name("card-index-deferred").daemon().start(() -> drainDeferred(current));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.card-index.checkpoint-ms:60000}")
+    public void checkpoint() {
+        OffHeapHashIndex current = index;
+        if (current != null) {
+            current.checkpoint();
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        OffHeapHashIndex current = index;
+        if (current != null) {
+            index = null;
+            current.close();
+        }
+    }
+
+    /**
+     * Writes the deferred cards after each resize, until none are left or the index is closed.
+     */
+    private void drainDeferred(OffHeapHashIndex current) {
+        do {
+            try {
+                while (!deferred.isEmpty() && index == current) {
+                    current.awaitResize();
+                    List<Entry> entries = new ArrayList<>();
+                    for (Entry entry = deferred.poll(); entry != null; entry = deferred.poll()) {
+                        entries.add(entry);
+                    }
+                    if (!current.putAll(entries)) {
+                        deferred.addAll(entries);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // Cards queued after the last check but before the flag was cleared
+        } while (!deferred.isEmpty() && index == current && draining.compareAndSet(false, true));
+    }
+
+    private void build(BuildWatermark from) {
+        Path indexDirectory = Path.of(directory);
+        long start = System.currentTimeMillis();
+        long loaded = 0;
+        try {
+            for (int shard = from.shard(); shard < shardRouter.shardCount(); shard++) {
+                long afterId = shard == from.shard() ? from.afterId() : 0;
+                while (true) {
+                    OffHeapHashIndex current = index;
+                    if (current == null) {
+                        return;
+                    }
+
+                    long after = afterId;
+                    List<CardHashView> chunk = shardRouter.onShard(shard,
+                            () -> transactionTemplate.execute(status ->
+                                    cardRepository.findHashChunkAfter(after, PageRequest.of(0, loadChunkSize))));
+                    if (chunk == null || chunk.isEmpty()) {
+                        break;
+                    }
+
+                    List<Entry> entries = new ArrayList<>(chunk.size());
+                    chunk.forEach(card -> toEntry(card.getCardHash(), card.getExternalId()).ifPresent(entries::add));
+                    if (!current.putAll(entries)) {
+                        current.awaitResize();
+                        if (!current.putAll(entries)) {
+                            throw new IllegalStateException("Card index did not grow");
+                        }
+                    }
+                    loaded += chunk.size();
+                    afterId = chunk.getLast().getId();
+                    new BuildWatermark(shard, afterId, false, List.of()).save(indexDirectory);
+                }
+            }
+            checkpoint();
+            BuildWatermark.complete(fingerprints()).save(indexDirectory);
+            log.info("Card index built with {} cards in {}ms", loaded, System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Error building card index after {} cards; it resumes on restart and lookups "
+                    + "fall back to the database meanwhile", loaded, e);
+        }
+    }
+
+    private List<Fingerprint> fingerprints() {
+        List<Fingerprint> fingerprints = new ArrayList<>(shardRouter.shardCount());
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            Fingerprint fingerprint = shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> {
+                Long maxId = cardRepository.findMaxId();
+                return new Fingerprint(cardRepository.count(), maxId == null ? 0 : maxId);
+            }));
+            fingerprints.add(fingerprint);
+        }
+        return fingerprints;
+    }
+
+    private Optional<Entry> toEntry(String cardHash, String externalId) {
+        try {
+            UUID uuid = UUID.fromString(externalId);
+            byte[] value = ByteBuffer.allocate(OffHeapHashIndex.VALUE_BYTES)
+                    .putLong(uuid.getMostSignificantBits())
+                    .putLong(uuid.getLeastSignificantBits())
+                    .array();
+            return Optional.of(new Entry(HEX.parseHex(cardHash), value));
+        } catch (IllegalArgumentException e) {
+            log.debug("Skipping non-indexable card external id");
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Card count and highest id of one shard's cards table.
+     */
+    record Fingerprint(long count, long maxId) {
+
+        /**
+         * Whether a table now at this fingerprint can be the earlier one plus new cards only.
+         */
+        boolean follows(Fingerprint earlier) {
+            return maxId >= earlier.maxId && count >= earlier.count && count - earlier.count <= maxId - earlier.maxId;
+        }
+    }
+
+    /**
+     * Progress of the initial build: cards up to afterId of the given shard (and all of the
+     * shards before it) are in the index. Once complete it carries the fingerprint per shard of
+     * the table the index was built from.
+     */
+    record BuildWatermark(int shard, long afterId, boolean complete, List<Fingerprint> fingerprints) {
+
+        static final BuildWatermark START = new BuildWatermark(0, 0, false, List.of());
+
+        static BuildWatermark complete(List<Fingerprint> fingerprints) {
+            return new BuildWatermark(0, 0, true, fingerprints);
+        }
+
+        /**
+         * Whether the index built from the recorded fingerprints is still valid for the table
+         * at the current ones, i.e. every shard has at most gained cards.
+         */
+        boolean admits(List<Fingerprint> current) {
+            if (fingerprints.size() != current.size()) {
+                return false;
+            }
+            for (int shard = 0; shard < current.size(); shard++) {
+                if (!current.get(shard).follows(fingerprints.get(shard))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        static BuildWatermark load(Path directory) {
+            Path file = directory.resolve(WATERMARK_FILE);
+            if (!Files.exists(file)) {
+                return null;
+            }
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading card index watermark", e);
+            }
+            List<Fingerprint> fingerprints = new ArrayList<>();
+            for (int shard = 0; properties.containsKey("shard." + shard + ".count"); shard++) {
+                fingerprints.add(new Fingerprint(Long.parseLong(properties.getProperty("shard." + shard + ".count")),
+                        Long.parseLong(properties.getProperty("shard." + shard + ".max-id"))));
+            }
+            return new BuildWatermark(Integer.parseInt(properties.getProperty("shard", "0")),
+                    Long.parseLong(properties.getProperty("after-id", "0")),
+                    Boolean.parseBoolean(properties.getProperty("complete")), fingerprints);
+        }
+
+        void save(Path directory) {
+            Properties properties = new Properties();
+            properties.setProperty("shard", Integer.toString(shard));
+            properties.setProperty("after-id", Long.toString(afterId));
+            properties.setProperty("complete", Boolean.toString(complete));
+            for (int shard = 0; shard < fingerprints.size(); shard++) {
+                properties.setProperty("shard." + shard + ".count", Long.toString(fingerprints.get(shard).count()));
+                properties.setProperty("shard." + shard + ".max-id", Long.toString(fingerprints.get(shard).maxId()));
+            }
+
+            Path tmp = directory.resolve(WATERMARK_FILE + ".tmp");
+            try {
+                Files.createDirectories(directory);
+                try (Writer writer = Files.newBufferedWriter(tmp)) {
+                    properties.store(writer, null);
+                }
+                Files.move(tmp, directory.resolve(WATERMARK_FILE),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error writing card index watermark", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.hyperativa.cardapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for card lookups: concurrent lookups of the same card hash share one
+ * database query and its result.
+ * <p>
+ * The first caller for a hash registers a future in the in-flight map and runs the query;
+ * callers arriving while it runs wait on that future instead of querying. The entry is
+ * removed before the result is published, so later lookups always run a fresh query.
+ * Metrics: cards.lookup.executed, cards.lookup.coalesced and the cards.lookup.in-flight gauge.
+ */
+@Component
+public class CardLookupCoalescer {
+
+    private final Map<String, CompletableFuture<Optional<String>>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    public CardLookupCoalescer(MeterRegistry meterRegistry) {
+        this.executed = meterRegistry.counter("cards.lookup.executed");
+        this.coalesced = meterRegistry.counter("cards.lookup.coalesced");
+        meterRegistry.gaugeMapSize("cards.lookup.in-flight", Tags.empty(), inFlight);
+    }
+
+    /**
+     * Returns the in-flight result for the hash, or runs the lookup if none is in flight.
+     */
+    public Optional<String> lookup(String cardHash, Supplier<Optional<String>> query) {
+        CompletableFuture<Optional<String>> flight = new CompletableFuture<>();
+        CompletableFuture<Optional<String>> existing = inFlight.putIfAbsent(cardHash, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        executed.increment();
+        try {
+            Optional<String> result = query.get();
+            inFlight.remove(cardHash, flight);
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(cardHash, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public double getExecutedCount() {
+        return executed.count();
+    }
+
+    public double getCoalescedCount() {
+        return coalesced.count();
+    }
+
+    private Optional<String> await(CompletableFuture<Optional<String>> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
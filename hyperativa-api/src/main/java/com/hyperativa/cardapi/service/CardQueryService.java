@@ -0,0 +1,107 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.dto.CardPageResponse;
+import com.hyperativa.cardapi.dto.CardSummaryResponse;
+import com.hyperativa.cardapi.repository.CardRepository;
+import com.hyperativa.cardapi.repository.CardShardRouter;
+import com.hyperativa.cardapi.repository.CardSummaryView;
+import com.hyperativa.cardapi.util.CardNumbers;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Card listings by BIN and/or batch, served from the clear card_bin / last_four columns only;
+ * nothing is decrypted.
+ * <p>
+ * Pages use keyset pagination per shard, and a page that exhausts one shard continues on the
+ * next. Batch listings are in id order with cursor "shard:lastId"; BIN listings are in
+ * (card_bin, id) order, the order of idx_card_bin, with cursor "shard:lastBin:lastId".
+ * The queries are read-only transactions, so with replica routing they are served by the
+ * replica.
+ */
+@Service
+@RequiredArgsConstructor
+public class CardQueryService {
+
+    private static final Pattern BIN = Pattern.compile("\\d{6,8}");
+
+    private final CardRepository cardRepository;
+    private final CardShardRouter shardRouter;
+
+    @Value("${app.card-query.max-page-size:500}")
+    private int maxPageSize;
+
+    /**
+     * @param bin 6 to 8 leading digits, or null
+     * @param batchId batch, or null; at least one of bin and batchId is required
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    public CardPageResponse find(String bin, String batchId, String cursor, int size) {
+        if (bin == null && batchId == null) {
+            throw new IllegalArgumentException("Either 'bin' or 'batchId' is required");
+        }
+        if (bin != null && !BIN.matcher(bin).matches()) {
+            throw new IllegalArgumentException("BIN must contain between 6 and 8 numeric digits");
+        }
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+
+        int shard = 0;
+        String afterBin = "";
+        long afterId = 0;
+        if (cursor != null) {
+            String[] parts = cursor.split(":");
+            if (parts.length != (bin != null ? 3 : 2)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            try {
+                shard = Integer.parseInt(parts[0]);
+                afterId = Long.parseLong(parts[parts.length - 1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            if (bin != null) {
+                afterBin = parts[1];
+            }
+        }
+
+        List<CardSummaryResponse> cards = new ArrayList<>(size);
+        String nextCursor = null;
+        for (; shard < shardRouter.shardCount() && cards.size() < size; shard++, afterBin = "", afterId = 0) {
+            String fromBin = afterBin;
+            long from = afterId;
+            PageRequest page = PageRequest.of(0, size - cards.size());
+            List<CardSummaryView> views = shardRouter.onShard(shard, () -> bin != null
+                    ? cardRepository.findSummariesByBin(bin, batchId, fromBin, from, page)
+                    : cardRepository.findSummariesByBatch(batchId, from, page));
+
+            views.forEach(view -> cards.add(toResponse(view)));
+            if (cards.size() == size) {
+                CardSummaryView last = views.getLast();
+                nextCursor = bin != null
+                        ? shard + ":" + last.getCardBin() + ":" + last.getId()
+                        : shard + ":" + last.getId();
+            }
+        }
+
+        return CardPageResponse.builder().cards(cards).nextCursor(nextCursor).build();
+    }
+
+    private CardSummaryResponse toResponse(CardSummaryView view) {
+        return CardSummaryResponse.builder()
+                .externalId(view.getExternalId())
+                .maskedNumber(view.getCardBin() == null ? null : CardNumbers.mask(view.getCardBin(), view.getLastFour()))
+                .bin(view.getCardBin())
+                .lastFour(view.getLastFour())
+                .batchId(view.getBatchId())
+                .createdAt(view.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.entity.Card;
+import com.hyperativa.cardapi.repository.CardRepository;
+import com.hyperativa.cardapi.repository.CardShardRouter;
+import com.hyperativa.cardapi.util.EncryptionUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background re-encryption of stored cards under the active data key.
+ * <p>
+ * Walks the cards table (every shard) by id in small chunks, each in its own short
+ * transaction, and pauses between chunks so live traffic keeps its share of the pool.
+ * Only rows under an older key are rewritten; lookups use the hash column and are not
+ * affected while the job runs.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CardReEncryptionJob {
+
+    private final CardRepository cardRepository;
+    private final EncryptionUtil encryptionUtil;
+    private final CardShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("card-reencryption").daemon().factory());
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong reEncrypted = new AtomicLong();
+
+    @Value("${app.encryption.reencryption.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.encryption.reencryption.pause-ms:50}")
+    private long pauseMs;
+
+    /**
+     * Starts the job unless it is already running. A running job notices key changes
+     * and makes another pass, so a rotation during a run is never missed.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        scanned.set(0);
+        reEncrypted.set(0);
+        executor.submit(this::run);
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public long getScanned() {
+        return scanned.get();
+    }
+
+    public long getReEncrypted() {
+        return reEncrypted.get();
+    }
+
+    private void run() {
+        try {
+            int keyId;
+            do {
+                keyId = encryptionUtil.getActiveKeyId();
+                log.info("Re-encrypting cards under data key {}", keyId);
+                for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                    shardRouter.onShard(shard, () -> {
+                        reEncryptShard();
+                        return null;
+                    });
+                }
+            } while (keyId != encryptionUtil.getActiveKeyId() && !Thread.currentThread().isInterrupted());
+
+            if (Thread.currentThread().isInterrupted()) {
+                log.warn("Re-encryption interrupted after {} cards", scanned.get());
+            } else {
+                log.info("Re-encryption finished: {} cards scanned, {} re-encrypted", scanned.get(), reEncrypted.get());
+            }
+        } catch (Exception e) {
+            log.error("Re-encryption failed after {} cards", scanned.get(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void reEncryptShard() {
+        long afterId = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            long from = afterId;
+            Long lastId = transactionTemplate.execute(status -> reEncryptChunk(from));
+            if (lastId == null) {
+                return;
+            }
+            afterId = lastId;
+            pause();
+        }
+    }
+
+    /**
+     * Re-encrypts one chunk; dirty checking writes back only the modified rows.
+     * Returns the last id seen, or null when the table is exhausted.
+     */
+    private Long reEncryptChunk(long afterId) {
+        List<Card> cards = cardRepository.findChunkAfter(afterId, PageRequest.of(0, chunkSize));
+        if (cards.isEmpty()) {
+            return null;
+        }
+
+        int activeKeyId = encryptionUtil.getActiveKeyId();
+        for (Card card : cards) {
+            if (encryptionUtil.keyIdOf(card.getCardNumberEncrypted()) != activeKeyId) {
+                String cardNumber = encryptionUtil.decrypt(card.getCardNumberEncrypted());
+                card.setCardNumberEncrypted(encryptionUtil.encrypt(cardNumber));
+                reEncrypted.incrementAndGet();
+            }
+        }
+        scanned.addAndGet(cards.size());
+        return cards.getLast().getId();
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
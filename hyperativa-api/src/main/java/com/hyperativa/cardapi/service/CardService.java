@@ -1,23 +1,48 @@
 package com.hyperativa.cardapi.service;
 
+import com.hyperativa.cardapi.config.ReplicaProperties;
+import com.hyperativa.cardapi.dto.BatchError;
+import com.hyperativa.cardapi.dto.BatchError.Code;
 import com.hyperativa.cardapi.dto.BatchUploadResponse;
 import com.hyperativa.cardapi.dto.CardRequest;
 import com.hyperativa.cardapi.dto.CardResponse;
 import com.hyperativa.cardapi.entity.Card;
+import com.hyperativa.cardapi.repository.CardHashView;
+import com.hyperativa.cardapi.repository.CardInsertStore;
 import com.hyperativa.cardapi.repository.CardRepository;
+import com.hyperativa.cardapi.repository.CardShardRouter;
+import com.hyperativa.cardapi.util.BatchErrorReport;
+import com.hyperativa.cardapi.util.CardNumbers;
+import com.hyperativa.cardapi.util.CompressedInput;
+import com.hyperativa.cardapi.util.CompressedInput.Encoding;
 import com.hyperativa.cardapi.util.EncryptionUtil;
+import com.hyperativa.cardapi.util.ExternalIdGenerator;
 import com.hyperativa.cardapi.util.FileParserUtil;
 import com.hyperativa.cardapi.util.FileParserUtil.ParseResult;
+import com.hyperativa.cardapi.util.MicroBatcher;
+import com.hyperativa.cardapi.util.PipelineEvents;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -25,33 +50,206 @@ import java.util.Optional;
 public class CardService {
 
     private final CardRepository cardRepository;
+    private final CardInsertStore cardInserts;
     private final EncryptionUtil encryptionUtil;
     private final FileParserUtil fileParserUtil;
+    private final CardShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final ReplicaProperties replicaProperties;
+    private final CardIndexService cardIndex;
+    private final ExternalIdGenerator externalIdGenerator;
+    private final CardLookupCoalescer lookupCoalescer;
+    private final MeterRegistry meterRegistry;
+    private final BatchErrorReportService errorReports;
+
+    @Value("${app.card-write-combining.enabled:false}")
+    private boolean writeCombiningEnabled;
+
+    @Value("${app.card-write-combining.window-ms:5}")
+    private long writeCombiningWindowMs;
+
+    @Value("${app.card-write-combining.max-batch-size:256}")
+    private int writeCombiningMaxBatchSize;
+
+    @Value("${app.card-write-combining.timeout-ms:5000}")
+    private long writeCombiningTimeoutMs;
+
+    @Value("${app.batch.parallel-parse-threshold-bytes:16777216}")
+    private long parallelParseThresholdBytes;
+
+    @Value("${spring.servlet.multipart.max-file-size:1MB}")
+    private DataSize multipartMaxFileSize;
+
+    @Value("${app.batch.stream-chunk-size:1000}")
+    private int streamChunkSize;
+
+    @Value("${app.batch.max-uncompressed-bytes:10737418240}")
+    private long maxUncompressedBytes;
+
+    private MicroBatcher<PendingCard, CardResponse> registrationBatcher;
+
+    @PostConstruct
+    void checkParallelParseThreshold() {
+        if (parallelParseThresholdBytes > multipartMaxFileSize.toBytes()) {
+            log.warn("app.batch.parallel-parse-threshold-bytes ({}) is above spring.servlet.multipart.max-file-size "
+                    + "({}); multipart uploads are never parsed in parallel", parallelParseThresholdBytes,
+                    multipartMaxFileSize);
+        }
+    }
+
+    @PostConstruct
+    void startWriteCombining() {
+        if (writeCombiningEnabled) {
+            registrationBatcher = new MicroBatcher<>("card-write-combiner",
+                    Duration.ofMillis(writeCombiningWindowMs), writeCombiningMaxBatchSize,
+                    Duration.ofMillis(writeCombiningTimeoutMs), this::registerAll);
+        }
+    }
+
+    @PreDestroy
+    void stopWriteCombining() {
+        if (registrationBatcher != null) {
+            registrationBatcher.close();
+        }
+    }
 
     /**
      * Registers a single card.
+     * <p>
+     * Insert-or-fetch: cards in the card index are answered from memory; otherwise the card
+     * is encrypted and inserted with a single insert-if-absent statement (one round trip for
+     * new cards, see {@link CardInsertStore}) and the unique index on card_hash arbitrates
+     * concurrent registrations. When the statement inserts nothing the card was already
+     * registered and the winner's identifier is read back.
+     * <p>
+     * With write combining (app.card-write-combining.enabled) concurrent registrations are
+     * queued for up to window-ms and inserted together, see {@link #registerAll(List)}.
      */
-    @Transactional
     public CardResponse createCard(CardRequest request) {
         String cardNumber = request.getCardNumber().trim();
         String hash = encryptionUtil.hash(cardNumber);
 
-        // Check if already exists
-        Optional<Card> existing = cardRepository.findByCardHash(hash);
-        if (existing.isPresent()) {
+        Optional<String> indexedId = cardIndex.find(hash);
+        if (indexedId.isPresent()) {
             log.info("Card already registered, returning existing identifier");
             return CardResponse.builder()
-                    .externalId(existing.get().getExternalId())
+                    .externalId(indexedId.get())
                     .message("Card already registered")
                     .build();
         }
 
-        Card card = Card.builder()
+        if (registrationBatcher != null) {
+            try {
+                return registrationBatcher.submit(new PendingCard(cardNumber, hash, null));
+            } catch (MicroBatcher.TimedOutException e) {
+                // The card was dropped from the queue or its batch may still commit it; inserting
+                // if absent and otherwise re-reading by hash is correct either way
+                log.warn("Combined registration timed out (in flight: {}), registering directly", e.isInFlight());
+            }
+        }
+        return shardRouter.onShardOf(hash, () -> insertOrFetch(newCard(cardNumber, hash, null)));
+    }
+
+    /**
+     * Builds a card for insertion; the only place card numbers are encrypted for storage.
+     */
+    private Card newCard(String cardNumber, String hash, String batchId) {
+        return Card.builder()
+                .externalId(externalIdGenerator.generate())
                 .cardNumberEncrypted(encryptionUtil.encrypt(cardNumber))
                 .cardHash(hash)
+                .cardBin(CardNumbers.bin(cardNumber))
+                .lastFour(CardNumbers.lastFour(cardNumber))
+                .batchId(batchId)
                 .build();
+    }
 
-        card = cardRepository.save(card);
+    /**
+     * Registers a combined batch: one transaction per shard that reads the already registered
+     * hashes with a single query and encrypts and inserts the rest. Repeated cards within the
+     * batch are inserted once. If a concurrent registration wins a race the shard's transaction fails
+     * on the unique index and its cards fall back to one insert-or-fetch each.
+     */
+    private List<CardResponse> registerAll(List<PendingCard> cards) {
+        Map<Integer, List<PendingCard>> cardsByShard = new HashMap<>();
+        Set<String> uniqueHashes = new HashSet<>();
+        for (PendingCard card : cards) {
+            if (uniqueHashes.add(card.hash())) {
+                cardsByShard.computeIfAbsent(shardRouter.shardFor(card.hash()), shard -> new ArrayList<>()).add(card);
+            }
+        }
+
+        Map<String, CardResponse> responsesByHash = new HashMap<>();
+        shardRouter.fanOut(cardsByShard, (shard, shardCards) -> registerShard(shardCards))
+                .forEach(responsesByHash::putAll);
+
+        List<CardResponse> responses = new ArrayList<>(cards.size());
+        Set<String> answered = new HashSet<>();
+        for (PendingCard card : cards) {
+            CardResponse response = responsesByHash.get(card.hash());
+            if (!answered.add(card.hash())) {
+                response = CardResponse.builder()
+                        .externalId(response.getExternalId())
+                        .message("Card already registered")
+                        .build();
+            }
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    private Map<String, CardResponse> registerShard(List<PendingCard> cards) {
+        Map<String, CardResponse> responses = new HashMap<>();
+        Map<String, String> registered = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<String> hashes = cards.stream().map(PendingCard::hash).toList();
+                for (CardHashView existing : cardRepository.findHashesIn(hashes)) {
+                    responses.put(existing.getCardHash(), CardResponse.builder()
+                            .externalId(existing.getExternalId())
+                            .message("Card already registered")
+                            .build());
+                }
+
+                List<Card> newCards = cards.stream()
+                        .filter(card -> !responses.containsKey(card.hash()))
+                        .map(card -> newCard(card.cardNumber(), card.hash(), null))
+                        .toList();
+                cardRepository.saveAllAndFlush(newCards);
+                for (Card card : newCards) {
+                    registered.put(card.getCardHash(), card.getExternalId());
+                    responses.put(card.getCardHash(), CardResponse.builder()
+                            .externalId(card.getExternalId())
+                            .message("Card registered successfully")
+                            .build());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.info("Combined registration of {} cards raced a concurrent insert, registering one by one", cards.size());
+            responses.clear();
+            for (PendingCard card : cards) {
+                responses.put(card.hash(), insertOrFetch(newCard(card.cardNumber(), card.hash(), null)));
+            }
+            return responses;
+        }
+
+        cardIndex.recordAll(registered);
+        log.info("Registered {} cards in one combined batch", registered.size());
+        return responses;
+    }
+
+    /**
+     * One insert-if-absent statement; only when it inserts nothing is the existing card's
+     * identifier read, from the primary.
+     */
+    private CardResponse insertOrFetch(Card card) {
+        if (!cardInserts.insertIfAbsent(card)) {
+            String existingId = findOnPrimary(card.getCardHash()).orElseThrow(() ->
+                    new IllegalStateException("Card insert was skipped but no card has its hash"));
+            return alreadyRegistered(card.getCardHash(), existingId);
+        }
+
+        cardIndex.record(card.getCardHash(), card.getExternalId());
         log.info("Card registered successfully. ExternalId: {}", card.getExternalId());
 
         return CardResponse.builder()
@@ -60,60 +258,316 @@ public class CardService {
                 .build();
     }
 
+    private CardResponse alreadyRegistered(String hash, String externalId) {
+        cardIndex.record(hash, externalId);
+        log.info("Card already registered, returning existing identifier");
+        return CardResponse.builder()
+                .externalId(externalId)
+                .message("Card already registered")
+                .build();
+    }
+
     /**
      * Processes a TXT file in batch.
+     * <p>
+     * Cards repeated within the file are dropped by the parser before hashing into shards,
+     * encryption or any query, and reported in the response's duplicates. Cards are grouped
+     * by shard and each group is written in its own transaction, in parallel across shards.
+     * Without sharding this is a single transaction.
+     * Uncompressed files of at least app.batch.parallel-parse-threshold-bytes are spooled to
+     * disk and parsed in parallel byte ranges; other files (including gzip/zstd compressed
+     * ones) are decompressed and ingested as a stream. The error report is only served to
+     * username, the uploader.
+     */
+    public BatchUploadResponse uploadBatch(MultipartFile file, String username) throws IOException {
+        if (file.getSize() < parallelParseThresholdBytes || isCompressed(file.getInputStream())) {
+            try (InputStream body = file.getInputStream()) {
+                return uploadBatch(body, null, username);
+            }
+        }
+
+        Path spooled = Files.createTempFile("card-batch-", ".txt");
+        try {
+            file.transferTo(spooled);
+            return uploadBatch(spooled, username);
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    /**
+     * Processes a TXT file already on local disk (e.g. an assembled chunked upload),
+     * parsing it in parallel byte ranges. Cards are persisted in chunks of
+     * app.batch.stream-chunk-size as the ranges are merged, like the streaming path, so
+     * neither the card list nor a transaction spans the whole file. Compressed files are
+     * ingested as a stream instead.
      */
-    @Transactional
-    public BatchUploadResponse uploadBatch(MultipartFile file) throws IOException {
-        ParseResult parseResult = fileParserUtil.parse(file.getInputStream());
-        List<String> errors = new ArrayList<>(parseResult.getErrors());
+    public BatchUploadResponse uploadBatch(Path file, String username) throws IOException {
+        if (isCompressed(Files.newInputStream(file))) {
+            try (InputStream body = Files.newInputStream(file)) {
+                return uploadBatch(body, null, username);
+            }
+        }
+
+        long start = System.nanoTime();
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger successCount = new AtomicInteger();
+        try (BatchErrorReport report = errorReports.create(username)) {
+            ParseResult parseResult = fileParserUtil.parse(file, streamChunkSize,
+                    (batchId, cardNumbers, hashes, lines) -> {
+                        processed.addAndGet(cardNumbers.size());
+                        successCount.addAndGet(persistCards(cardNumbers, hashes, lines, batchId, report));
+                    }, report);
+
+            long size = Files.size(file);
+            return batchResponse(parseResult.getBatchId(), processed.get(), successCount.get(), report,
+                    new IngestStats(Encoding.IDENTITY, "parallel", size, size, System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Processes a TXT file read straight from a request body, optionally gzip or zstd
+     * compressed (from contentEncoding, or detected from the magic bytes when null). The body
+     * is decompressed on the fly and cards are persisted in chunks of
+     * app.batch.stream-chunk-size while the rest is still being received, so ingestion
+     * overlaps the transfer and nothing is spooled.
+     */
+    public BatchUploadResponse uploadBatch(InputStream body, String contentEncoding, String username)
+            throws IOException {
+        long start = System.nanoTime();
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger successCount = new AtomicInteger();
+
+        try (CompressedInput input = CompressedInput.open(body, contentEncoding, maxUncompressedBytes);
+             BatchErrorReport report = errorReports.create(username)) {
+            ParseResult parseResult = fileParserUtil.parse(input.stream(), streamChunkSize,
+                    (batchId, cardNumbers, hashes, lines) -> {
+                        processed.addAndGet(cardNumbers.size());
+                        successCount.addAndGet(persistCards(cardNumbers, hashes, lines, batchId, report));
+                    }, report);
+
+            return batchResponse(parseResult.getBatchId(), processed.get(), successCount.get(), report,
+                    new IngestStats(input.encoding(), "stream", input.compressedBytes(), input.uncompressedBytes(),
+                            System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Persists the cards grouped by shard, one transaction per shard, and returns how many
+     * succeeded; failures are reported to onError with the card's line. The hashes come from
+     * the parser, which already digested every card for its duplicate check.
+     */
+    private int persistCards(List<String> cardNumbers, List<String> hashes, List<Integer> lines, String batchId,
+                             Consumer<BatchError> onError) {
+        PipelineEvents.BatchHash hashEvent = new PipelineEvents.BatchHash();
+        hashEvent.begin();
+        Map<Integer, List<PendingCard>> cardsByShard = new HashMap<>();
+        for (int i = 0; i < cardNumbers.size(); i++) {
+            String hash = hashes.get(i);
+            cardsByShard.computeIfAbsent(shardRouter.shardFor(hash), shard -> new ArrayList<>())
+                    .add(new PendingCard(cardNumbers.get(i), hash, lines.get(i)));
+        }
+        hashEvent.emit(batchId, cardNumbers.size());
+
+        List<ShardResult> shardResults = shardRouter.fanOut(cardsByShard, (shard, cards) ->
+                transactionTemplate.execute(status -> persistBatch(cards, batchId)));
+
         int successCount = 0;
+        for (ShardResult shardResult : shardResults) {
+            successCount += shardResult.successCount();
+            shardResult.errors().forEach(onError);
+            cardIndex.recordAll(shardResult.registered());
+        }
+        return successCount;
+    }
 
-        for (String cardNumber : parseResult.getCardNumbers()) {
-            try {
-                String hash = encryptionUtil.hash(cardNumber);
+    /**
+     * Builds the upload response; uniqueCards excludes the in-file duplicates, which are
+     * added back to totalProcessed. Errors come from the report as counts and a sample.
+     */
+    private BatchUploadResponse batchResponse(String batchId, int uniqueCards, int successCount,
+                                              BatchErrorReport report, IngestStats stats) {
+        int totalProcessed = uniqueCards + (int) report.getDuplicateCount();
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(stats.durationNanos());
+        String encoding = stats.encoding().name().toLowerCase(Locale.ROOT);
+        meterRegistry.summary("cards.batch.bytes", "encoding", encoding, "side", "compressed")
+                .record(stats.compressedBytes());
+        meterRegistry.summary("cards.batch.bytes", "encoding", encoding, "side", "uncompressed")
+                .record(stats.uncompressedBytes());
+        meterRegistry.timer("cards.batch.duration", "encoding", encoding, "parser", stats.parser())
+                .record(stats.durationNanos(), TimeUnit.NANOSECONDS);
+
+        log.info("Batch '{}' processed: {}/{} cards successful, {} errors, {} duplicates ({}, {} -> {} bytes, {} ms, {} / {} MB/s)",
+                batchId, successCount, totalProcessed, report.getErrorCount(), report.getDuplicateCount(), encoding, stats.compressedBytes(), stats.uncompressedBytes(),
+                durationMs, megabytesPerSecond(stats.compressedBytes(), durationMs),
+                megabytesPerSecond(stats.uncompressedBytes(), durationMs));
 
-                if (cardRepository.existsByCardHash(hash)) {
+        return BatchUploadResponse.builder()
+                .batchId(batchId)
+                .totalProcessed(totalProcessed)
+                .totalSuccess(successCount)
+                .totalErrors(report.getErrorCount())
+                .errors(report.getErrors())
+                .errorCounts(report.getCounts())
+                .totalDuplicates(report.getDuplicateCount())
+                .duplicates(report.getDuplicates())
+                .errorReportId(report.getId())
+                .encoding(encoding)
+                .compressedBytes(stats.compressedBytes())
+                .uncompressedBytes(stats.uncompressedBytes())
+                .durationMs(durationMs)
+                .build();
+    }
+
+    private static String megabytesPerSecond(long bytes, long durationMs) {
+        return String.format(Locale.ROOT, "%.1f", bytes / 1_048_576.0 / Math.max(durationMs, 1) * 1000);
+    }
+
+    private static boolean isCompressed(InputStream in) throws IOException {
+        try (InputStream buffered = new BufferedInputStream(in)) {
+            return CompressedInput.detect(buffered) != Encoding.IDENTITY;
+        }
+    }
+
+    /**
+     * Writes one shard's chunk in three stages, each a JFR event (see {@link PipelineEvents}):
+     * dedup lookup, encryption of the new cards, insert. Cards already registered count as
+     * successful; failures are reported per card with its line and a fixed message per stage,
+     * while the exception (which may carry SQL and values) is only logged. Repeats within the file are normally dropped
+     * by the parser already; the seen set here only covers files past its dedup limit.
+     */
+    private ShardResult persistBatch(List<PendingCard> cards, String batchId) {
+        Integer currentShard = CardShardRouter.currentShard();
+        int shard = currentShard == null ? PipelineEvents.NO_SHARD : currentShard;
+        List<BatchError> errors = new ArrayList<>();
+        Map<String, String> registered = new HashMap<>();
+        int successCount = 0;
+
+        PipelineEvents.BatchDedupLookup dedupEvent = new PipelineEvents.BatchDedupLookup();
+        dedupEvent.begin();
+        Set<String> seen = new HashSet<>();
+        List<PendingCard> newCards = new ArrayList<>();
+        for (PendingCard pending : cards) {
+            try {
+                if (!seen.add(pending.hash()) || cardRepository.existsByCardHash(pending.hash())) {
                     log.debug("Card already exists in batch, skipping duplicate");
                     successCount++;
                     continue;
                 }
+                newCards.add(pending);
+            } catch (Exception e) {
+                errors.add(persistFailed(pending, "duplicate check failed"));
+                log.error("Duplicate check failed for line {} of batch '{}'", pending.line(), batchId, e);
+            }
+        }
+        dedupEvent.emit(batchId, shard, cards.size(), successCount);
 
-                Card card = Card.builder()
-                        .cardNumberEncrypted(encryptionUtil.encrypt(cardNumber))
-                        .cardHash(hash)
-                        .batchId(parseResult.getBatchId())
-                        .build();
+        PipelineEvents.BatchEncrypt encryptEvent = new PipelineEvents.BatchEncrypt();
+        encryptEvent.begin();
+        List<Card> toInsert = new ArrayList<>(newCards.size());
+        List<PendingCard> inserting = new ArrayList<>(newCards.size());
+        for (PendingCard pending : newCards) {
+            try {
+                toInsert.add(newCard(pending.cardNumber(), pending.hash(), batchId));
+                inserting.add(pending);
+            } catch (Exception e) {
+                errors.add(persistFailed(pending, "encryption failed"));
+                log.error("Encryption failed for line {} of batch '{}'", pending.line(), batchId, e);
+            }
+        }
+        encryptEvent.emit(batchId, shard, newCards.size());
 
+        PipelineEvents.BatchInsert insertEvent = new PipelineEvents.BatchInsert();
+        insertEvent.begin();
+        int failures = 0;
+        for (int i = 0; i < toInsert.size(); i++) {
+            Card card = toInsert.get(i);
+            try {
                 cardRepository.save(card);
+                registered.put(card.getCardHash(), card.getExternalId());
                 successCount++;
             } catch (Exception e) {
-                errors.add("Error processing card: " + e.getMessage());
-                log.error("Error processing card in batch", e);
+                failures++;
+                errors.add(persistFailed(inserting.get(i), "insert failed"));
+                log.error("Insert failed for line {} of batch '{}'", inserting.get(i).line(), batchId, e);
             }
         }
+        insertEvent.emit(batchId, shard, toInsert.size(), failures);
 
-        log.info("Batch '{}' processed: {}/{} cards successful",
-                parseResult.getBatchId(), successCount, parseResult.getCardNumbers().size());
+        return new ShardResult(successCount, errors, registered);
+    }
 
-        return BatchUploadResponse.builder()
-                .batchId(parseResult.getBatchId())
-                .totalProcessed(parseResult.getCardNumbers().size())
-                .totalSuccess(successCount)
-                .totalErrors(errors.size())
-                .errors(errors)
-                .build();
+    private static BatchError persistFailed(PendingCard card, String message) {
+        return new BatchError(card.line(), Code.PERSIST_FAILED, "cardNumber", message);
     }
 
     /**
      * Looks up a card by number and returns its unique identifier.
+     * <p>
+     * Served from the in-memory card index when it has the card. Otherwise concurrent lookups
+     * of the same card share one query (see {@link CardLookupCoalescer}) selecting only the
+     * external id from the covering index on (card_hash, external_id). It runs in a read-only
+     * transaction, so with replica routing it is served by the replica.
+     * Cards are never updated or deleted, so a hit is always correct; a miss may just be
+     * replication lag and is re-checked on the primary (read-your-writes after createCard).
      */
     public Optional<CardResponse> findByCardNumber(String cardNumber) {
-        String hash = encryptionUtil.hash(cardNumber.trim());
-        return cardRepository.findByCardHash(hash)
-                .map(card -> CardResponse.builder()
-                        .externalId(card.getExternalId())
+        return findExternalIdByHash(encryptionUtil.hash(cardNumber.trim()))
+                .map(id -> CardResponse.builder()
+                        .externalId(id)
                         .message("Card found")
                         .build());
     }
+
+    /**
+     * Lookup path of {@link #findByCardNumber} for an already hashed card number.
+     */
+    public Optional<String> findExternalIdByHash(String hash) {
+        PipelineEvents.CardLookup lookupEvent = new PipelineEvents.CardLookup();
+        lookupEvent.begin();
+        Optional<String> externalId = cardIndex.find(hash);
+        if (externalId.isPresent()) {
+            lookupEvent.emit("index", true);
+            return externalId;
+        }
+
+        externalId = lookupCoalescer.lookup(hash, () -> findExternalId(hash));
+        lookupEvent.emit("database", externalId.isPresent());
+        return externalId;
+    }
+
+    private Optional<String> findExternalId(String hash) {
+        Optional<String> externalId = shardRouter.onShardOf(hash, () -> {
+            Optional<String> id = cardRepository.findExternalIdByCardHash(hash);
+            if (id.isEmpty() && replicaProperties.isEnabled() && replicaProperties.isFallbackOnMiss()) {
+                id = findOnPrimary(hash);
+            }
+            return id;
+        });
+        externalId.ifPresent(id -> cardIndex.record(hash, id));
+        return externalId;
+    }
+
+    /**
+     * Repository reads are read-only transactions; joining a read-write one pins them to the primary.
+     */
+    private Optional<String> findOnPrimary(String hash) {
+        return transactionTemplate.execute(status -> cardRepository.findExternalIdByCardHash(hash));
+    }
+
+    /**
+     * A card to register; line is its line in the uploaded file, null for single registrations.
+     */
+    private record PendingCard(String cardNumber, String hash, Integer line) {
+    }
+
+    private record IngestStats(Encoding encoding, String parser, long compressedBytes, long uncompressedBytes,
+                               long durationNanos) {
+    }
+
+    /**
+     * Outcome of one shard's transaction; registered cards are indexed only after it commits.
+     */
+    private record ShardResult(int successCount, List<BatchError> errors, Map<String, String> registered) {
+    }
 }
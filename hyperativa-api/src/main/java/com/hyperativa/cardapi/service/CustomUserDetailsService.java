@@ -2,6 +2,7 @@ package com.hyperativa.cardapi.service;
 
 import com.hyperativa.cardapi.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,8 +15,16 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
+    private static final List<SimpleGrantedAuthority> USER = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    private static final List<SimpleGrantedAuthority> ADMIN =
+            List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+
     private final UserRepository userRepository;
 
+    /** Users allowed on management endpoints such as key rotation. */
+    @Value("${app.security.admin-users:admin}")
+    private List<String> adminUsers;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         var user = userRepository.findByUsername(username)
@@ -26,7 +35,7 @@ public class CustomUserDetailsService implements UserDetailsService {
                 user.getPassword(),
                 user.getActive(),
                 true, true, true,
-                List.of(new SimpleGrantedAuthority("ROLE_USER"))
+                adminUsers.contains(user.getUsername()) ? ADMIN : USER
         );
     }
 }
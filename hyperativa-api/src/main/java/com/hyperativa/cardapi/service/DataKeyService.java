@@ -0,0 +1,109 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.dto.KeyStatusResponse;
+import com.hyperativa.cardapi.entity.EncryptionKey;
+import com.hyperativa.cardapi.exception.KeyRotationInProgressException;
+import com.hyperativa.cardapi.repository.EncryptionKeyRepository;
+import com.hyperativa.cardapi.util.EncryptionUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Base64;
+import java.util.function.Supplier;
+
+/**
+ * Lifecycle of the versioned data keys used by {@link EncryptionUtil}.
+ * <p>
+ * Keys are stored wrapped in the encryption_keys table; the highest id is active.
+ * Rotation adds a key, switches new writes to it and starts the background
+ * re-encryption job. Other nodes pick the new key up on their next refresh and can
+ * decrypt rows under any key at any time, so rotation needs no downtime.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DataKeyService {
+
+    private final EncryptionKeyRepository encryptionKeyRepository;
+    private final EncryptionUtil encryptionUtil;
+    private final CardReEncryptionJob reEncryptionJob;
+    private final TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void loadKeys() {
+        encryptionUtil.setWrappedKeyLoader(keyId -> onPrimary(() -> encryptionKeyRepository.findById(keyId))
+                .map(key -> Base64.getDecoder().decode(key.getWrappedKey()))
+                .orElse(null));
+
+        onPrimary(encryptionKeyRepository::findAll).forEach(this::install);
+        EncryptionKey active = onPrimary(encryptionKeyRepository::findTopByOrderByIdDesc)
+                .orElseGet(this::createKey);
+        install(active);
+        encryptionUtil.activateKey(active.getId());
+        log.info("Data key {} active", active.getId());
+    }
+
+    /**
+     * Adds a new data key, makes it active and re-encrypts existing cards in the background.
+     * Rejected while the previous re-encryption is still running, so rotations cannot pile
+     * up full-table passes.
+     */
+    public synchronized KeyStatusResponse rotate() {
+        if (reEncryptionJob.isRunning()) {
+            throw new KeyRotationInProgressException("Re-encryption under key "
+                    + encryptionUtil.getActiveKeyId() + " is still running");
+        }
+        EncryptionKey key = createKey();
+        install(key);
+        encryptionUtil.activateKey(key.getId());
+        log.info("Data key rotated, key {} active", key.getId());
+
+        reEncryptionJob.start();
+        return getStatus();
+    }
+
+    public KeyStatusResponse getStatus() {
+        return KeyStatusResponse.builder()
+                .activeKeyId(encryptionUtil.getActiveKeyId())
+                .reEncryptionRunning(reEncryptionJob.isRunning())
+                .scanned(reEncryptionJob.getScanned())
+                .reEncrypted(reEncryptionJob.getReEncrypted())
+                .build();
+    }
+
+    /**
+     * Follows rotations performed by other nodes.
+     */
+    @Scheduled(fixedDelayString = "${app.encryption.key-refresh-ms:30000}")
+    public void refreshActiveKey() {
+        onPrimary(encryptionKeyRepository::findTopByOrderByIdDesc)
+                .filter(latest -> latest.getId() > encryptionUtil.getActiveKeyId())
+                .ifPresent(latest -> {
+                    install(latest);
+                    encryptionUtil.activateKey(latest.getId());
+                    log.info("Data key {} activated by another node", latest.getId());
+                });
+    }
+
+    private EncryptionKey createKey() {
+        EncryptionKey key = EncryptionKey.builder()
+                .wrappedKey(Base64.getEncoder().encodeToString(encryptionUtil.generateWrappedKey()))
+                .build();
+        return encryptionKeyRepository.save(key);
+    }
+
+    /**
+     * Key reads always hit the primary: a lagging replica may not have a freshly rotated key.
+     */
+    private <T> T onPrimary(Supplier<T> read) {
+        return transactionTemplate.execute(status -> read.get());
+    }
+
+    private void install(EncryptionKey key) {
+        encryptionUtil.installKey(key.getId(), Base64.getDecoder().decode(key.getWrappedKey()));
+    }
+}
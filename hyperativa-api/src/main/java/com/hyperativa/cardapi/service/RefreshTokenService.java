@@ -0,0 +1,118 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.entity.RefreshToken;
+import com.hyperativa.cardapi.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues, rotates and revokes refresh tokens.
+ * <p>
+ * Tokens are 256 random bits; only their SHA-256 is stored. A fast hash is enough here
+ * (unlike passwords, the value cannot be guessed), which is what makes a refresh cheaper
+ * than a BCrypt login.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${app.jwt.refresh-expiration-ms:2592000000}")
+    private long refreshExpirationMs;
+
+    public record Issued(String token, String username) {
+    }
+
+    /**
+     * Issues the first token of a new family, at login.
+     */
+    public String issue(String username) {
+        return issue(username, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Revokes the presented token and issues its successor. Reusing a revoked token revokes
+     * the whole family, so a stolen token stops working for the thief and the owner alike.
+     */
+    public Issued rotate(String token) {
+        RefreshToken current = find(token)
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getRevokedAt() != null || refreshTokenRepository.revoke(current.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            log.warn("Reuse of revoked refresh token for user '{}', token family revoked", current.getUsername());
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+
+        return new Issued(issue(current.getUsername(), current.getFamilyId()), current.getUsername());
+    }
+
+    /**
+     * Revokes the token and every token rotated from the same login.
+     */
+    public void revoke(String token) {
+        find(token).ifPresent(current -> refreshTokenRepository.revokeFamily(current.getFamilyId(), LocalDateTime.now()));
+    }
+
+    public long getRefreshExpirationMs() {
+        return refreshExpirationMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-cleanup-ms:3600000}")
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("{} expired refresh tokens deleted", deleted);
+        }
+    }
+
+    private String issue(String username, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(sha256(token))
+                .username(username)
+                .familyId(familyId)
+                .expiresAt(LocalDateTime.now().plusNanos(refreshExpirationMs * 1_000_000))
+                .build());
+        return token;
+    }
+
+    private Optional<RefreshToken> find(String token) {
+        return refreshTokenRepository.findByTokenHash(sha256(token));
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HEX.formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
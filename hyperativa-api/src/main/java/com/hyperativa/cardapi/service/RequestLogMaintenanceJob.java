@@ -0,0 +1,114 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.entity.RequestLogRollup;
+import com.hyperativa.cardapi.repository.RequestLogRollupRepository;
+import com.hyperativa.cardapi.repository.RequestLogStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Rolls request logs up into per-minute aggregates and enforces retention.
+ * <p>
+ * Each run aggregates the closed minutes since the latest rollup (one minute of grace for
+ * in-flight requests), segment by segment, then drops the raw segments older than
+ * app.request-log.retention-days once they are fully rolled up, and deletes rollups older
+ * than app.request-log.rollup-retention-days. The watermark is the latest rolled-up minute,
+ * so the job should run on a single node (app.request-log.maintenance.enabled).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RequestLogMaintenanceJob {
+
+    private final RequestLogStore requestLogStore;
+    private final RequestLogRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.request-log.maintenance.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.request-log.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${app.request-log.rollup-retention-days:400}")
+    private int rollupRetentionDays;
+
+    @Scheduled(initialDelayString = "${app.request-log.maintenance-ms:60000}",
+            fixedDelayString = "${app.request-log.maintenance-ms:60000}")
+    public void scheduledRun() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    public synchronized void run() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            // Write the next segment ahead of midnight so no request pays for the DDL
+            requestLogStore.ensureSegment(now.toLocalDate().plusDays(1));
+
+            LocalDateTime rolledUpTo = rollUp(now.truncatedTo(ChronoUnit.MINUTES).minusMinutes(1));
+            purge(now.toLocalDate(), rolledUpTo);
+        } catch (Exception e) {
+            log.error("Request log maintenance failed", e);
+        }
+    }
+
+    /**
+     * Aggregates every minute before the given one not rolled up yet; returns the bound.
+     */
+    private LocalDateTime rollUp(LocalDateTime to) {
+        List<LocalDate> segments = requestLogStore.listSegments();
+        if (segments.isEmpty()) {
+            return to;
+        }
+
+        LocalDateTime from = rollupRepository.findLatestMinute()
+                .map(latest -> latest.plusMinutes(1))
+                .orElse(segments.getFirst().atStartOfDay());
+
+        int rollups = 0;
+        for (LocalDate day : segments) {
+            LocalDateTime dayStart = day.atStartOfDay();
+            LocalDateTime dayEnd = dayStart.plusDays(1);
+            if (!dayEnd.isAfter(from) || !dayStart.isBefore(to)) {
+                continue;
+            }
+
+            LocalDateTime rangeFrom = from.isAfter(dayStart) ? from : dayStart;
+            LocalDateTime rangeTo = to.isBefore(dayEnd) ? to : dayEnd;
+            List<RequestLogRollup> aggregates = requestLogStore.aggregate(day, rangeFrom, rangeTo);
+            transactionTemplate.executeWithoutResult(status -> rollupRepository.saveAll(aggregates));
+            rollups += aggregates.size();
+        }
+
+        if (rollups > 0) {
+            log.info("Request logs rolled up to {}: {} aggregates", to, rollups);
+        }
+        return to;
+    }
+
+    private void purge(LocalDate today, LocalDateTime rolledUpTo) {
+        LocalDate oldestKept = today.minusDays(retentionDays);
+        for (LocalDate day : requestLogStore.listSegments()) {
+            if (day.isBefore(oldestKept) && !day.plusDays(1).atStartOfDay().isAfter(rolledUpTo)) {
+                requestLogStore.dropSegment(day);
+                log.info("Request log segment {} dropped (retention {} days)", day, retentionDays);
+            }
+        }
+
+        int deleted = rollupRepository.deleteOlderThan(today.minusDays(rollupRetentionDays).atStartOfDay());
+        if (deleted > 0) {
+            log.info("{} request log rollups older than {} days deleted", deleted, rollupRetentionDays);
+        }
+    }
+}
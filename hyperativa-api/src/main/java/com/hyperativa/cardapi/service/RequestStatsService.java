@@ -0,0 +1,83 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.dto.EndpointStatsResponse;
+import com.hyperativa.cardapi.dto.RequestStatsResponse;
+import com.hyperativa.cardapi.util.RollingLatencyWindow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory rolling latency statistics per endpoint, fed by RequestLoggingFilter.
+ * <p>
+ * Endpoints are keyed by method and route pattern. Requests that matched no route share one
+ * "unmatched" entry, and the number of endpoints is capped (app.request-stats.max-endpoints)
+ * so memory stays bounded whatever URIs clients send.
+ */
+@Service
+public class RequestStatsService {
+
+    static final String UNMATCHED = "unmatched";
+    static final String OTHER = "other";
+
+    private final Map<String, RollingLatencyWindow> windows = new ConcurrentHashMap<>();
+    private final long windowSeconds;
+    private final int slots;
+    private final int maxEndpoints;
+
+    public RequestStatsService(@Value("${app.request-stats.window-seconds:60}") long windowSeconds,
+                               @Value("${app.request-stats.slots:12}") int slots,
+                               @Value("${app.request-stats.max-endpoints:200}") int maxEndpoints) {
+        this.windowSeconds = windowSeconds;
+        this.slots = slots;
+        this.maxEndpoints = maxEndpoints;
+    }
+
+    /**
+     * @param routePattern matched route pattern, or null when no route matched
+     */
+    public void record(String method, String routePattern, int statusCode, long durationNanos) {
+        String endpoint = routePattern == null ? UNMATCHED : method + " " + routePattern;
+        RollingLatencyWindow window = windows.get(endpoint);
+        if (window == null) {
+            String key = windows.size() < maxEndpoints ? endpoint : OTHER;
+            window = windows.computeIfAbsent(key, k ->
+                    new RollingLatencyWindow(TimeUnit.SECONDS.toNanos(windowSeconds), slots));
+        }
+        window.record(durationNanos, statusCode);
+    }
+
+    public RequestStatsResponse getStats() {
+        List<EndpointStatsResponse> endpoints = windows.entrySet().stream()
+                .map(entry -> toResponse(entry.getKey(), entry.getValue().snapshot()))
+                .filter(stats -> stats.getCount() > 0)
+                .sorted(Comparator.comparing(EndpointStatsResponse::getEndpoint))
+                .toList();
+
+        return RequestStatsResponse.builder()
+                .windowSeconds(windowSeconds)
+                .endpoints(endpoints)
+                .build();
+    }
+
+    private EndpointStatsResponse toResponse(String endpoint, RollingLatencyWindow.Snapshot snapshot) {
+        return EndpointStatsResponse.builder()
+                .endpoint(endpoint)
+                .count(snapshot.count())
+                .p50Ms(millis(snapshot.percentileMicros(50)))
+                .p95Ms(millis(snapshot.percentileMicros(95)))
+                .p99Ms(millis(snapshot.percentileMicros(99)))
+                .maxMs(millis(snapshot.maxMicros()))
+                .statusCounts(snapshot.statusCounts())
+                .build();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
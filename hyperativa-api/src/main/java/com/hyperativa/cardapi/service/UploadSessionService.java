@@ -0,0 +1,387 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.dto.BatchUploadResponse;
+import com.hyperativa.cardapi.dto.UploadSessionResponse;
+import com.hyperativa.cardapi.dto.UploadSessionResponse.Status;
+import com.hyperativa.cardapi.exception.UploadConflictException;
+import com.hyperativa.cardapi.exception.UploadLimitException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resumable chunked uploads of batch files.
+ * <p>
+ * A session owns a spool file on local disk. Chunks must arrive in order: each one is
+ * written at its offset with {@link FileChannel#transferFrom}, straight from the request
+ * stream into the file, then checksummed from the page cache. A chunk whose checksum does
+ * not match is cut off again, and a chunk already stored (a retry) is ignored, so a client
+ * can always resume from the session's receivedBytes. Completing the session queues the
+ * spooled file for processing like a batch upload on a small dedicated pool and returns at
+ * once; the client polls the session status for the result. The spool file is deleted once
+ * processed.
+ * <p>
+ * Each user may hold app.upload.max-sessions-per-user sessions that are still receiving or
+ * processing, with at most app.upload.max-bytes-per-user spooled across them.
+ * <p>
+ * Sessions live in memory on the node that created them; they expire after
+ * app.upload.session-ttl-ms without activity (finished ones after the same time since they
+ * finished).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadSessionService {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final long TRANSFER_BYTES = 8L * 1024 * 1024;
+
+    private final CardService cardService;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    // Bytes held in spool files per user; entries are kept so no update can land on a removed counter
+    private final Map<String, AtomicLong> spooledBytesByUser = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor completions;
+
+    @Value("${app.upload.directory:${java.io.tmpdir}/card-uploads}")
+    private String directory;
+
+    @Value("${app.upload.max-file-size-bytes:10737418240}")
+    private long maxFileSizeBytes;
+
+    @Value("${app.upload.session-ttl-ms:3600000}")
+    private long sessionTtlMs;
+
+    @Value("${app.upload.max-sessions-per-user:4}")
+    private int maxSessionsPerUser;
+
+    @Value("${app.upload.max-bytes-per-user:10737418240}")
+    private long maxBytesPerUser;
+
+    @Value("${app.upload.completion-threads:2}")
+    private int completionThreads;
+
+    @Value("${app.upload.completion-queue-size:16}")
+    private int completionQueueSize;
+
+    @PostConstruct
+    void startCompletions() {
+        completions = new ThreadPoolExecutor(completionThreads, completionThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(completionQueueSize),
+                Thread.ofPlatform().name("upload-completion-", 0).daemon().factory());
+    }
+
+    public UploadSessionResponse create(String username) {
+        String uploadId = UUID.randomUUID().toString();
+        synchronized (sessions) {
+            long active = sessions.values().stream()
+                    .filter(session -> session.username.equals(username) && session.holdsSpool())
+                    .count();
+            if (active >= maxSessionsPerUser) {
+                throw new UploadLimitException("At most " + maxSessionsPerUser
+                        + " upload sessions per user can be open at a time");
+            }
+            try {
+                Path spoolDirectory = Files.createDirectories(Path.of(directory));
+                Path file = spoolDirectory.resolve(uploadId + ".part");
+                FileChannel channel = FileChannel.open(file,
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                sessions.put(uploadId, new UploadSession(uploadId, username, file, channel));
+                spooledBytesByUser.computeIfAbsent(username, user -> new AtomicLong());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error creating upload session", e);
+            }
+        }
+
+        log.info("Upload session {} created by {}", uploadId, username);
+        return UploadSessionResponse.builder().uploadId(uploadId).status(Status.RECEIVING).receivedBytes(0).build();
+    }
+
+    public Optional<UploadSessionResponse> getStatus(String uploadId, String username) {
+        return find(uploadId, username).map(session -> session.toResponse(null));
+    }
+
+    /**
+     * Appends a chunk at the given offset. The optional sha256 (hex) is verified before the
+     * chunk is accepted.
+     */
+    public Optional<UploadSessionResponse> appendChunk(String uploadId, String username, long offset,
+                                                       String sha256, InputStream body) throws IOException {
+        Optional<UploadSession> found = find(uploadId, username);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+
+        UploadSession session = found.get();
+        synchronized (session) {
+            if (session.status != Status.RECEIVING) {
+                throw new UploadConflictException("Upload " + uploadId + " is already " + session.status);
+            }
+            session.touch();
+            if (offset > session.receivedBytes) {
+                throw new UploadConflictException("Chunk offset " + offset
+                        + " is past the received bytes (" + session.receivedBytes + ")");
+            }
+            if (offset < session.receivedBytes) {
+                log.debug("Upload {}: chunk at offset {} already stored, ignoring", uploadId, offset);
+                return Optional.of(session.toResponse(null));
+            }
+
+            AtomicLong userBytes = spooledBytesByUser.get(username);
+            long userRemaining = maxBytesPerUser - userBytes.get();
+
+            // Drop bytes left over from an interrupted attempt at this chunk
+            session.channel.truncate(offset);
+            long written;
+            try {
+                written = transfer(body, session.channel, offset, Math.min(maxFileSizeBytes - offset, userRemaining));
+            } catch (IOException e) {
+                session.channel.truncate(offset);
+                throw e;
+            }
+            if (offset + written > maxFileSizeBytes) {
+                session.channel.truncate(offset);
+                throw new IllegalArgumentException("Upload exceeds the maximum size of " + maxFileSizeBytes + " bytes");
+            }
+            // Authoritative check: other sessions of the user may have grown meanwhile
+            if (userBytes.addAndGet(written) > maxBytesPerUser) {
+                userBytes.addAndGet(-written);
+                session.channel.truncate(offset);
+                throw new UploadLimitException("Uploads of a user may spool at most " + maxBytesPerUser + " bytes");
+            }
+
+            String chunkSha256;
+            try {
+                chunkSha256 = sha256(session.channel, offset, written);
+            } catch (IOException e) {
+                userBytes.addAndGet(-written);
+                session.channel.truncate(offset);
+                throw e;
+            }
+            if (sha256 != null && !sha256.equalsIgnoreCase(chunkSha256)) {
+                userBytes.addAndGet(-written);
+                session.channel.truncate(offset);
+                throw new IllegalArgumentException("Chunk checksum mismatch at offset " + offset);
+            }
+
+            session.receivedBytes = offset + written;
+            return Optional.of(session.toResponse(chunkSha256));
+        }
+    }
+
+    /**
+     * Queues the assembled file for processing as a batch upload and returns the session in
+     * PROCESSING; its status carries the result once done. Completing a session that is
+     * already processing or finished just returns its status.
+     */
+    public Optional<UploadSessionResponse> complete(String uploadId, String username) throws IOException {
+        Optional<UploadSession> found = find(uploadId, username);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+
+        UploadSession session = found.get();
+        synchronized (session) {
+            if (session.status != Status.RECEIVING) {
+                return Optional.of(session.toResponse(null));
+            }
+            session.channel.force(false);
+            session.status = Status.PROCESSING;
+            try {
+                completions.execute(() -> process(session));
+            } catch (RejectedExecutionException e) {
+                session.status = Status.RECEIVING;
+                throw new UploadLimitException("Too many uploads waiting to be processed, retry later");
+            }
+            session.channel.close();
+            session.touch();
+            log.info("Upload session {} complete ({} bytes), queued for processing", uploadId, session.receivedBytes);
+            return Optional.of(session.toResponse(null));
+        }
+    }
+
+    /**
+     * Discards the session and its data; a session being processed cannot be aborted.
+     */
+    public boolean abort(String uploadId, String username) {
+        Optional<UploadSession> found = find(uploadId, username);
+        if (found.isEmpty()) {
+            return false;
+        }
+        if (!discardUnlessProcessing(found.get())) {
+            throw new UploadConflictException("Upload " + uploadId + " is being processed");
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.upload.cleanup-ms:60000}")
+    public void expireSessions() {
+        long cutoff = System.currentTimeMillis() - sessionTtlMs;
+        sessions.values().stream()
+                .filter(session -> session.lastActivity < cutoff)
+                .forEach(session -> {
+                    if (discardUnlessProcessing(session)) {
+                        log.info("Upload session {} expired", session.uploadId);
+                    }
+                });
+    }
+
+    @PreDestroy
+    void close() {
+        if (completions != null) {
+            completions.shutdownNow();
+        }
+        sessions.values().forEach(this::discard);
+    }
+
+    private void process(UploadSession session) {
+        try {
+            BatchUploadResponse result = cardService.uploadBatch(session.file, session.username);
+            synchronized (session) {
+                session.result = result;
+                session.status = Status.COMPLETED;
+            }
+        } catch (Exception e) {
+            log.error("Error processing upload session {}", session.uploadId, e);
+            synchronized (session) {
+                session.error = "Error processing upload: " + e.getMessage();
+                session.status = Status.FAILED;
+            }
+        } finally {
+            session.touch();
+            releaseSpool(session);
+        }
+    }
+
+    private Optional<UploadSession> find(String uploadId, String username) {
+        return Optional.ofNullable(sessions.get(uploadId))
+                .filter(session -> session.username.equals(username));
+    }
+
+    private void discard(UploadSession session) {
+        sessions.remove(session.uploadId, session);
+        releaseSpool(session);
+    }
+
+    private boolean discardUnlessProcessing(UploadSession session) {
+        synchronized (session) {
+            if (session.status == Status.PROCESSING) {
+                return false;
+            }
+            discard(session);
+            return true;
+        }
+    }
+
+    // Closes and deletes the spool file once, returning its bytes to the user's allowance
+    private void releaseSpool(UploadSession session) {
+        synchronized (session) {
+            if (session.spoolReleased) {
+                return;
+            }
+            session.spoolReleased = true;
+            spooledBytesByUser.get(session.username).addAndGet(-session.receivedBytes);
+            try {
+                session.channel.close();
+                Files.deleteIfExists(session.file);
+            } catch (IOException e) {
+                log.error("Error deleting upload spool file {}", session.file, e);
+            }
+        }
+    }
+
+    // Reads at most one byte past maxBytes, so an oversized chunk is detected
+    private long transfer(InputStream body, FileChannel channel, long offset, long maxBytes) throws IOException {
+        ReadableByteChannel source = Channels.newChannel(body);
+        long limit = Math.max(0, maxBytes) + 1;
+        long written = 0;
+        long transferred;
+        while (written < limit
+                && (transferred = channel.transferFrom(source, offset + written, Math.min(TRANSFER_BYTES, limit - written))) > 0) {
+            written += transferred;
+        }
+        return written;
+    }
+
+    private String sha256(FileChannel channel, long offset, long length) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        for (long position = offset; position < offset + length; position += Integer.MAX_VALUE) {
+            long size = Math.min(Integer.MAX_VALUE, offset + length - position);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            digest.update(mapped);
+        }
+        return HEX.formatHex(digest.digest());
+    }
+
+    private static final class UploadSession {
+        private final String uploadId;
+        private final String username;
+        private final Path file;
+        private final FileChannel channel;
+        private volatile Status status = Status.RECEIVING;
+        private volatile long receivedBytes;
+        private volatile long lastActivity = System.currentTimeMillis();
+        private volatile BatchUploadResponse result;
+        private volatile String error;
+        private boolean spoolReleased;
+
+        private UploadSession(String uploadId, String username, Path file, FileChannel channel) {
+            this.uploadId = uploadId;
+            this.username = username;
+            this.file = file;
+            this.channel = channel;
+        }
+
+        private void touch() {
+            lastActivity = System.currentTimeMillis();
+        }
+
+        private boolean holdsSpool() {
+            return status == Status.RECEIVING || status == Status.PROCESSING;
+        }
+
+        private UploadSessionResponse toResponse(String lastChunkSha256) {
+            return UploadSessionResponse.builder()
+                    .uploadId(uploadId)
+                    .status(status)
+                    .receivedBytes(receivedBytes)
+                    .lastChunkSha256(lastChunkSha256)
+                    .result(result)
+                    .error(error)
+                    .build();
+        }
+    }
+}
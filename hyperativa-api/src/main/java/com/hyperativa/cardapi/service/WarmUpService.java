@@ -0,0 +1,240 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.repository.CardHashView;
+import com.hyperativa.cardapi.repository.CardRepository;
+import com.hyperativa.cardapi.repository.CardShardRouter;
+import com.hyperativa.cardapi.util.EncryptionUtil;
+import com.hyperativa.cardapi.util.FileParserUtil;
+import com.hyperativa.cardapi.util.JwtUtil;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warm-up stage run before the instance reports ready.
+ * <p>
+ * Spring Boot only publishes readiness ACCEPTING_TRAFFIC after the application runners return,
+ * so while this runs /actuator/health/readiness stays OUT_OF_SERVICE. The stage runs synthetic
+ * encryption/hash, batch parsing and JWT workloads so their hot methods are compiled before
+ * real traffic, opens every connection pool up to its minimum idle size (primary, shards,
+ * replica), and optionally replays lookups of the most recently registered cards through the
+ * search path. The synthetic loops stop at app.warm-up.time-budget-ms. The duration is logged
+ * and exposed as the application.warm-up.time gauge.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WarmUpService implements ApplicationRunner {
+
+    private static final String SYNTHETIC_CARD_PREFIX = "4000";
+
+    private final EncryptionUtil encryptionUtil;
+    private final FileParserUtil fileParserUtil;
+    private final JwtUtil jwtUtil;
+    private final DataSource dataSource;
+    private final CardRepository cardRepository;
+    private final CardShardRouter shardRouter;
+    private final CardService cardService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.warm-up.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.warm-up.iterations:5000}")
+    private int iterations;
+
+    @Value("${app.warm-up.parser-lines:50000}")
+    private int parserLines;
+
+    @Value("${app.warm-up.preload-cards:0}")
+    private int preloadCards;
+
+    @Value("${app.warm-up.time-budget-ms:15000}")
+    private long timeBudgetMs;
+
+    @Getter
+    private volatile long durationMs = -1;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+        try {
+            int connections = openConnections();
+            int crypto = warmCrypto(deadline);
+            int jwt = warmJwt(deadline);
+            int lines = warmParser(deadline);
+            int cards = preloadCards();
+
+            durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("Warm-up done in {}ms: {} connections, {} crypto and {} JWT iterations, {} parsed lines, {} cards preloaded",
+                    durationMs, connections, crypto, jwt, lines, cards);
+        } catch (RuntimeException e) {
+            // A failed warm-up only costs latency; it must not keep the instance out of service
+            durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.warn("Warm-up aborted after {}ms", durationMs, e);
+        }
+        TimeGauge.builder("application.warm-up.time", this, TimeUnit.MILLISECONDS, WarmUpService::getDurationMs)
+                .description("Time spent warming up before reporting ready")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Borrows every pool's minimum idle connections at once, so they are open before traffic.
+     */
+    private int openConnections() {
+        int opened = 0;
+        for (HikariDataSource pool : pools()) {
+            List<Connection> held = new ArrayList<>();
+            try {
+                for (int i = 0; i < pool.getMinimumIdle(); i++) {
+                    held.add(pool.getConnection());
+                }
+            } catch (SQLException e) {
+                log.warn("Warm-up could not open connections of pool {}: {}", pool.getPoolName(), e.getMessage());
+            } finally {
+                opened += held.size();
+                for (Connection connection : held) {
+                    try {
+                        connection.close();
+                    } catch (SQLException e) {
+                        log.debug("Warm-up connection not returned to pool {}", pool.getPoolName(), e);
+                    }
+                }
+            }
+        }
+        return opened;
+    }
+
+    private int warmCrypto(long deadline) {
+        int done = 0;
+        for (; done < iterations && System.nanoTime() < deadline; done++) {
+            String cardNumber = syntheticCardNumber(done);
+            String decrypted = encryptionUtil.decrypt(encryptionUtil.encrypt(cardNumber));
+            if (!decrypted.equals(cardNumber) || encryptionUtil.hash(cardNumber).isEmpty()) {
+                throw new IllegalStateException("Encryption round trip failed during warm-up");
+            }
+        }
+        return done;
+    }
+
+    private int warmJwt(long deadline) {
+        int done = 0;
+        for (; done < iterations && System.nanoTime() < deadline; done++) {
+            String token = jwtUtil.generateToken("warm-up");
+            if (!jwtUtil.validateToken(token) || !"warm-up".equals(jwtUtil.getUsernameFromToken(token))) {
+                throw new IllegalStateException("JWT round trip failed during warm-up");
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Parses synthetic batch files of 1000 lines through the streaming parser used by uploads.
+     */
+    private int warmParser(long deadline) {
+        int linesPerFile = Math.min(1000, Math.max(parserLines, 1));
+        byte[] file = syntheticBatch(linesPerFile);
+
+        int parsed = 0;
+        while (parsed < parserLines && System.nanoTime() < deadline) {
+            int[] cards = new int[1];
+            fileParserUtil.parse(new ByteArrayInputStream(file), 1000,
+                    (batchId, chunk, hashes, lines) -> cards[0] += chunk.size());
+            if (cards[0] != linesPerFile) {
+                throw new IllegalStateException("Batch parser returned " + cards[0] + " of " + linesPerFile + " cards during warm-up");
+            }
+            parsed += linesPerFile;
+        }
+        return parsed;
+    }
+
+    /**
+     * Looks up the latest cards of every shard through the search path: the card index, the
+     * coalescer and the (replica) lookup query, with the rows and index pages they touch.
+     */
+    private int preloadCards() {
+        if (preloadCards <= 0) {
+            return 0;
+        }
+
+        int found = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            List<CardHashView> latest = shardRouter.onShard(shard,
+                    () -> cardRepository.findLatestHashes(PageRequest.of(0, preloadCards)));
+            for (CardHashView card : latest) {
+                if (cardService.findExternalIdByHash(card.getCardHash()).isPresent()) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    private List<HikariDataSource> pools() {
+        DataSource root = dataSource;
+        while (root instanceof DelegatingDataSource delegating && delegating.getTargetDataSource() != null) {
+            root = delegating.getTargetDataSource();
+        }
+
+        Set<DataSource> targets = new LinkedHashSet<>();
+        if (root instanceof AbstractRoutingDataSource routing) {
+            targets.addAll(routing.getResolvedDataSources().values());
+            if (routing.getResolvedDefaultDataSource() != null) {
+                targets.add(routing.getResolvedDefaultDataSource());
+            }
+        } else {
+            targets.add(root);
+        }
+
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (DataSource target : targets) {
+            try {
+                if (target.isWrapperFor(HikariDataSource.class)) {
+                    pools.add(target.unwrap(HikariDataSource.class));
+                }
+            } catch (SQLException e) {
+                log.debug("Data source {} skipped by warm-up", target, e);
+            }
+        }
+        return pools;
+    }
+
+    private static String syntheticCardNumber(int i) {
+        return SYNTHETIC_CARD_PREFIX + String.format("%012d", i);
+    }
+
+    private static byte[] syntheticBatch(int lines) {
+        StringBuilder file = new StringBuilder(String.format("%-29s%s%-8s%06d%n", "WARM-UP", "20240101", "WARMUP00", lines));
+        for (int i = 1; i <= lines; i++) {
+            file.append(String.format("C%-6d%s%n", i, syntheticCardNumber(i)));
+        }
+        file.append(String.format("%-8s%06d%n", "WARMUP00", lines));
+        return file.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package com.hyperativa.cardapi.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyperativa.cardapi.dto.BatchError;
+import com.hyperativa.cardapi.dto.BatchError.Code;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Errors of one batch upload, in bounded memory.
+ * <p>
+ * Every error is counted by code and appended as one JSON line to the report file, which is
+ * only created on the first error. The first sampleSize errors and duplicates are also kept
+ * for the upload response. Heap use and response size are the same for 10 bad lines or 10
+ * million. Not thread-safe: errors are added by the thread processing the upload.
+ */
+public class BatchErrorReport implements Consumer<BatchError>, Closeable {
+
+    private final String id;
+    private final Path file;
+    private final int sampleSize;
+    private final ObjectMapper objectMapper;
+    private final Map<Code, Long> counts = new EnumMap<>(Code.class);
+    private final List<BatchError> errors = new ArrayList<>();
+    private final List<BatchError> duplicates = new ArrayList<>();
+    private Writer writer;
+
+    public BatchErrorReport(String id, Path file, int sampleSize, ObjectMapper objectMapper) {
+        this.id = id;
+        this.file = file;
+        this.sampleSize = sampleSize;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void accept(BatchError error) {
+        counts.merge(error.code(), 1L, Long::sum);
+        List<BatchError> sample = error.code() == Code.DUPLICATE ? duplicates : errors;
+        if (sample.size() < sampleSize) {
+            sample.add(error);
+        }
+
+        try {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            }
+            writer.write(objectMapper.writeValueAsString(error));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing batch error report " + id, e);
+        }
+    }
+
+    /**
+     * Identifier to download the full report with; null when nothing was reported.
+     */
+    public String getId() {
+        return writer == null ? null : id;
+    }
+
+    public long getErrorCount() {
+        return counts.values().stream().mapToLong(Long::longValue).sum() - getDuplicateCount();
+    }
+
+    public long getDuplicateCount() {
+        return counts.getOrDefault(Code.DUPLICATE, 0L);
+    }
+
+    public Map<Code, Long> getCounts() {
+        return Collections.unmodifiableMap(new EnumMap<>(counts));
+    }
+
+    /**
+     * First errors reported, other than duplicates.
+     */
+    public List<BatchError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public List<BatchError> getDuplicates() {
+        return Collections.unmodifiableList(duplicates);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.hyperativa.cardapi.util;
+
+/**
+ * Non-secret parts of a card number, stored in clear next to the encrypted number so that
+ * masked display and issuer filters never need to decrypt.
+ * <p>
+ * The BIN is the first 8 digits for numbers of 16 digits or more and the first 6 otherwise
+ * (ISO/IEC 7812 8-digit IINs); together with the last four this stays within what PCI DSS
+ * allows to be displayed.
+ */
+public final class CardNumbers {
+
+    private static final int MASKED_DIGITS = 6;
+
+    private CardNumbers() {
+    }
+
+    public static String bin(String cardNumber) {
+        return cardNumber.substring(0, cardNumber.length() >= 16 ? 8 : 6);
+    }
+
+    public static String lastFour(String cardNumber) {
+        return cardNumber.substring(cardNumber.length() - 4);
+    }
+
+    /**
+     * Masked number built from the stored columns only: first 6 BIN digits, a fixed run of
+     * asterisks (the real length is not stored) and the last four.
+     */
+    public static String mask(String bin, String lastFour) {
+        return bin.substring(0, 6) + "*".repeat(MASKED_DIGITS) + lastFour;
+    }
+}
@@ -0,0 +1,227 @@
+package com.hyperativa.cardapi.util;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Transparent streaming decompression of batch files.
+ * <p>
+ * The encoding comes from the Content-Encoding header when present (gzip, x-gzip, zstd,
+ * identity), otherwise from the magic bytes at the start of the stream. The decompressed
+ * stream is produced on the fly and never written to disk. Both sides are counted, so
+ * callers can report compressed and uncompressed throughput, and the decompressed size is
+ * capped to guard against decompression bombs. Corrupt compressed data surfaces as an
+ * IOException while reading, like any other broken body.
+ */
+public final class CompressedInput implements AutoCloseable {
+
+    public enum Encoding { IDENTITY, GZIP, ZSTD }
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final byte[] GZIP_MAGIC = {(byte) 0x1F, (byte) 0x8B};
+    private static final byte[] ZSTD_MAGIC = {(byte) 0x28, (byte) 0xB5, (byte) 0x2F, (byte) 0xFD};
+
+    private final Encoding encoding;
+    private final CountingInputStream compressed;
+    private final CountingInputStream uncompressed;
+
+    private CompressedInput(Encoding encoding, CountingInputStream compressed, CountingInputStream uncompressed) {
+        this.encoding = encoding;
+        this.compressed = compressed;
+        this.uncompressed = uncompressed;
+    }
+
+    /**
+     * Wraps the raw stream, decompressing it if needed.
+     *
+     * @param contentEncoding Content-Encoding header value, or null to detect from magic bytes
+     * @param maxUncompressedBytes limit on the decompressed size; reading past it fails
+     */
+    public static CompressedInput open(InputStream raw, String contentEncoding, long maxUncompressedBytes) throws IOException {
+        CountingInputStream compressed = new CountingInputStream(raw, Long.MAX_VALUE);
+        BufferedInputStream buffered = new BufferedInputStream(compressed, BUFFER_BYTES);
+
+        Encoding encoding = contentEncoding == null || contentEncoding.isBlank()
+                ? detect(buffered)
+                : fromHeader(contentEncoding);
+        InputStream decoded;
+        try {
+            decoded = switch (encoding) {
+                case IDENTITY -> buffered;
+                case GZIP -> new GZIPInputStream(buffered, BUFFER_BYTES);
+                case ZSTD -> new DecoderInputStream(new ZstdInputStream(buffered), "zstd");
+            };
+        } catch (ZipException e) {
+            throw new IllegalArgumentException("Body is not valid gzip data", e);
+        }
+
+        return new CompressedInput(encoding, compressed, new CountingInputStream(decoded, maxUncompressedBytes));
+    }
+
+    /**
+     * Encoding of a stream according to its first bytes; the stream must support mark/reset.
+     */
+    public static Encoding detect(InputStream in) throws IOException {
+        in.mark(ZSTD_MAGIC.length);
+        byte[] head = in.readNBytes(ZSTD_MAGIC.length);
+        in.reset();
+
+        if (startsWith(head, ZSTD_MAGIC)) {
+            return Encoding.ZSTD;
+        }
+        if (startsWith(head, GZIP_MAGIC)) {
+            return Encoding.GZIP;
+        }
+        return Encoding.IDENTITY;
+    }
+
+    public InputStream stream() {
+        return uncompressed;
+    }
+
+    public Encoding encoding() {
+        return encoding;
+    }
+
+    public long compressedBytes() {
+        return compressed.count;
+    }
+
+    public long uncompressedBytes() {
+        return uncompressed.count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        uncompressed.close();
+    }
+
+    private static Encoding fromHeader(String contentEncoding) {
+        return switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case "identity" -> Encoding.IDENTITY;
+            case "gzip", "x-gzip" -> Encoding.GZIP;
+            case "zstd" -> Encoding.ZSTD;
+            default -> throw new IllegalArgumentException("Unsupported Content-Encoding: " + contentEncoding);
+        };
+    }
+
+    private static boolean startsWith(byte[] bytes, byte[] prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rethrows the unchecked exceptions of a decompressor (aircompressor reports corrupt
+     * frames with MalformedInputException) as IOException.
+     */
+    private static final class DecoderInputStream extends FilterInputStream {
+
+        private final String format;
+
+        private DecoderInputStream(InputStream in, String format) {
+            super(in);
+            this.format = format;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (RuntimeException e) {
+                throw invalid(e);
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                return super.read(b, off, len);
+            } catch (RuntimeException e) {
+                throw invalid(e);
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            try {
+                return super.skip(n);
+            } catch (RuntimeException e) {
+                throw invalid(e);
+            }
+        }
+
+        private IOException invalid(RuntimeException e) {
+            return new IOException("Body is not valid " + format + " data: " + e.getMessage(), e);
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+        private long mark;
+
+        private CountingInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                add(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                add(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            add(skipped);
+            return skipped;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            super.mark(readLimit);
+            mark = count;
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            super.reset();
+            count = mark;
+        }
+
+        private void add(long bytes) throws IOException {
+            count += bytes;
+            if (count > limit) {
+                throw new IOException("Decompressed file exceeds the maximum size of " + limit + " bytes");
+            }
+        }
+    }
+}
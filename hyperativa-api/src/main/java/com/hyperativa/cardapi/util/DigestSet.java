@@ -0,0 +1,105 @@
+package com.hyperativa.cardapi.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Set of 32-byte digests (SHA-256) with the line each was first seen on, for in-file
+ * duplicate detection.
+ * <p>
+ * Open addressing with linear probing over a long[] holding four longs per slot, plus an
+ * int[] of line numbers that also marks used slots (lines start at 1). No object is allocated
+ * per entry: a slot costs 36 bytes, so with a 0.75 load factor and doubling an entry takes
+ * 48 to 96 bytes. Digests are uniformly distributed, so the first long is the hash.
+ * Holds at most maxEntries digests; past that {@link #putIfAbsent} returns {@link #FULL}.
+ */
+public final class DigestSet {
+
+    public static final int DIGEST_BYTES = 32;
+    public static final int FULL = -1;
+
+    private static final int LONGS = DIGEST_BYTES / Long.BYTES;
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final int maxEntries;
+    private long[] digests;
+    private int[] lines;
+    private int mask;
+    private int size;
+
+    public DigestSet(int expectedEntries, int maxEntries) {
+        this.maxEntries = maxEntries;
+        allocate(capacityFor(Math.min(Math.max(expectedEntries, 16), maxEntries)));
+    }
+
+    /**
+     * Adds the digest at offset with its line number. Returns 0 when added, the line it was
+     * first seen on when already present, or {@link #FULL} when the set is at maxEntries.
+     */
+    public int putIfAbsent(byte[] digest, int offset, int line) {
+        long k0 = (long) LONG_VIEW.get(digest, offset);
+        long k1 = (long) LONG_VIEW.get(digest, offset + 8);
+        long k2 = (long) LONG_VIEW.get(digest, offset + 16);
+        long k3 = (long) LONG_VIEW.get(digest, offset + 24);
+
+        int slot = (int) k0 & mask;
+        while (lines[slot] != 0) {
+            int base = slot * LONGS;
+            if (digests[base] == k0 && digests[base + 1] == k1 && digests[base + 2] == k2 && digests[base + 3] == k3) {
+                return lines[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size >= maxEntries) {
+            return FULL;
+        }
+        if (size + 1 > (mask + 1) / 4 * 3) {
+            resize();
+            return putIfAbsent(digest, offset, line);
+        }
+
+        int base = slot * LONGS;
+        digests[base] = k0;
+        digests[base + 1] = k1;
+        digests[base + 2] = k2;
+        digests[base + 3] = k3;
+        lines[slot] = line;
+        size++;
+        return 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] oldDigests = digests;
+        int[] oldLines = lines;
+        allocate((mask + 1) * 2);
+
+        for (int slot = 0; slot < oldLines.length; slot++) {
+            if (oldLines[slot] == 0) {
+                continue;
+            }
+            int target = (int) oldDigests[slot * LONGS] & mask;
+            while (lines[target] != 0) {
+                target = (target + 1) & mask;
+            }
+            System.arraycopy(oldDigests, slot * LONGS, digests, target * LONGS, LONGS);
+            lines[target] = oldLines[slot];
+        }
+    }
+
+    private void allocate(int capacity) {
+        digests = new long[capacity * LONGS];
+        lines = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = Integer.highestOneBit(Math.max(entries * 4 / 3 + 1, 16) - 1) << 1;
+        return Math.max(capacity, 16);
+    }
+}
@@ -7,92 +7,212 @@ import javax.crypto.Cipher;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
 
 /**
  * Utility for AES-GCM encryption and SHA-256 hashing of card data.
  * <p>
- * - Encrypt/Decrypt: AES-256-GCM (authenticated)
+ * - Encrypt/Decrypt: AES-256-GCM (authenticated) with envelope encryption
  * - Hash: SHA-256 for indexed lookups
+ * <p>
+ * Card data is encrypted with versioned data keys. Data keys are stored wrapped (encrypted)
+ * by the master key derived from app.encryption.secret-key and kept unwrapped in memory.
+ * Each ciphertext carries the id of its data key ("k{id}:" + Base64(IV + ciphertext)), so
+ * rows written under older keys stay readable after a rotation. Ciphertexts without a prefix
+ * predate envelope encryption and use the master key directly (key id 0).
  */
 @Component
 public class EncryptionUtil {
 
+    public static final int MASTER_KEY_ID = 0;
+    public static final int CARD_DIGEST_BYTES = 32;
+
     private static final String AES_ALGORITHM = "AES/GCM/NoPadding";
     private static final int GCM_TAG_LENGTH = 128;
     private static final int GCM_IV_LENGTH = 12;
+    private static final int DATA_KEY_LENGTH = 32;
+    private static final String KEY_ID_PREFIX = "k";
+    private static final char KEY_ID_SEPARATOR = ':';
+    private static final HexFormat HEX = HexFormat.of();
+    private static final ThreadLocal<MessageDigest> CARD_SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final SecretKeySpec masterKey;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Map<Integer, SecretKeySpec> dataKeys = new ConcurrentHashMap<>();
 
-    private final SecretKeySpec secretKey;
+    private volatile int activeKeyId = MASTER_KEY_ID;
+    private volatile IntFunction<byte[]> wrappedKeyLoader = keyId -> null;
 
     public EncryptionUtil(@Value("${app.encryption.secret-key}") String secret) {
         byte[] keyBytes = sha256(secret);
-        this.secretKey = new SecretKeySpec(keyBytes, "AES");
+        this.masterKey = new SecretKeySpec(keyBytes, "AES");
+        this.dataKeys.put(MASTER_KEY_ID, masterKey);
     }
 
     /**
-     * Encrypts the card number using AES-GCM.
+     * Encrypts the card number using AES-GCM with the active data key.
      * The IV is randomly generated and concatenated to the ciphertext.
      */
     public String encrypt(String plainText) {
-        try {
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            new SecureRandom().nextBytes(iv);
+        int keyId = activeKeyId;
+        String encoded = Base64.getEncoder().encodeToString(
+                seal(dataKeys.get(keyId), plainText.getBytes(StandardCharsets.UTF_8), "Error encrypting data"));
+        return keyId == MASTER_KEY_ID ? encoded : KEY_ID_PREFIX + keyId + KEY_ID_SEPARATOR + encoded;
+    }
 
-            Cipher cipher = Cipher.getInstance(AES_ALGORITHM);
-            GCMParameterSpec spec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey, spec);
+    /**
+     * Decrypts the card number with the data key named in its prefix.
+     */
+    public String decrypt(String encryptedText) {
+        int separator = encryptedText.indexOf(KEY_ID_SEPARATOR);
+        int keyId = keyIdOf(encryptedText);
+        byte[] combined = Base64.getDecoder().decode(separator < 0 ? encryptedText : encryptedText.substring(separator + 1));
+        return new String(open(dataKey(keyId), combined, "Error decrypting data"), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Generates the card_hash of the card number for indexed lookup: the lowercase hex
+     * {@link #cardHash} of its {@link #cardDigest}.
+     */
+    public String hash(String plainText) {
+        byte[] digest = new byte[CARD_DIGEST_BYTES];
+        cardDigest(plainText, digest, 0);
+        return cardHash(digest, 0);
+    }
 
-            byte[] encrypted = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
+    /**
+     * SHA-256 of the card number's UTF-8 bytes, written to out at offset. The single definition
+     * of the card identity: the batch parser also keeps these bytes for its in-file dedup.
+     */
+    public static void cardDigest(String cardNumber, byte[] out, int offset) {
+        MessageDigest sha256 = CARD_SHA_256.get();
+        sha256.update(cardNumber.getBytes(StandardCharsets.UTF_8));
+        try {
+            sha256.digest(out, offset, CARD_DIGEST_BYTES);
+        } catch (DigestException e) {
+            throw new RuntimeException("Error generating hash", e);
+        }
+    }
 
-            // IV + ciphertext
-            byte[] combined = new byte[iv.length + encrypted.length];
-            System.arraycopy(iv, 0, combined, 0, iv.length);
-            System.arraycopy(encrypted, 0, combined, iv.length, encrypted.length);
+    /**
+     * card_hash column value (lowercase hex) of a digest written by {@link #cardDigest}.
+     */
+    public static String cardHash(byte[] digest, int offset) {
+        return HEX.formatHex(digest, offset, offset + CARD_DIGEST_BYTES);
+    }
 
-            return Base64.getEncoder().encodeToString(combined);
-        } catch (Exception e) {
-            throw new RuntimeException("Error encrypting data", e);
+    /**
+     * Id of the data key a ciphertext was produced with.
+     */
+    public int keyIdOf(String encryptedText) {
+        if (!encryptedText.startsWith(KEY_ID_PREFIX)) {
+            return MASTER_KEY_ID;
+        }
+        int separator = encryptedText.indexOf(KEY_ID_SEPARATOR);
+        if (separator < 0) {
+            return MASTER_KEY_ID;
         }
+        return Integer.parseInt(encryptedText, KEY_ID_PREFIX.length(), separator, 10);
+    }
+
+    public int getActiveKeyId() {
+        return activeKeyId;
     }
 
     /**
-     * Decrypts the card number.
+     * Creates a random data key and returns it wrapped by the master key, ready to be stored.
      */
-    public String decrypt(String encryptedText) {
+    public byte[] generateWrappedKey() {
+        byte[] keyBytes = new byte[DATA_KEY_LENGTH];
+        secureRandom.nextBytes(keyBytes);
         try {
-            byte[] combined = Base64.getDecoder().decode(encryptedText);
+            return seal(masterKey, keyBytes, "Error wrapping data key");
+        } finally {
+            Arrays.fill(keyBytes, (byte) 0);
+        }
+    }
+
+    /**
+     * Unwraps a stored data key and caches it under its id.
+     */
+    public void installKey(int keyId, byte[] wrappedKey) {
+        byte[] keyBytes = open(masterKey, wrappedKey, "Error unwrapping data key " + keyId);
+        dataKeys.put(keyId, new SecretKeySpec(keyBytes, "AES"));
+        Arrays.fill(keyBytes, (byte) 0);
+    }
+
+    /**
+     * Makes an installed key the one used for new ciphertexts.
+     */
+    public void activateKey(int keyId) {
+        if (!dataKeys.containsKey(keyId)) {
+            throw new IllegalArgumentException("Data key " + keyId + " is not installed");
+        }
+        this.activeKeyId = keyId;
+    }
+
+    /**
+     * Source of wrapped keys for ids not yet cached (e.g. a key rotated in by another node).
+     */
+    public void setWrappedKeyLoader(IntFunction<byte[]> wrappedKeyLoader) {
+        this.wrappedKeyLoader = wrappedKeyLoader;
+    }
+
+    private SecretKeySpec dataKey(int keyId) {
+        SecretKeySpec key = dataKeys.get(keyId);
+        if (key != null) {
+            return key;
+        }
 
-            byte[] iv = Arrays.copyOfRange(combined, 0, GCM_IV_LENGTH);
-            byte[] cipherText = Arrays.copyOfRange(combined, GCM_IV_LENGTH, combined.length);
+        byte[] wrappedKey = wrappedKeyLoader.apply(keyId);
+        if (wrappedKey == null) {
+            throw new IllegalStateException("Unknown data key " + keyId);
+        }
+        installKey(keyId, wrappedKey);
+        return dataKeys.get(keyId);
+    }
+
+    // IV + ciphertext
+    private byte[] seal(SecretKeySpec key, byte[] plain, String errorMessage) {
+        try {
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            secureRandom.nextBytes(iv);
 
             Cipher cipher = Cipher.getInstance(AES_ALGORITHM);
-            GCMParameterSpec spec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            cipher.init(Cipher.DECRYPT_MODE, secretKey, spec);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+            byte[] encrypted = cipher.doFinal(plain);
 
-            byte[] decrypted = cipher.doFinal(cipherText);
-            return new String(decrypted, StandardCharsets.UTF_8);
+            byte[] combined = new byte[iv.length + encrypted.length];
+            System.arraycopy(iv, 0, combined, 0, iv.length);
+            System.arraycopy(encrypted, 0, combined, iv.length, encrypted.length);
+            return combined;
         } catch (Exception e) {
-            throw new RuntimeException("Error decrypting data", e);
+            throw new RuntimeException(errorMessage, e);
         }
     }
 
-    /**
-     * Generates a SHA-256 hash of the card number for indexed lookup.
-     */
-    public String hash(String plainText) {
+    private byte[] open(SecretKeySpec key, byte[] combined, String errorMessage) {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(plainText.getBytes(StandardCharsets.UTF_8));
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hashBytes) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
+            Cipher cipher = Cipher.getInstance(AES_ALGORITHM);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, combined, 0, GCM_IV_LENGTH));
+            return cipher.doFinal(combined, GCM_IV_LENGTH, combined.length - GCM_IV_LENGTH);
         } catch (Exception e) {
-            throw new RuntimeException("Error generating hash", e);
+            throw new RuntimeException(errorMessage, e);
         }
     }
 
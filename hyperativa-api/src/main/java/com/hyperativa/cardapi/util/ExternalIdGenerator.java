@@ -0,0 +1,12 @@
+package com.hyperativa.cardapi.util;
+
+/**
+ * Source of public card identifiers (Card.externalId).
+ * <p>
+ * The implementation is chosen with app.external-id.generator: "uuid7" (default, time-ordered)
+ * or "random" (UUIDv4).
+ */
+public interface ExternalIdGenerator {
+
+    String generate();
+}
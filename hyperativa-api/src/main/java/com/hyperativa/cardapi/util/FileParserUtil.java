@@ -1,15 +1,34 @@
 package com.hyperativa.cardapi.util;
 
+import com.hyperativa.cardapi.dto.BatchError;
+import com.hyperativa.cardapi.dto.BatchError.Code;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 /**
  * Parser for TXT files in Hyperativa format.
@@ -30,8 +49,24 @@ import java.util.List;
  * - [09-14] RECORD COUNT
  */
 @Component
+@Slf4j
 public class FileParserUtil {
 
+    private static final long MAX_RANGE_BYTES = 8L * 1024 * 1024;
+    private static final int SCAN_BYTES = 8192;
+    // Longest line kept: the 51-character header plus room for padding. Longer lines are
+    // reported and skipped up to their newline, so a body without newlines cannot fill the heap.
+    private static final int MAX_LINE_LENGTH = 128;
+    private static final byte NEWLINE = '\n';
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern CARD_NUMBER = Pattern.compile("\\d{13,19}");
+    // Initial size of the duplicate set; it grows with the file up to app.batch.dedup-max-cards
+    private static final int DEDUP_INITIAL_CARDS = 1024;
+
+    // Distinct cards per file tracked for in-file duplicates; past it duplicates are left to the database check
+    @Value("${app.batch.dedup-max-cards:1000000}")
+    private int dedupMaxCards = 1_000_000;
+
     @Getter
     @Builder
     public static class ParseResult {
@@ -40,7 +75,19 @@ public class FileParserUtil {
         private String batchName;
         private int expectedCount;
         private List<String> cardNumbers;
-        private List<String> errors;
+        private List<BatchError> errors;
+        // Card lines repeating an earlier line of the file; they are not in cardNumbers
+        private List<BatchError> duplicates;
+    }
+
+    /**
+     * Receives the valid cards of a file in chunks, each with its card_hash, computed by
+     * {@link EncryptionUtil#cardHash} from the digest kept for dedup, so callers need not hash again,
+     * and its line in the file (numbered like {@link BatchError#line()}) to report later failures.
+     */
+    @FunctionalInterface
+    public interface ChunkHandler {
+        void accept(String batchId, List<String> cardNumbers, List<String> cardHashes, List<Integer> lines);
     }
 
     /**
@@ -48,80 +95,633 @@ public class FileParserUtil {
      */
     public ParseResult parse(InputStream inputStream) {
         List<String> cardNumbers = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-        String batchId = null;
+        List<BatchError> errors = new ArrayList<>();
+        ParseResult result = parse(inputStream, Integer.MAX_VALUE,
+                (batchId, chunk, hashes, lines) -> cardNumbers.addAll(chunk), errors::add);
+        return collected(result, cardNumbers, errors);
+    }
+
+    /**
+     * Same as {@link #parse(InputStream, int, ChunkHandler, Consumer)}, with the errors and
+     * duplicates collected in the result.
+     */
+    public ParseResult parse(InputStream inputStream, int chunkSize, ChunkHandler onChunk) {
+        List<BatchError> errors = new ArrayList<>();
+        ParseResult result = parse(inputStream, chunkSize, onChunk, errors::add);
+        return collected(result, result.getCardNumbers(), errors);
+    }
+
+    /**
+     * Parses the TXT file incrementally, handing valid card numbers and their hashes to onChunk
+     * (with the batch id) in groups of up to chunkSize as they are read. Only the current line and the one
+     * before it are held, since the footer is recognised as the last non-blank line.
+     * <p>
+     * Errors are handed to onError in line order as they are found, so nothing accumulates
+     * here. Card lines repeating an earlier card of the file are reported there with code
+     * DUPLICATE and never handed to onChunk. The returned result carries the header fields only.
+     * Exceptions thrown by onChunk propagate.
+     */
+    public ParseResult parse(InputStream inputStream, int chunkSize, ChunkHandler onChunk,
+                             Consumer<BatchError> onError) {
+        InFileDedup dedup = new InFileDedup(onError);
+        byte[] digest = new byte[DigestSet.DIGEST_BYTES];
+        int[] invalidLines = new int[1];
+        Consumer<BatchError> lineErrors = error -> {
+            invalidLines[0]++;
+            onError.accept(error);
+        };
+        HeaderFields header = null;
+        List<String> chunk = new ArrayList<>();
+        List<String> hashes = new ArrayList<>();
+        List<Integer> lines = new ArrayList<>();
+        // Last non-blank line read: the footer, unless another non-blank line follows
+        String previous = null;
+        int lineNumber = 0;
+        PipelineEvents.BatchParse parseEvent = new PipelineEvents.BatchParse();
+        parseEvent.begin();
+
+        try (Reader input = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            LineReader reader = new LineReader(input);
+            boolean previousTooLong = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!reader.tooLong() && line.isBlank()) {
+                    continue;
+                }
+                lineNumber++;
+
+                // Parse header (first line)
+                if (header == null) {
+                    if (reader.tooLong()) {
+                        onError.accept(lineTooLong(lineNumber));
+                    }
+                    header = parseHeader(line, onError);
+                    continue;
+                }
+
+                // Parse card lines (skip header and footer)
+                if (previous != null) {
+                    int previousLineNumber = lineNumber - 1;
+                    String cardNumber = null;
+                    if (previousTooLong) {
+                        lineErrors.accept(lineTooLong(previousLineNumber));
+                    } else {
+                        cardNumber = parseCardLine(previous, previousLineNumber, lineErrors);
+                    }
+                    if (cardNumber != null) {
+                        EncryptionUtil.cardDigest(cardNumber, digest, 0);
+                    }
+                    if (cardNumber != null && dedup.isFirst(digest, 0, previousLineNumber)) {
+                        chunk.add(cardNumber);
+                        hashes.add(EncryptionUtil.cardHash(digest, 0));
+                        lines.add(previousLineNumber);
+                        if (chunk.size() >= chunkSize) {
+                            parseEvent.emit(header.batchId(), chunk.size(), invalidLines[0]);
+                            onChunk.accept(header.batchId(), chunk, hashes, lines);
+                            chunk = new ArrayList<>();
+                            hashes = new ArrayList<>();
+                            lines = new ArrayList<>();
+                            parseEvent = new PipelineEvents.BatchParse();
+                            parseEvent.begin();
+                            invalidLines[0] = 0;
+                        }
+                    }
+                }
+                previous = line;
+                previousTooLong = reader.tooLong();
+            }
+
+            if (header == null) {
+                onError.accept(BatchError.of(Code.EMPTY_FILE, "Empty file"));
+                return buildResult(null, null, null, 0, new ArrayList<>());
+            }
+        } catch (IOException | UncheckedIOException e) {
+            onError.accept(BatchError.of(Code.READ_FAILED, "Error processing file: " + e.getMessage()));
+        }
+
+        if (header == null) {
+            return buildResult(null, null, null, 0, new ArrayList<>());
+        }
+        if (!chunk.isEmpty()) {
+            parseEvent.emit(header.batchId(), chunk.size(), invalidLines[0]);
+            onChunk.accept(header.batchId(), chunk, hashes, lines);
+        }
+        return buildResult(header.batchId(), header.batchDate(), header.batchName(), header.expectedCount(),
+                new ArrayList<>());
+    }
+
+    /**
+     * Parses a file on disk by splitting its card lines into byte ranges parsed in parallel
+     * on the common fork-join pool. Produces the same result as {@link #parse(InputStream)}.
+     */
+    public ParseResult parse(Path file) {
+        return parse(file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #parse(Path, ForkJoinPool, Consumer)}, with the errors and duplicates
+     * collected in the result.
+     */
+    public ParseResult parse(Path file, ForkJoinPool pool) {
+        List<BatchError> errors = new ArrayList<>();
+        ParseResult result = parse(file, pool, errors::add);
+        return collected(result, result.getCardNumbers(), errors);
+    }
+
+    /**
+     * Same as {@link #parse(Path, ForkJoinPool, int, ChunkHandler, Consumer)}, on the common
+     * fork-join pool.
+     */
+    public ParseResult parse(Path file, int chunkSize, ChunkHandler onChunk,
+                             Consumer<BatchError> onError) {
+        return parse(file, ForkJoinPool.commonPool(), chunkSize, onChunk, onError);
+    }
+
+    /**
+     * Same as {@link #parse(Path, ForkJoinPool, int, ChunkHandler, Consumer)}, with the card
+     * numbers collected in the result.
+     */
+    public ParseResult parse(Path file, ForkJoinPool pool, Consumer<BatchError> onError) {
+        List<String> cardNumbers = new ArrayList<>();
+        ParseResult result = parse(file, pool, Integer.MAX_VALUE,
+                (batchId, chunk, hashes, lines) -> cardNumbers.addAll(chunk), onError);
+        return collected(result, cardNumbers, List.of());
+    }
+
+    /**
+     * Parses a file on disk in parallel on the given pool, handing valid card numbers to
+     * onChunk in groups of up to chunkSize as the ranges are merged.
+     * <p>
+     * The header (first non-blank line) and footer (last non-blank line) are located first;
+     * the bytes between them are split into ranges aligned to line boundaries, at least one
+     * per pool thread and at most {@value #MAX_RANGE_BYTES} bytes each. At most one range per
+     * pool thread is parsed ahead of the merge, so memory stays bounded whatever the file size
+     * and onChunk overlaps with parsing. Every range counts its non-blank lines, so line
+     * numbers in errors are rebuilt when the ranges are merged in order. Errors and duplicates
+     * reach onError in line order, as with the streaming parser. The returned result carries
+     * the header fields only. Exceptions thrown by onChunk propagate.
+     */
+    public ParseResult parse(Path file, ForkJoinPool pool, int chunkSize, ChunkHandler onChunk,
+                             Consumer<BatchError> onError) {
+        InFileDedup dedup = new InFileDedup(onError);
+        HeaderFields headerFields = null;
+        Deque<Future<RangeResult>> inFlight = new ArrayDeque<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] header = firstNonBlankLine(channel, size);
+            if (header == null) {
+                onError.accept(BatchError.of(Code.EMPTY_FILE, "Empty file"));
+                return buildResult(null, null, null, 0, new ArrayList<>());
+            }
+
+            if (header[1] - header[0] > MAX_LINE_LENGTH + 1) {
+                onError.accept(lineTooLong(1));
+            }
+            headerFields = parseHeader(readLine(channel, header[0], header[1]), onError);
+            String batchId = headerFields.batchId();
+            long bodyStart = header[1] < size ? header[1] + 1 : size;
+            long bodyEnd = Math.max(bodyStart, lastNonBlankLineStart(channel, bodyStart, size));
+
+            List<long[]> ranges = splitRanges(channel, bodyStart, bodyEnd, pool.getParallelism());
+            int nextRange = 0;
+            List<String> chunk = new ArrayList<>();
+            List<String> hashes = new ArrayList<>();
+            List<Integer> lines = new ArrayList<>();
+            int lineNumber = 2;
+            while (nextRange < ranges.size() || !inFlight.isEmpty()) {
+                while (nextRange < ranges.size() && inFlight.size() < pool.getParallelism()) {
+                    long[] range = ranges.get(nextRange++);
+                    inFlight.add(pool.submit(() -> {
+                        PipelineEvents.BatchParse parseEvent = new PipelineEvents.BatchParse();
+                        parseEvent.begin();
+                        RangeResult result = parseRange(channel, range[0], range[1]);
+                        parseEvent.emit(batchId, result.cardNumbers().size(), result.errors().size());
+                        return result;
+                    }));
+                }
+
+                RangeResult range = inFlight.poll().get();
+                // Range errors carry the line index within the range; merge them with the duplicates by line
+                List<BatchError> rangeErrors = range.errors();
+                int nextError = 0;
+                for (int i = 0; i < range.cardNumbers().size(); i++) {
+                    int lineIndex = range.lineIndexes()[i];
+                    while (nextError < rangeErrors.size() && rangeErrors.get(nextError).line() < lineIndex) {
+                        BatchError error = rangeErrors.get(nextError++);
+                        onError.accept(error.withLine(lineNumber + error.line()));
+                    }
+                    int offset = i * DigestSet.DIGEST_BYTES;
+                    if (dedup.isFirst(range.digests(), offset, lineNumber + lineIndex)) {
+                        chunk.add(range.cardNumbers().get(i));
+                        hashes.add(EncryptionUtil.cardHash(range.digests(), offset));
+                        lines.add(lineNumber + lineIndex);
+                        if (chunk.size() >= chunkSize) {
+                            handOver(onChunk, batchId, chunk, hashes, lines);
+                            chunk = new ArrayList<>();
+                            hashes = new ArrayList<>();
+                            lines = new ArrayList<>();
+                        }
+                    }
+                }
+                for (BatchError error : rangeErrors.subList(nextError, rangeErrors.size())) {
+                    onError.accept(error.withLine(lineNumber + error.line()));
+                }
+                lineNumber += range.nonBlankLines();
+            }
+            if (!chunk.isEmpty()) {
+                handOver(onChunk, batchId, chunk, hashes, lines);
+            }
+        } catch (ChunkHandlerException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            onError.accept(BatchError.of(Code.READ_FAILED, "Error processing file: interrupted"));
+        } catch (ExecutionException e) {
+            onError.accept(BatchError.of(Code.READ_FAILED, "Error processing file: " + e.getCause().getMessage()));
+        } catch (Exception e) {
+            onError.accept(BatchError.of(Code.READ_FAILED, "Error processing file: " + e.getMessage()));
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+
+        if (headerFields == null) {
+            return buildResult(null, null, null, 0, new ArrayList<>());
+        }
+        return buildResult(headerFields.batchId(), headerFields.batchDate(), headerFields.batchName(),
+                headerFields.expectedCount(), new ArrayList<>());
+    }
+
+    private static void handOver(ChunkHandler onChunk, String batchId, List<String> chunk, List<String> hashes,
+                                 List<Integer> lines) {
+        try {
+            onChunk.accept(batchId, chunk, hashes, lines);
+        } catch (RuntimeException e) {
+            throw new ChunkHandlerException(e);
+        }
+    }
+
+    private HeaderFields parseHeader(String line, Consumer<BatchError> onError) {
+        String header = padRight(line, 51);
+        String batchName = header.substring(0, Math.min(29, header.length())).trim();
         String batchDate = null;
-        String batchName = null;
+        String batchId = null;
         int expectedCount = 0;
+        if (header.length() >= 37) {
+            batchDate = header.substring(29, 37).trim();
+        }
+        if (header.length() >= 45) {
+            batchId = header.substring(37, 45).trim();
+        }
+        if (header.length() >= 51) {
+            String countStr = header.substring(45, 51).trim();
+            try {
+                expectedCount = Integer.parseInt(countStr);
+            } catch (NumberFormatException e) {
+                onError.accept(new BatchError(1, Code.INVALID_HEADER, "recordCount",
+                        "Invalid record count in header: " + countStr));
+            }
+        }
+        return new HeaderFields(batchName, batchDate, batchId, expectedCount);
+    }
+
+    /**
+     * Card number of a card line; null for other lines or invalid card lines, which are
+     * reported through onError with the given line number.
+     */
+    private String parseCardLine(String line, int lineNumber, Consumer<BatchError> onError) {
+        // Check if the line starts with "C" (card identifier)
+        if (line.isEmpty() || line.charAt(0) != 'C') {
+            return null;
+        }
+        if (line.length() <= 7) {
+            onError.accept(new BatchError(lineNumber, Code.INVALID_FORMAT, null, "invalid format"));
+            return null;
+        }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-            List<String> lines = reader.lines()
-                    .filter(line -> !line.isBlank())
-                    .toList();
+        // Extract all content after position 7 to validate actual size
+        String cardPart = line.substring(7).trim();
+        String cardNumber = WHITESPACE.matcher(cardPart).replaceAll("");
 
-            if (lines.isEmpty()) {
-                errors.add("Empty file");
-                return buildResult(batchId, batchDate, batchName, expectedCount, cardNumbers, errors);
+        // Validate that it is numeric and has between 13 and 19 digits
+        if (CARD_NUMBER.matcher(cardNumber).matches()) {
+            return cardNumber;
+        }
+        onError.accept(new BatchError(lineNumber, Code.INVALID_CARD_NUMBER, "cardNumber",
+                "invalid card number (length " + cardNumber.length() + ", expected 13 to 19 digits)"));
+        return null;
+    }
+
+    /**
+     * Parses one byte range; the digests of its cards ({@link EncryptionUtil#cardDigest}) are
+     * computed here, in parallel, so merging the ranges only probes the duplicate set.
+     */
+    private RangeResult parseRange(FileChannel channel, long start, long end) throws IOException {
+        List<String> cardNumbers = new ArrayList<>();
+        List<BatchError> errors = new ArrayList<>();
+        int nonBlankLines = 0;
+        byte[] digests = new byte[64 * DigestSet.DIGEST_BYTES];
+        int[] lineIndexes = new int[64];
+
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        // One extra byte for a trailing '\r'
+        byte[] line = new byte[MAX_LINE_LENGTH + 2];
+        int length = 0;
+        boolean tooLong = false;
+        while (true) {
+            boolean atEnd = !buffer.hasRemaining();
+            byte b = atEnd ? NEWLINE : buffer.get();
+            if (b != NEWLINE) {
+                if (length < line.length) {
+                    line[length++] = b;
+                } else {
+                    tooLong = true;
+                }
+                continue;
             }
 
-            // Parse header (first line)
-            String header = padRight(lines.getFirst(), 51);
-            batchName = header.substring(0, Math.min(29, header.length())).trim();
-            if (header.length() >= 37) {
-                batchDate = header.substring(29, 37).trim();
+            if (!tooLong && length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            tooLong |= length > MAX_LINE_LENGTH;
+            if (tooLong) {
+                errors.add(lineTooLong(nonBlankLines++));
+            } else if (!isBlank(line, length)) {
+                int lineIndex = nonBlankLines++;
+                String cardNumber = parseCardLine(new String(line, 0, length, StandardCharsets.UTF_8), lineIndex,
+                        errors::add);
+                if (cardNumber != null) {
+                    int index = cardNumbers.size();
+                    if (index == lineIndexes.length) {
+                        lineIndexes = Arrays.copyOf(lineIndexes, index * 2);
+                        digests = Arrays.copyOf(digests, index * 2 * DigestSet.DIGEST_BYTES);
+                    }
+                    EncryptionUtil.cardDigest(cardNumber, digests, index * DigestSet.DIGEST_BYTES);
+                    lineIndexes[index] = lineIndex;
+                    cardNumbers.add(cardNumber);
+                }
             }
-            if (header.length() >= 45) {
-                batchId = header.substring(37, 45).trim();
+            length = 0;
+            tooLong = false;
+            if (atEnd) {
+                return new RangeResult(cardNumbers, digests, lineIndexes, errors, nonBlankLines);
             }
-            if (header.length() >= 51) {
-                String countStr = header.substring(45, 51).trim();
-                try {
-                    expectedCount = Integer.parseInt(countStr);
-                } catch (NumberFormatException e) {
-                    errors.add("Invalid record count in header: " + countStr);
+        }
+    }
+
+    // Splits [start, end) into ranges that each begin right after a newline.
+    private List<long[]> splitRanges(FileChannel channel, long start, long end, int parallelism) throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+        if (start >= end) {
+            return ranges;
+        }
+
+        long count = Math.max(parallelism, (end - start + MAX_RANGE_BYTES - 1) / MAX_RANGE_BYTES);
+        long rangeBytes = Math.max(1, (end - start) / count);
+        long rangeStart = start;
+        while (rangeStart < end) {
+            long rangeEnd = Math.min(end, nextLineStart(channel, rangeStart + rangeBytes, end));
+            ranges.add(new long[]{rangeStart, rangeEnd});
+            rangeStart = rangeEnd;
+        }
+        return ranges;
+    }
+
+    private long nextLineStart(FileChannel channel, long position, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BYTES);
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(SCAN_BYTES, end - position));
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == NEWLINE) {
+                    return position + i + 1;
                 }
             }
+            position += read;
+        }
+        return end;
+    }
 
-            // Parse card lines (skip header and footer)
-            for (int i = 1; i < lines.size() - 1; i++) {
-                String line = lines.get(i);
+    // {start, end} of the first non-blank line, end being its newline (or the end of file).
+    private long[] firstNonBlankLine(FileChannel channel, long size) throws IOException {
+        long lineStart = 0;
+        while (lineStart < size) {
+            long next = nextLineStart(channel, lineStart, size);
+            long lineEnd = next < size || endsWithNewline(channel, size) ? next - 1 : next;
+            if (lineEnd - lineStart > MAX_LINE_LENGTH + 1 || !readLine(channel, lineStart, lineEnd).isBlank()) {
+                return new long[]{lineStart, lineEnd};
+            }
+            lineStart = next;
+        }
+        return null;
+    }
 
-                // Check if the line starts with "C" (card identifier)
-                if (!line.isEmpty() && line.charAt(0) == 'C') {
-                    if (line.length() <= 7) {
-                        errors.add("Line " + (i + 1) + ": invalid format");
-                        continue;
-                    }
+    // Start of the last non-blank line in [from, size), or size when there is none. Scans
+    // backwards in fixed blocks, so a huge last line costs time but no memory.
+    private long lastNonBlankLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BYTES);
+        boolean nonBlank = false;
+        long end = size;
+        while (end > from) {
+            long start = Math.max(from, end - SCAN_BYTES);
+            buffer.clear().limit((int) (end - start));
+            readFully(channel, buffer, start);
+            for (int i = (int) (end - start) - 1; i >= 0; i--) {
+                byte b = buffer.get(i);
+                if (!nonBlank) {
+                    nonBlank = !isWhitespace(b);
+                } else if (b == NEWLINE) {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return nonBlank ? from : size;
+    }
 
-                    // Extract all content after position 7 to validate actual size
-                    String cardPart = line.substring(7).trim();
-                    String cardNumber = cardPart.replaceAll("\\s+", "");
+    private boolean endsWithNewline(FileChannel channel, long size) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        return last.get(0) == NEWLINE;
+    }
 
-                    // Validate that it is numeric and has between 13 and 19 digits
-                    if (cardNumber.matches("\\d{13,19}")) {
-                        cardNumbers.add(cardNumber);
-                    } else {
-                        errors.add("Line " + (i + 1) + ": invalid card number '" + cardNumber + "'");
+    // Line in [start, end), cut to MAX_LINE_LENGTH characters
+    private String readLine(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(end - start, MAX_LINE_LENGTH + 1));
+        readFully(channel, buffer, start);
+        String line = new String(buffer.array(), StandardCharsets.UTF_8);
+        line = line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+        return line.length() > MAX_LINE_LENGTH ? line.substring(0, MAX_LINE_LENGTH) : line;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+
+    private static BatchError lineTooLong(int line) {
+        return new BatchError(line, Code.INVALID_FORMAT, null, "line longer than " + MAX_LINE_LENGTH + " characters");
+    }
+
+    private static boolean isBlank(byte[] line, int length) {
+        for (int i = 0; i < length; i++) {
+            if (!isWhitespace(line[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ASCII whitespace as seen by String.isBlank
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || (b >= 0x09 && b <= 0x0D) || (b >= 0x1C && b <= 0x1F);
+    }
+
+    /**
+     * Reads lines like BufferedReader.readLine (ended by \n, \r or \r\n), keeping at
+     * most MAX_LINE_LENGTH characters of each; the rest of a longer line is read and dropped.
+     */
+    private static final class LineReader {
+
+        private final Reader in;
+        private final char[] buffer = new char[SCAN_BYTES];
+        private final StringBuilder line = new StringBuilder(MAX_LINE_LENGTH);
+        private int position;
+        private int limit;
+        private boolean skipLineFeed;
+        private boolean tooLong;
+
+        private LineReader(Reader in) {
+            this.in = in;
+        }
+
+        String readLine() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(in.read(buffer, 0, buffer.length), 0);
+                    position = 0;
+                    if (limit == 0) {
+                        return read ? line.toString() : null;
+                    }
+                }
+                char c = buffer[position++];
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (c == '\n') {
+                        continue;
                     }
                 }
+                read = true;
+                if (c == '\n' || c == '\r') {
+                    skipLineFeed = c == '\r';
+                    return line.toString();
+                }
+                if (line.length() < MAX_LINE_LENGTH) {
+                    line.append(c);
+                } else {
+                    tooLong = true;
+                }
             }
+        }
 
-        } catch (Exception e) {
-            errors.add("Error processing file: " + e.getMessage());
+        // Whether the last line read was cut
+        boolean tooLong() {
+            return tooLong;
         }
+    }
 
-        return buildResult(batchId, batchDate, batchName, expectedCount, cardNumbers, errors);
+    private record HeaderFields(String batchName, String batchDate, String batchId, int expectedCount) {
     }
 
-    private ParseResult buildResult(String batchId, String batchDate, String batchName,
-                                     int expectedCount, List<String> cardNumbers, List<String> errors) {
+    // Carries an exception of onChunk past the parser's own error handling
+    private static final class ChunkHandlerException extends RuntimeException {
+
+        private ChunkHandlerException(RuntimeException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized RuntimeException getCause() {
+            return (RuntimeException) super.getCause();
+        }
+    }
+
+    // Errors hold their line index within the range until the merge
+    private record RangeResult(List<String> cardNumbers, byte[] digests, int[] lineIndexes, List<BatchError> errors,
+                               int nonBlankLines) {
+    }
+
+    /**
+     * Duplicate tracking for one file: SHA-256 digests of the cards seen so far in a
+     * {@link DigestSet}, bounded by app.batch.dedup-max-cards.
+     */
+    private final class InFileDedup {
+
+        private final DigestSet seen;
+        private final Consumer<BatchError> onDuplicate;
+        private boolean full;
+
+        private InFileDedup(Consumer<BatchError> onDuplicate) {
+            this.seen = new DigestSet(DEDUP_INITIAL_CARDS, dedupMaxCards);
+            this.onDuplicate = onDuplicate;
+        }
+
+        /**
+         * False, with the duplicate reported, when the card was already seen on an earlier line.
+         */
+        boolean isFirst(byte[] digest, int offset, int line) {
+            int firstLine = seen.putIfAbsent(digest, offset, line);
+            if (firstLine == DigestSet.FULL && !full) {
+                full = true;
+                log.warn("More than {} distinct cards in file, further duplicates are left to the database check",
+                        dedupMaxCards);
+            }
+            if (firstLine > 0) {
+                onDuplicate.accept(new BatchError(line, Code.DUPLICATE, "cardNumber", "duplicate of line " + firstLine));
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private ParseResult buildResult(String batchId, String batchDate, String batchName, int expectedCount,
+                                     List<String> cardNumbers) {
         return ParseResult.builder()
                 .batchId(batchId)
                 .batchDate(batchDate)
                 .batchName(batchName)
                 .expectedCount(expectedCount)
                 .cardNumbers(cardNumbers)
+                .errors(new ArrayList<>())
+                .duplicates(new ArrayList<>())
+                .build();
+    }
+
+    // Copy of result with the card numbers and the reported errors split from the duplicates
+    private ParseResult collected(ParseResult result, List<String> cardNumbers, List<BatchError> reported) {
+        List<BatchError> errors = new ArrayList<>();
+        List<BatchError> duplicates = new ArrayList<>();
+        for (BatchError error : reported) {
+            if (error.code() == Code.DUPLICATE) {
+                duplicates.add(error);
+            } else {
+                errors.add(error);
+            }
+        }
+        return ParseResult.builder()
+                .batchId(result.getBatchId())
+                .batchDate(result.getBatchDate())
+                .batchName(result.getBatchName())
+                .expectedCount(result.getExpectedCount())
+                .cardNumbers(cardNumbers)
                 .errors(errors)
+                .duplicates(duplicates)
                 .build();
     }
 
@@ -0,0 +1,186 @@
+package com.hyperativa.cardapi.util;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Write-combining queue: items submitted concurrently are handed to the handler in batches.
+ * <p>
+ * A batch starts with the first queued item and closes when the window elapses or it reaches
+ * the maximum size, whichever comes first, so no item waits longer than the window before its
+ * batch is processed. Batches are processed one at a time on a dedicated thread; items queued
+ * meanwhile form the next batch. The handler returns one result per item, in order.
+ * <p>
+ * Submitters wait at most the given timeout for their batch. On timeout an item still queued
+ * is removed and never processed; an item whose batch is already running may still be applied,
+ * so its outcome is unknown and the caller must re-check or retry idempotently (see
+ * {@link TimedOutException#isInFlight()}).
+ * <p>
+ * Closing rejects new items and lets the worker process everything already queued before it
+ * stops, waiting up to the timeout; only then is a batch still running interrupted and what
+ * is left failed.
+ */
+public class MicroBatcher<T, R> implements Closeable {
+
+    private final BlockingQueue<Pending<T, R>> queue = new LinkedBlockingQueue<>();
+    // Queued by close() after the last item; the worker stops when it takes it
+    private final Pending<T, R> stop = new Pending<>(null, new CompletableFuture<>());
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long timeoutNanos;
+    private final Function<List<T>, List<R>> handler;
+    private final Object lock = new Object();
+    private final Thread worker;
+    private boolean closed;
+
+    public MicroBatcher(String name, Duration window, int maxBatchSize, Duration timeout,
+                        Function<List<T>, List<R>> handler) {
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutNanos = timeout.toNanos();
+        this.handler = handler;
+        this.worker = Thread.ofPlatform().name(name).daemon().start(this::run);
+    }
+
+    /**
+     * Queues the item and waits for its batch to be processed.
+     */
+    public R submit(T item) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        Pending<T, R> pending = new Pending<>(item, result);
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Batcher is closed");
+            }
+            queue.add(pending);
+        }
+
+        try {
+            return result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new TimedOutException("Batch not processed within " + Duration.ofNanos(timeoutNanos),
+                    !queue.remove(pending));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for batch", e);
+        }
+    }
+
+    /**
+     * Rejects new items and waits up to the timeout for the worker to process the queued ones.
+     * Past that the worker is interrupted and every item left in the queue fails.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(stop);
+        }
+        try {
+            worker.join(Duration.ofNanos(timeoutNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            worker.interrupt();
+        }
+        failQueued();
+    }
+
+    private void run() {
+        List<Pending<T, R>> batch = new ArrayList<>(maxBatchSize);
+        try {
+            boolean stopping = false;
+            while (!stopping && !Thread.currentThread().isInterrupted()) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize && batch.getLast() != stop) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || batch.contains(stop) || remaining <= 0) {
+                        break;
+                    }
+                    Pending<T, R> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                // Nothing is queued after the stop marker
+                stopping = batch.remove(stop);
+                if (!batch.isEmpty()) {
+                    process(batch);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            batch.forEach(pending -> pending.result().completeExceptionally(new IllegalStateException("Batcher is closed")));
+            failQueued();
+        }
+    }
+
+    private void failQueued() {
+        Pending<T, R> pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result().completeExceptionally(new IllegalStateException("Batcher is closed"));
+        }
+    }
+
+    private void process(List<Pending<T, R>> batch) {
+        try {
+            List<T> items = new ArrayList<>(batch.size());
+            batch.forEach(pending -> items.add(pending.item()));
+
+            List<R> results = handler.apply(items);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (RuntimeException | Error e) {
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    private record Pending<T, R>(T item, CompletableFuture<R> result) {
+    }
+
+    /**
+     * The submitter stopped waiting. If the item was in flight (its batch had already been
+     * taken by the worker) it may still be applied; otherwise it was removed and never will be.
+     */
+    public static class TimedOutException extends IllegalStateException {
+
+        private final boolean inFlight;
+
+        TimedOutException(String message, boolean inFlight) {
+            super(message);
+            this.inFlight = inFlight;
+        }
+
+        public boolean isInFlight() {
+            return inFlight;
+        }
+    }
+}
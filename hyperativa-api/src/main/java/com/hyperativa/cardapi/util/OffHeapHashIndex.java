@@ -0,0 +1,496 @@
+package com.hyperativa.cardapi.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Off-heap open-addressing hash table from 32-byte keys to 16-byte values, persisted as a
+ * memory-mapped snapshot file plus an append log.
+ * <p>
+ * Slots are fixed-width (key + value, 48 bytes) and live in the mapped snapshot itself, so
+ * there is no per-entry object and a restart only maps the file and replays the log written
+ * since the last checkpoint. An all-zero key marks an empty slot (never a SHA-256 digest).
+ * <p>
+ * Snapshot layout: header (magic, capacity, size, clean flag) followed by capacity slots,
+ * mapped in regions of at most {@value #SLOTS_PER_REGION} slots to stay under the 2 GB
+ * limit of a single mapping. Log layout: a sequence of raw 48-byte slots.
+ * <p>
+ * Lookups are lock-free; writes are serialized. A writer stores the value before the key
+ * (with a release fence), so a reader that matches a key always sees its value.
+ * <p>
+ * Past {@value #GROW_LOAD_FACTOR} load the table is copied into one of twice the capacity
+ * by a background thread, holding the write lock for {@value #COPY_SLOTS} slots at a time;
+ * writes made meanwhile are forwarded to the new table before it is swapped in. Writes never
+ * rehash inline: a batch that would push the load past {@value #MAX_LOAD_FACTOR} is refused
+ * until the copy finishes.
+ */
+@Slf4j
+public class OffHeapHashIndex implements Closeable {
+
+    public static final int KEY_BYTES = 32;
+    public static final int VALUE_BYTES = 16;
+
+    private static final int SLOT_BYTES = KEY_BYTES + VALUE_BYTES;
+    private static final int HEADER_BYTES = 64;
+    private static final long MAGIC = 0x4859504552494458L; // "HYPERIDX"
+    private static final int REGION_SHIFT = 20;
+    private static final int SLOTS_PER_REGION = 1 << REGION_SHIFT;
+    private static final long MIN_CAPACITY = 1024;
+    private static final int COPY_SLOTS = 1 << 14;
+    private static final double GROW_LOAD_FACTOR = 0.6;
+    private static final double MAX_LOAD_FACTOR = 0.85;
+
+    private final Path snapshotFile;
+    private final FileChannel logChannel;
+    private final Object writeLock = new Object();
+
+    private volatile Table table;
+    // Writes made while a resize copies the table, replayed into the new one; guarded by writeLock
+    private List<Entry> forwarded;
+    private Thread resizer;
+    private boolean closed;
+
+    private OffHeapHashIndex(Path snapshotFile, Table table, FileChannel logChannel) {
+        this.snapshotFile = snapshotFile;
+        this.table = table;
+        this.logChannel = logChannel;
+    }
+
+    /**
+     * Opens (or creates) the index stored in the given directory and replays its append log.
+     */
+    public static OffHeapHashIndex open(Path directory, long initialCapacity) {
+        try {
+            Files.createDirectories(directory);
+            Path snapshotFile = directory.resolve("card-index.snapshot");
+            Path logFile = directory.resolve("card-index.log");
+
+            Table table = Files.exists(snapshotFile)
+                    ? Table.map(snapshotFile)
+                    : Table.create(snapshotFile, capacityFor(initialCapacity));
+            if (!table.wasClean()) {
+                table.recountSize();
+            }
+
+            FileChannel logChannel = FileChannel.open(logFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            OffHeapHashIndex index = new OffHeapHashIndex(snapshotFile, table, logChannel);
+            index.replayLog();
+            index.table.markClean(false);
+            if (index.table.capacity < capacityFor(initialCapacity)) {
+                synchronized (index.writeLock) {
+                    index.startResize(capacityFor(initialCapacity));
+                }
+            }
+            return index;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error opening card index in " + directory, e);
+        }
+    }
+
+    /**
+     * Deletes the index stored in the given directory, if any; it must not be open.
+     */
+    public static void delete(Path directory) {
+        try {
+            Files.deleteIfExists(directory.resolve("card-index.snapshot"));
+            Files.deleteIfExists(directory.resolve("card-index.log"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error deleting card index in " + directory, e);
+        }
+    }
+
+    /**
+     * Returns the value stored for the key, or null if absent.
+     */
+    public byte[] get(byte[] key) {
+        Table t = table;
+        long k0 = longAt(key, 0), k1 = longAt(key, 8), k2 = longAt(key, 16), k3 = longAt(key, 24);
+
+        long slot = slotFor(k1, t.mask);
+        for (long probes = 0; probes < t.capacity; probes++) {
+            ByteBuffer region = t.region(slot);
+            int offset = t.offset(slot);
+
+            long s0 = region.getLong(offset), s1 = region.getLong(offset + 8);
+            long s2 = region.getLong(offset + 16), s3 = region.getLong(offset + 24);
+            if ((s0 | s1 | s2 | s3) == 0) {
+                return null;
+            }
+            if (s0 == k0 && s1 == k1 && s2 == k2 && s3 == k3) {
+                VarHandle.acquireFence();
+                byte[] value = new byte[VALUE_BYTES];
+                region.get(offset + KEY_BYTES, value);
+                return value;
+            }
+            slot = (slot + 1) & t.mask;
+        }
+        return null;
+    }
+
+    /**
+     * Logs and stores a single entry; see {@link #putAll}.
+     */
+    public boolean put(byte[] key, byte[] value) {
+        return putAll(List.of(new Entry(key, value)));
+    }
+
+    /**
+     * Logs and stores entries with a single log write. Existing keys get their value replaced.
+     * Returns false, storing nothing, if the entries do not fit until the background resize
+     * has finished.
+     */
+    public boolean putAll(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return true;
+        }
+
+        synchronized (writeLock) {
+            Table t = table;
+            if (t.size + entries.size() > t.capacity * MAX_LOAD_FACTOR) {
+                startResize(t.capacity * 2);
+                return false;
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(entries.size() * SLOT_BYTES);
+            for (Entry entry : entries) {
+                record.put(entry.key()).put(entry.value());
+            }
+            record.flip();
+            try {
+                while (record.hasRemaining()) {
+                    logChannel.write(record, logChannel.size());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error appending to card index log", e);
+            }
+
+            for (Entry entry : entries) {
+                store(t, entry.key(), entry.value());
+            }
+            if (forwarded != null) {
+                forwarded.addAll(entries);
+            }
+            if (t.size > t.capacity * GROW_LOAD_FACTOR) {
+                startResize(t.capacity * 2);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Waits for a running background resize, if any, to finish.
+     */
+    public void awaitResize() throws InterruptedException {
+        Thread running;
+        synchronized (writeLock) {
+            running = resizer;
+        }
+        if (running != null) {
+            running.join();
+        }
+    }
+
+    /**
+     * Flushes the mapped snapshot to disk and truncates the append log.
+     */
+    public void checkpoint() {
+        synchronized (writeLock) {
+            try {
+                table.force();
+                logChannel.truncate(0);
+                logChannel.force(true);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error checkpointing card index", e);
+            }
+        }
+    }
+
+    public long size() {
+        return table.size;
+    }
+
+    public long capacity() {
+        return table.capacity;
+    }
+
+    @Override
+    public void close() {
+        synchronized (writeLock) {
+            closed = true;
+            checkpoint();
+            table.markClean(true);
+            table.force();
+            try {
+                table.channel.close();
+                logChannel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error closing card index", e);
+            }
+        }
+    }
+
+    private void replayLog() throws IOException {
+        long length = logChannel.size() - logChannel.size() % SLOT_BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(SLOT_BYTES * 4096);
+        byte[] key = new byte[KEY_BYTES];
+        byte[] value = new byte[VALUE_BYTES];
+
+        long position = 0;
+        while (position < length) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), length - position));
+            while (buffer.hasRemaining()) {
+                position += logChannel.read(buffer, position);
+            }
+            buffer.flip();
+            while (buffer.remaining() >= SLOT_BYTES) {
+                buffer.get(key).get(value);
+                if (table.size + 1 > table.capacity * MAX_LOAD_FACTOR) {
+                    // Only while opening: nothing else uses the index yet
+                    resize(table.capacity * 2);
+                }
+                store(table, key, value);
+            }
+        }
+        checkpoint();
+    }
+
+    // Caller holds writeLock (or is the opening thread).
+    private static void store(Table t, byte[] key, byte[] value) {
+        if (t.insert(key, value)) {
+            t.size++;
+        }
+    }
+
+    // Caller holds writeLock.
+    private void startResize(long capacity) {
+        if (resizer != null || closed) {
+            return;
+        }
+        forwarded = new ArrayList<>();
+        resizer = Thread.ofPlatform().name("card-index-resize").daemon().start(() -> {
+            try {
+                resize(capacity);
+            } catch (RuntimeException e) {
+                log.error("Error resizing card index", e);
+            } finally {
+                synchronized (writeLock) {
+                    forwarded = null;
+                    resizer = null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Copies every entry into a snapshot of the given capacity and swaps it in atomically.
+     * The write lock is held for one step of slots at a time; entries written meanwhile are
+     * replayed from {@link #forwarded} before the swap. Readers keep using the old mapping
+     * until they pick up the new table.
+     */
+    private void resize(long capacity) {
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            Files.deleteIfExists(tmp);
+            Table old = table;
+            Table grown = Table.create(tmp, capacity);
+            byte[] key = new byte[KEY_BYTES];
+            byte[] value = new byte[VALUE_BYTES];
+            long step = Math.min(COPY_SLOTS, old.capacity);
+            for (long from = 0; from < old.capacity; from += step) {
+                synchronized (writeLock) {
+                    if (closed) {
+                        grown.channel.close();
+                        Files.deleteIfExists(tmp);
+                        return;
+                    }
+                    for (long slot = from; slot < from + step; slot++) {
+                        ByteBuffer region = old.region(slot);
+                        int offset = old.offset(slot);
+                        region.get(offset, key).get(offset + KEY_BYTES, value);
+                        if (!isZero(key)) {
+                            store(grown, key, value);
+                        }
+                    }
+                }
+            }
+            grown.force();
+
+            synchronized (writeLock) {
+                if (closed) {
+                    grown.channel.close();
+                    Files.deleteIfExists(tmp);
+                    return;
+                }
+                if (forwarded != null) {
+                    for (Entry entry : forwarded) {
+                        store(grown, entry.key(), entry.value());
+                    }
+                }
+                grown.force();
+                Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+                table = grown;
+                old.channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error resizing card index", e);
+        }
+    }
+
+    private static long capacityFor(long expectedEntries) {
+        long capacity = MIN_CAPACITY;
+        while (capacity * GROW_LOAD_FACTOR < expectedEntries) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // Keys are SHA-256 digests, already uniform. Bytes 8-15 are used so the slot does not
+    // correlate with the hash prefix that drives shard routing.
+    private static long slotFor(long keyWord, long mask) {
+        return keyWord & mask;
+    }
+
+    private static long longAt(byte[] bytes, int offset) {
+        return ByteBuffer.wrap(bytes, offset, 8).getLong();
+    }
+
+    private static boolean isZero(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public record Entry(byte[] key, byte[] value) {
+        public Entry {
+            if (key.length != KEY_BYTES || value.length != VALUE_BYTES) {
+                throw new IllegalArgumentException("Index entries must have a 32-byte key and a 16-byte value");
+            }
+        }
+    }
+
+    private static final class Table {
+        final FileChannel channel;
+        final MappedByteBuffer header;
+        final MappedByteBuffer[] regions;
+        final long capacity;
+        final long mask;
+        final int regionSlots;
+        volatile long size;
+
+        private Table(FileChannel channel, long capacity) throws IOException {
+            this.channel = channel;
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.regionSlots = (int) Math.min(capacity, SLOTS_PER_REGION);
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+
+            int regionCount = (int) (capacity / regionSlots);
+            this.regions = new MappedByteBuffer[regionCount];
+            for (int i = 0; i < regionCount; i++) {
+                regions[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                        HEADER_BYTES + (long) i * regionSlots * SLOT_BYTES, (long) regionSlots * SLOT_BYTES);
+            }
+        }
+
+        static Table create(Path file, long capacity) throws IOException {
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Table table = new Table(channel, capacity);
+            table.header.putLong(0, MAGIC).putLong(8, capacity).putLong(16, 0);
+            return table;
+        }
+
+        static Table map(Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            if (header.getLong(0) != MAGIC) {
+                channel.close();
+                throw new IOException("Not a card index snapshot: " + file);
+            }
+            Table table = new Table(channel, header.getLong(8));
+            table.size = header.getLong(16);
+            return table;
+        }
+
+        ByteBuffer region(long slot) {
+            return regions[(int) (slot >>> REGION_SHIFT)];
+        }
+
+        int offset(long slot) {
+            return (int) (slot & (regionSlots - 1)) * SLOT_BYTES;
+        }
+
+        /**
+         * Returns true if a new slot was taken, false if an existing key was updated.
+         */
+        boolean insert(byte[] key, byte[] value) {
+            long k0 = longAt(key, 0), k1 = longAt(key, 8), k2 = longAt(key, 16), k3 = longAt(key, 24);
+            long slot = slotFor(k1, mask);
+            while (true) {
+                ByteBuffer region = region(slot);
+                int offset = offset(slot);
+                long s0 = region.getLong(offset), s1 = region.getLong(offset + 8);
+                long s2 = region.getLong(offset + 16), s3 = region.getLong(offset + 24);
+
+                boolean empty = (s0 | s1 | s2 | s3) == 0;
+                if (empty || (s0 == k0 && s1 == k1 && s2 == k2 && s3 == k3)) {
+                    region.put(offset + KEY_BYTES, value);
+                    VarHandle.releaseFence();
+                    if (empty) {
+                        region.put(offset, key);
+                    }
+                    return empty;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        void recountSize() {
+            long count = 0;
+            for (long slot = 0; slot < capacity; slot++) {
+                ByteBuffer region = region(slot);
+                int offset = offset(slot);
+                if ((region.getLong(offset) | region.getLong(offset + 8)
+                        | region.getLong(offset + 16) | region.getLong(offset + 24)) != 0) {
+                    count++;
+                }
+            }
+            size = count;
+        }
+
+        boolean wasClean() {
+            return header.getLong(24) == 1;
+        }
+
+        void markClean(boolean clean) {
+            header.putLong(24, clean ? 1 : 0);
+        }
+
+        void force() {
+            header.putLong(16, size);
+            for (MappedByteBuffer region : regions) {
+                region.force();
+            }
+            header.force();
+        }
+    }
+}
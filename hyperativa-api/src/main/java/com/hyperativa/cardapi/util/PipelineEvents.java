@@ -0,0 +1,194 @@
+package com.hyperativa.cardapi.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the stages of the card pipeline, under the "Hyperativa"
+ * category of any recording (e.g. -XX:StartFlightRecording or jcmd JFR.start).
+ * <p>
+ * Batch stages are emitted once per chunk, not per card, and request-level events once per
+ * request; none records a stack trace. Outside a recording an event is a disabled object the
+ * JIT removes, so the instrumentation can stay on in production. Usage:
+ * <pre>
+ * BatchInsert event = new BatchInsert();
+ * event.begin();
+ * ...
+ * event.emit(batchId, shard, cards, failures);
+ * </pre>
+ */
+public final class PipelineEvents {
+
+    /**
+     * Shard value of batch stages that run before cards are routed.
+     */
+    public static final int NO_SHARD = -1;
+
+    private PipelineEvents() {
+    }
+
+    @Category({"Hyperativa", "Batch"})
+    @StackTrace(false)
+    abstract static class BatchStage extends Event {
+
+        @Label("Batch Id")
+        String batchId;
+
+        @Label("Shard")
+        @Description("Shard the chunk was written to, -1 before routing")
+        int shard;
+
+        @Label("Cards")
+        @Description("Cards in the chunk")
+        int cards;
+
+        boolean ready(String batchId, int shard, int cards) {
+            if (!shouldCommit()) {
+                return false;
+            }
+            this.batchId = batchId;
+            this.shard = shard;
+            this.cards = cards;
+            return true;
+        }
+    }
+
+    @Name("com.hyperativa.cardapi.BatchParse")
+    @Label("Batch Parse")
+    @Description("Parsing of one chunk (streaming) or byte range (parallel) of card lines")
+    public static final class BatchParse extends BatchStage {
+
+        @Label("Invalid Lines")
+        int invalidLines;
+
+        public void emit(String batchId, int cards, int invalidLines) {
+            if (ready(batchId, NO_SHARD, cards)) {
+                this.invalidLines = invalidLines;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.hyperativa.cardapi.BatchHash")
+    @Label("Batch Hash")
+    @Description("Shard routing of one chunk, by the hashes the parser computed")
+    public static final class BatchHash extends BatchStage {
+
+        public void emit(String batchId, int cards) {
+            if (ready(batchId, NO_SHARD, cards)) {
+                commit();
+            }
+        }
+    }
+
+    @Name("com.hyperativa.cardapi.BatchDedupLookup")
+    @Label("Batch Dedup Lookup")
+    @Description("Lookup of the chunk's cards already registered or repeated")
+    public static final class BatchDedupLookup extends BatchStage {
+
+        @Label("Duplicates")
+        int duplicates;
+
+        public void emit(String batchId, int shard, int cards, int duplicates) {
+            if (ready(batchId, shard, cards)) {
+                this.duplicates = duplicates;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.hyperativa.cardapi.BatchEncrypt")
+    @Label("Batch Encrypt")
+    @Description("Encryption of the chunk's new cards")
+    public static final class BatchEncrypt extends BatchStage {
+
+        public void emit(String batchId, int shard, int cards) {
+            if (ready(batchId, shard, cards)) {
+                commit();
+            }
+        }
+    }
+
+    @Name("com.hyperativa.cardapi.BatchInsert")
+    @Label("Batch Insert")
+    @Description("Insert of the chunk's new cards")
+    public static final class BatchInsert extends BatchStage {
+
+        @Label("Failures")
+        int failures;
+
+        public void emit(String batchId, int shard, int cards, int failures) {
+            if (ready(batchId, shard, cards)) {
+                this.failures = failures;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.hyperativa.cardapi.CardLookup")
+    @Label("Card Lookup")
+    @Description("Lookup of one card by hash")
+    @Category({"Hyperativa", "Request"})
+    @StackTrace(false)
+    public static final class CardLookup extends Event {
+
+        @Label("Source")
+        @Description("index or database")
+        String source;
+
+        @Label("Found")
+        boolean found;
+
+        public void emit(String source, boolean found) {
+            if (shouldCommit()) {
+                this.source = source;
+                this.found = found;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.hyperativa.cardapi.JwtValidation")
+    @Label("JWT Validation")
+    @Description("Signature check and subject extraction of a bearer token")
+    @Category({"Hyperativa", "Request"})
+    @StackTrace(false)
+    public static final class JwtValidation extends Event {
+
+        @Label("Valid")
+        boolean valid;
+
+        public void emit(boolean valid) {
+            if (shouldCommit()) {
+                this.valid = valid;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.hyperativa.cardapi.AuditWrite")
+    @Label("Audit Write")
+    @Description("Write of one request log row")
+    @Category({"Hyperativa", "Request"})
+    @StackTrace(false)
+    public static final class AuditWrite extends Event {
+
+        @Label("Table")
+        String table;
+
+        @Label("Status Code")
+        int statusCode;
+
+        public void emit(String table, int statusCode) {
+            if (shouldCommit()) {
+                this.table = table;
+                this.statusCode = statusCode;
+                commit();
+            }
+        }
+    }
+}
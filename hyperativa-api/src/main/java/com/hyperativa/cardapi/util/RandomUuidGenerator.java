@@ -0,0 +1,19 @@
+package com.hyperativa.cardapi.util;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Random UUIDv4 identifiers. Every insert lands at a random position in the external_id index.
+ */
+@Component
+@ConditionalOnProperty(name = "app.external-id.generator", havingValue = "random")
+public class RandomUuidGenerator implements ExternalIdGenerator {
+
+    @Override
+    public String generate() {
+        return UUID.randomUUID().toString();
+    }
+}
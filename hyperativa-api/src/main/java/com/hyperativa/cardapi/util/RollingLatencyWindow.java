@@ -0,0 +1,173 @@
+package com.hyperativa.cardapi.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free rolling window of request latencies and status codes.
+ * <p>
+ * The window is a ring of time slots; a recording lands in the slot of the current instant,
+ * replacing (by CAS) a slot left over from an older lap of the ring, so old data expires
+ * without a background thread. Each slot holds an HDR-style log-linear histogram of
+ * microseconds: exact below 32 µs, then 16 sub-buckets per power of two, which bounds the
+ * relative error of any percentile to about 6% with 544 counters per slot.
+ */
+public class RollingLatencyWindow {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_SHIFT = 32;
+    static final int BUCKETS = (MAX_SHIFT + 2) * SUB_BUCKETS;
+    private static final long MAX_MICROS = bucketUpperBound(BUCKETS - 1);
+
+    private final AtomicReferenceArray<Slot> slots;
+    private final long slotNanos;
+    private final LongSupplier nanoClock;
+
+    public RollingLatencyWindow(long windowNanos, int slotCount) {
+        this(windowNanos, slotCount, System::nanoTime);
+    }
+
+    public RollingLatencyWindow(long windowNanos, int slotCount, LongSupplier nanoClock) {
+        this.slots = new AtomicReferenceArray<>(slotCount);
+        this.slotNanos = Math.max(1, windowNanos / slotCount);
+        this.nanoClock = nanoClock;
+    }
+
+    public void record(long durationNanos, int statusCode) {
+        long epoch = Math.floorDiv(nanoClock.getAsLong(), slotNanos);
+        Slot slot = slotFor(epoch);
+
+        long micros = Math.min(Math.max(durationNanos / 1000, 0), MAX_MICROS);
+        slot.buckets.incrementAndGet(bucketOf(micros));
+        slot.maxMicros.accumulateAndGet(micros, Math::max);
+        slot.statusCounts.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+    }
+
+    /**
+     * Merges the slots still inside the window.
+     */
+    public Snapshot snapshot() {
+        long current = Math.floorDiv(nanoClock.getAsLong(), slotNanos);
+        long[] merged = new long[BUCKETS];
+        long maxMicros = 0;
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot == null || slot.epoch <= current - slots.length() || slot.epoch > current) {
+                continue;
+            }
+            for (int b = 0; b < BUCKETS; b++) {
+                merged[b] += slot.buckets.get(b);
+            }
+            maxMicros = Math.max(maxMicros, slot.maxMicros.get());
+            slot.statusCounts.forEach((code, count) -> statusCounts.merge(code, count.sum(), Long::sum));
+        }
+        return new Snapshot(merged, maxMicros, statusCounts);
+    }
+
+    private Slot slotFor(long epoch) {
+        int index = (int) Math.floorMod(epoch, slots.length());
+        while (true) {
+            Slot slot = slots.get(index);
+            if (slot != null && slot.epoch == epoch) {
+                return slot;
+            }
+            if (slot != null && slot.epoch > epoch) {
+                // A caller with a newer clock reading already moved on; count in it
+                return slot;
+            }
+            Slot fresh = new Slot(epoch);
+            if (slots.compareAndSet(index, slot, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < 2 * SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (micros >>> shift);
+    }
+
+    static long bucketUpperBound(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = bucket - (long) shift * SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    private static final class Slot {
+        private final long epoch;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong maxMicros = new AtomicLong();
+        private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+
+        private Slot(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    /**
+     * Merged view of the window; percentiles are bucket upper bounds, in microseconds.
+     */
+    public static final class Snapshot {
+
+        private final long[] buckets;
+        private final long count;
+        private final long maxMicros;
+        private final Map<Integer, Long> statusCounts;
+
+        private Snapshot(long[] buckets, long maxMicros, Map<Integer, Long> statusCounts) {
+            this.buckets = buckets;
+            this.maxMicros = maxMicros;
+            this.statusCounts = statusCounts;
+            long total = 0;
+            for (long bucket : buckets) {
+                total += bucket;
+            }
+            this.count = total;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long maxMicros() {
+            return maxMicros;
+        }
+
+        public Map<Integer, Long> statusCounts() {
+            return statusCounts;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         */
+        public long percentileMicros(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int b = 0; b < buckets.length; b++) {
+                seen += buckets[b];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(b), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+    }
+}
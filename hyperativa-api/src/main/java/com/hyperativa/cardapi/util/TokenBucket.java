@@ -0,0 +1,55 @@
+package com.hyperativa.cardapi.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as GCRA (generic cell rate algorithm).
+ * <p>
+ * Instead of a token count and a refill timestamp, the whole state is one long: the
+ * theoretical arrival time (TAT) of the next conforming request. A request at time t is
+ * admitted when TAT - t is within the burst tolerance, and advances TAT by one emission
+ * interval with a single CAS. This admits exactly what a bucket of burst tokens refilled at
+ * the given rate would. A bucket whose TAT is in the past is full, so dropping it loses
+ * nothing.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(double perSecond, int burst) {
+        if (perSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + perSecond);
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / perSecond);
+        this.toleranceNanos = emissionIntervalNanos * (Math.max(burst, 1) - 1);
+    }
+
+    /**
+     * Takes one token.
+     *
+     * @return 0 if admitted, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long tat = current == Long.MIN_VALUE || current - nowNanos < 0 ? nowNanos : current;
+            long wait = tat - nowNanos - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, tat + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * True when the bucket is full again, i.e. equivalent to a new one.
+     */
+    public boolean isIdle(long nowNanos) {
+        long current = theoreticalArrival.get();
+        return current == Long.MIN_VALUE || current - nowNanos <= 0;
+    }
+}
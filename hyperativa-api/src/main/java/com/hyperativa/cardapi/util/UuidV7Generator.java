@@ -0,0 +1,55 @@
+package com.hyperativa.cardapi.util;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Time-ordered UUIDv7 identifiers (RFC 9562): 48-bit Unix millisecond timestamp followed by
+ * 74 random bits.
+ * <p>
+ * Ids created close together sort close together, so inserts append to the right-hand edge of
+ * the external_id index instead of splitting random pages. Random bits come from a per-thread
+ * {@link SecureRandom}, like {@link UUID#randomUUID()}, read in blocks of BLOCK_BYTES so the
+ * generator is called once per 16 ids and concurrent batch writers never share it.
+ * Ordering is only by millisecond; ids created in the same millisecond are in random order.
+ */
+@Component
+@ConditionalOnProperty(name = "app.external-id.generator", havingValue = "uuid7", matchIfMissing = true)
+public class UuidV7Generator implements ExternalIdGenerator {
+
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC = 0x8000_0000_0000_0000L;
+    private static final int BLOCK_BYTES = 256;
+
+    private static final ThreadLocal<RandomBlock> RANDOM = ThreadLocal.withInitial(RandomBlock::new);
+
+    @Override
+    public String generate() {
+        return next(System.currentTimeMillis()).toString();
+    }
+
+    UUID next(long epochMillis) {
+        RandomBlock random = RANDOM.get();
+        long mostSigBits = (epochMillis << 16) | VERSION_7 | (random.nextLong() & 0x0FFFL);
+        long leastSigBits = (random.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | VARIANT_RFC;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static final class RandomBlock {
+
+        private final SecureRandom random = new SecureRandom();
+        private final ByteBuffer block = ByteBuffer.allocate(BLOCK_BYTES).position(BLOCK_BYTES);
+
+        long nextLong() {
+            if (!block.hasRemaining()) {
+                random.nextBytes(block.array());
+                block.clear();
+            }
+            return block.getLong();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+-- Cards table for shard datasources (app.sharding.*).
+-- Mirrors the Card entity; the primary datasource is managed by Hibernate.
+CREATE TABLE IF NOT EXISTS cards (
+    id                    BIGINT       NOT NULL AUTO_INCREMENT,
+    external_id           VARCHAR(36)  NOT NULL,
+    card_number_encrypted TEXT         NOT NULL,
+    card_hash             VARCHAR(64)  NOT NULL,
+    card_bin              VARCHAR(8),
+    last_four             VARCHAR(4),
+    batch_id              VARCHAR(50),
+    created_at            TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_cards_external_id UNIQUE (external_id),
+    CONSTRAINT idx_card_hash UNIQUE (card_hash)
+);
@@ -0,0 +1,209 @@
+package com.hyperativa.cardapi;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests against a packaged executable (the native binary by default) started in
+ * its own process, plus the figures used to compare it with the JVM build: time to readiness,
+ * RSS after the tests and sequential search throughput.
+ * <p>
+ * Run by failsafe in the native-it profile:
+ * <pre>
+ * mvn -Pnative native:compile -DskipTests
+ * mvn -Pnative-it verify
+ * mvn -Pnative-it verify -Dcard-api.command="java -jar target/card-api-1.0.0.jar"
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "card-api.command", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class CardApiProcessIT {
+
+    private static final int PORT = 18081;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Process process;
+    private long readyMillis;
+    private double searchesPerSecond;
+    private String token;
+
+    @BeforeAll
+    void start() throws Exception {
+        List<String> command = new ArrayList<>(Arrays.asList(System.getProperty("card-api.command").trim().split("\\s+")));
+        command.add("--server.port=" + PORT);
+        // The throughput loop would otherwise be throttled by the per-user search limit
+        command.add("--app.rate-limit.enabled=false");
+
+        long start = System.nanoTime();
+        process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.to(new File(System.getProperty("java.io.tmpdir"), "card-api-it.log")))
+                .start();
+        awaitReady();
+        readyMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    @AfterAll
+    void stop() throws Exception {
+        if (process == null) {
+            return;
+        }
+        long rssKb = residentSetKb(process.pid());
+        process.destroy();
+        process.waitFor();
+        System.out.printf("%s: ready %,d ms, RSS %,d MB, search %,.0f req/s%n",
+                System.getProperty("card-api.command"), readyMillis, rssKb / 1024, searchesPerSecond);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Login and refresh issue tokens")
+    void shouldLoginAndRefresh() throws Exception {
+        HttpResponse<String> login = postJson("/api/v1/auth/login", "{\"username\":\"admin\",\"password\":\"admin123\"}", null);
+        assertEquals(200, login.statusCode());
+        JsonNode tokens = objectMapper.readTree(login.body());
+        token = tokens.get("token").asText();
+
+        HttpResponse<String> refresh = postJson("/api/v1/auth/refresh",
+                "{\"refreshToken\":\"" + tokens.get("refreshToken").asText() + "\"}", null);
+        assertEquals(200, refresh.statusCode());
+        assertFalse(objectMapper.readTree(refresh.body()).get("token").asText().isEmpty());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Registered card is found by number")
+    void shouldCreateAndSearchCard() throws Exception {
+        HttpResponse<String> created = postJson("/api/v1/cards", "{\"cardNumber\":\"4456897912345678\"}", token);
+        assertEquals(201, created.statusCode());
+        String externalId = objectMapper.readTree(created.body()).get("externalId").asText();
+
+        HttpResponse<String> found = get("/api/v1/cards/search?cardNumber=4456897912345678");
+        assertEquals(200, found.statusCode());
+        assertEquals(externalId, objectMapper.readTree(found.body()).get("externalId").asText());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Batch upload is persisted and exported masked")
+    void shouldUploadAndExportBatch() throws Exception {
+        String file = """
+                DESAFIO-HYPERATIVA           20180524LOTE0001000002
+                C1     4456897922969999
+                C2     4456897999999998
+                LOTE0001000002
+                """;
+        HttpResponse<String> upload = client.send(request("/api/v1/cards/batch")
+                .header("Content-Type", "text/plain")
+                .POST(HttpRequest.BodyPublishers.ofString(file))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, upload.statusCode());
+        assertEquals(2, objectMapper.readTree(upload.body()).get("totalSuccess").asInt());
+
+        HttpResponse<String> export = get("/api/v1/cards/batches/LOTE0001/export");
+        assertEquals(200, export.statusCode());
+        assertTrue(export.body().contains("445689******9999"));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Masked query and request stats serialize")
+    void shouldQueryByBinAndReportStats() throws Exception {
+        HttpResponse<String> page = get("/api/v1/cards?bin=445689");
+        assertEquals(200, page.statusCode());
+        assertTrue(objectMapper.readTree(page.body()).get("cards").size() >= 3);
+
+        assertEquals(200, get("/api/v1/stats/requests").statusCode());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Search throughput")
+    void measureSearchThroughput() throws Exception {
+        int requests = Integer.getInteger("card-api.search-requests", 2000);
+        for (int i = 0; i < requests / 10; i++) {
+            get("/api/v1/cards/search?cardNumber=4456897912345678");
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            assertEquals(200, get("/api/v1/cards/search?cardNumber=4456897912345678").statusCode());
+        }
+        searchesPerSecond = requests / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(request(path).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> postJson(String path, String body, String bearer) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (bearer != null) {
+            builder.header("Authorization", "Bearer " + bearer);
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + token);
+    }
+
+    private void awaitReady() throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        while (System.nanoTime() < deadline) {
+            assertTrue(process.isAlive(), "Application exited during startup");
+            try {
+                if (client.send(HttpRequest.newBuilder(uri("/actuator/health/readiness")).build(),
+                        HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException e) {
+                // Not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Application not ready within 2 minutes");
+    }
+
+    private static URI uri(String path) {
+        return URI.create("http://localhost:" + PORT + path);
+    }
+
+    /**
+     * Resident set size from /proc (Linux); 0 elsewhere.
+     */
+    private static long residentSetKb(long pid) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst()
+                .orElse(0);
+    }
+}
@@ -0,0 +1,112 @@
+package com.hyperativa.cardapi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Time to readiness and to the first login, for the regular jar and the fast-startup build
+ * (AOT + AppCDS archive + lazy beans), each started in a fresh JVM.
+ * <p>
+ * Only runs on demand, after building both variants:
+ * <pre>
+ * mvn -Pfast-startup package -DskipTests
+ * mvn test -Dtest=StartupBenchmarkTest -Dbenchmark.startup=3
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.startup", matches = "\\d+")
+class StartupBenchmarkTest {
+
+    private static final Path TARGET = Path.of("target");
+    private static final int PORT = 18080;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    @DisplayName("Benchmark startup: regular jar vs fast-startup build")
+    void benchmarkStartup() throws Exception {
+        int runs = Integer.getInteger("benchmark.startup");
+        Path fastStartup = TARGET.resolve("fast-startup");
+        Path regularJar = TARGET.resolve("card-api-1.0.0.jar");
+        Path thinJar = fastStartup.resolve("card-api-1.0.0-fast-startup.jar");
+        assertTrue(Files.exists(regularJar) && Files.exists(thinJar), "Build with -Pfast-startup first");
+
+        for (int i = 0; i < runs; i++) {
+            report("regular     ", measure(TARGET, List.of("-jar", regularJar.getFileName().toString())));
+            report("fast-startup", measure(fastStartup, List.of(
+                    "-XX:SharedArchiveFile=app.jsa", "-Dspring.aot.enabled=true",
+                    "-Dspring.profiles.active=fast-startup", "-jar", thinJar.getFileName().toString())));
+        }
+    }
+
+    private long[] measure(Path workingDirectory, List<String> arguments) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Dserver.port=" + PORT);
+        command.addAll(arguments);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(workingDirectory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.to(new File(System.getProperty("java.io.tmpdir"), "startup-benchmark.log")))
+                .start();
+        try {
+            awaitReady(process);
+            long ready = System.nanoTime() - start;
+
+            HttpResponse<String> login = client.send(HttpRequest.newBuilder(uri("/api/v1/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"admin123\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, login.statusCode());
+            long firstLogin = System.nanoTime() - start;
+            return new long[]{ready, firstLogin};
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private void awaitReady(Process process) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        while (System.nanoTime() < deadline) {
+            assertTrue(process.isAlive(), "Application exited during startup");
+            try {
+                HttpResponse<String> health = client.send(HttpRequest.newBuilder(uri("/actuator/health/readiness")).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                if (health.statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException e) {
+                // Not listening yet
+            }
+            Thread.sleep(20);
+        }
+        throw new IllegalStateException("Application not ready within 2 minutes");
+    }
+
+    private static URI uri(String path) {
+        return URI.create("http://localhost:" + PORT + path);
+    }
+
+    private static void report(String variant, long[] nanos) {
+        System.out.printf("%s ready %,6d ms, first login %,6d ms%n", variant, nanos[0] / 1_000_000, nanos[1] / 1_000_000);
+    }
+}
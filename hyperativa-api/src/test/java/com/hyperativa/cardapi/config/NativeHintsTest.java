@@ -0,0 +1,55 @@
+package com.hyperativa.cardapi.config;
+
+import com.hyperativa.cardapi.entity.Card;
+import com.hyperativa.cardapi.entity.User;
+import com.hyperativa.cardapi.repository.CardHashView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.data.projection.TargetAware;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new NativeHints.Registrar().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("Entities are registered for field access")
+    void shouldRegisterEntities() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Card.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(User.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+    }
+
+    @Test
+    @DisplayName("jjwt implementation, Jackson serializer and drivers are reachable by name")
+    void shouldRegisterTypesLoadedByName() {
+        for (String type : new String[]{"io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder", "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "org.h2.Driver", "com.mysql.cj.jdbc.Driver"}) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of(type)).test(hints), type);
+        }
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("META-INF/services/io.jsonwebtoken.io.Serializer").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/shard-schema.sql").test(hints));
+    }
+
+    @Test
+    @DisplayName("Projection interfaces can be proxied")
+    void shouldRegisterProjectionProxies() {
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(
+                AopProxyUtils.completeJdkProxyInterfaces(CardHashView.class, TargetAware.class)).test(hints));
+    }
+}
@@ -0,0 +1,37 @@
+package com.hyperativa.cardapi.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardSchemaMigrationsTest {
+
+    @Test
+    @DisplayName("Missing columns and indexes are added once and later runs are no-ops")
+    void shouldMigrateLegacyShardOnce() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:legacy_shard;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE cards (id BIGINT NOT NULL AUTO_INCREMENT, external_id VARCHAR(36) NOT NULL, "
+                + "card_number_encrypted TEXT NOT NULL, card_hash VARCHAR(64) NOT NULL, batch_id VARCHAR(50), "
+                + "created_at TIMESTAMP(6) NOT NULL, PRIMARY KEY (id), CONSTRAINT idx_card_hash UNIQUE (card_hash))");
+
+        ShardSchemaMigrations.apply(dataSource);
+        ShardSchemaMigrations.apply(dataSource);
+
+        List<String> columns = jdbc.queryForList("SELECT LOWER(COLUMN_NAME) FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE TABLE_NAME = 'CARDS'", String.class);
+        assertTrue(columns.containsAll(List.of("card_bin", "last_four")));
+        for (String index : List.of("IDX_CARD_BATCH", "IDX_CARD_BIN", "IDX_CARD_HASH_EXTERNAL_ID")) {
+            assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES "
+                    + "WHERE TABLE_NAME = 'CARDS' AND INDEX_NAME = ?", Integer.class, index));
+        }
+    }
+}
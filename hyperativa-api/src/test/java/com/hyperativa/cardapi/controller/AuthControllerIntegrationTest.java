@@ -0,0 +1,76 @@
+package com.hyperativa.cardapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyperativa.cardapi.dto.AuthRequest;
+import com.hyperativa.cardapi.dto.AuthResponse;
+import com.hyperativa.cardapi.dto.RefreshTokenRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:authrefresh;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class AuthControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Refresh should rotate tokens and revoke the family when a used token is replayed")
+    void shouldRotateAndDetectReuse() throws Exception {
+        AuthResponse login = read(mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AuthRequest("admin", "admin123"))))
+                .andExpect(status().isOk()));
+        assertNotNull(login.getRefreshToken());
+
+        AuthResponse refreshed = read(refresh(login.getRefreshToken()).andExpect(status().isOk()));
+        assertNotEquals(login.getRefreshToken(), refreshed.getRefreshToken());
+        mockMvc.perform(get("/api/v1/stats/requests")
+                        .header("Authorization", "Bearer " + refreshed.getToken()))
+                .andExpect(status().isOk());
+
+        // Replaying the used token revokes its successor too
+        refresh(login.getRefreshToken()).andExpect(status().isUnauthorized());
+        refresh(refreshed.getRefreshToken()).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Logout should revoke the refresh token")
+    void shouldRevokeOnLogout() throws Exception {
+        AuthResponse login = read(mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AuthRequest("admin", "admin123"))))
+                .andExpect(status().isOk()));
+
+        mockMvc.perform(post("/api/v1/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest(login.getRefreshToken()))))
+                .andExpect(status().isNoContent());
+
+        refresh(login.getRefreshToken()).andExpect(status().isUnauthorized());
+        refresh("not-a-token").andExpect(status().isUnauthorized());
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/v1/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken))));
+    }
+
+    private AuthResponse read(ResultActions result) throws Exception {
+        return objectMapper.readValue(result.andReturn().getResponse().getContentAsString(), AuthResponse.class);
+    }
+}
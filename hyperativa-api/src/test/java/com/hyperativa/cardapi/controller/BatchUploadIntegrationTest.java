@@ -0,0 +1,77 @@
+package com.hyperativa.cardapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyperativa.cardapi.dto.AuthRequest;
+import com.hyperativa.cardapi.dto.AuthResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:parallelupload;DB_CLOSE_DELAY=-1",
+        "app.batch.parallel-parse-threshold-bytes=4096"
+})
+@AutoConfigureMockMvc
+class BatchUploadIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Multipart files past the threshold should be parsed in parallel ranges")
+    void shouldParseLargeMultipartFileInParallel() throws Exception {
+        StringBuilder content = new StringBuilder("DESAFIO-HYPERATIVA           20180524LOTE0007000500\n");
+        for (int i = 0; i < 500; i++) {
+            content.append(String.format("C%-6d4456%012d%n", i, i % 400));
+        }
+        content.append("C500   12345\n");
+        content.append("LOTE0007000500\n");
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "cards.txt", "text/plain", content.toString().getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.getSize() >= 4096);
+
+        mockMvc.perform(multipart("/api/v1/cards/batch")
+                        .file(file)
+                        .header("Authorization", "Bearer " + getToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.batchId").value("LOTE0007"))
+                .andExpect(jsonPath("$.totalSuccess").value(400))
+                .andExpect(jsonPath("$.totalDuplicates").value(100))
+                .andExpect(jsonPath("$.duplicates[0].line").value(402))
+                .andExpect(jsonPath("$.totalErrors").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(502));
+
+        Timer parallel = meterRegistry.find("cards.batch.duration").tag("parser", "parallel").timer();
+        assertNotNull(parallel);
+        assertEquals(1, parallel.count());
+    }
+
+    private String getToken() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AuthRequest("admin", "admin123"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+}
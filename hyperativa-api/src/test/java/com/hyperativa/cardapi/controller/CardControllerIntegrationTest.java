@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hyperativa.cardapi.dto.AuthRequest;
 import com.hyperativa.cardapi.dto.AuthResponse;
 import com.hyperativa.cardapi.dto.CardRequest;
+import io.airlift.compress.zstd.ZstdOutputStream;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -13,6 +14,11 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -28,7 +34,11 @@ class CardControllerIntegrationTest {
     private ObjectMapper objectMapper;
 
     private String getToken() throws Exception {
-        AuthRequest authRequest = new AuthRequest("admin", "admin123");
+        return getToken("admin", "admin123");
+    }
+
+    private String getToken(String username, String password) throws Exception {
+        AuthRequest authRequest = new AuthRequest(username, password);
 
         MvcResult result = mockMvc.perform(post("/api/v1/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -141,4 +151,230 @@ class CardControllerIntegrationTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    @Order(7)
+    @DisplayName("Should process batch file sent as raw request body")
+    void shouldUploadBatchStream() throws Exception {
+        String token = getToken();
+        String fileContent = """
+                DESAFIO-HYPERATIVA           20180524LOTE0002000003
+                C1     4456897912341111
+                C2     44568979
+                C3     4456897912343333
+                LOTE0002000003
+                """;
+
+        MvcResult upload = mockMvc.perform(post("/api/v1/cards/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(fileContent))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.batchId").value("LOTE0002"))
+                .andExpect(jsonPath("$.totalProcessed").value(2))
+                .andExpect(jsonPath("$.totalSuccess").value(2))
+                .andExpect(jsonPath("$.totalErrors").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[0].code").value("INVALID_CARD_NUMBER"))
+                .andExpect(jsonPath("$.errors[0].field").value("cardNumber"))
+                .andExpect(jsonPath("$.errorCounts.INVALID_CARD_NUMBER").value(1))
+                .andReturn();
+
+        String reportId = objectMapper.readTree(upload.getResponse().getContentAsString()).get("errorReportId").asText();
+        mockMvc.perform(get("/api/v1/cards/batch/errors/" + reportId)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(
+                        "{\"line\":3,\"code\":\"INVALID_CARD_NUMBER\",\"field\":\"cardNumber\","
+                                + "\"message\":\"invalid card number (length 8, expected 13 to 19 digits)\"}\n"));
+        mockMvc.perform(get("/api/v1/cards/batch/errors/" + UUID.randomUUID())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+
+        // Only the uploader gets the report
+        mockMvc.perform(post("/api/v1/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AuthRequest("reporter", "reporter123"))));
+        mockMvc.perform(get("/api/v1/cards/batch/errors/" + reportId)
+                        .header("Authorization", "Bearer " + getToken("reporter", "reporter123")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("Should process gzip compressed batch file sent as raw request body")
+    void shouldUploadCompressedBatchStream() throws Exception {
+        String token = getToken();
+        String fileContent = """
+                DESAFIO-HYPERATIVA           20180524LOTE0003000002
+                C1     4456897912345555
+                C2     4456897912346666
+                LOTE0003000002
+                """;
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(fileContent.getBytes(StandardCharsets.UTF_8));
+        }
+
+        mockMvc.perform(post("/api/v1/cards/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Encoding", "gzip")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(gzip.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalSuccess").value(2))
+                .andExpect(jsonPath("$.encoding").value("gzip"))
+                .andExpect(jsonPath("$.compressedBytes").value(gzip.size()))
+                .andExpect(jsonPath("$.uncompressedBytes").value(fileContent.length()));
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("Should report a corrupt zstd body as a read failure instead of a server error")
+    void shouldRejectCorruptCompressedBatchStream() throws Exception {
+        String token = getToken();
+        ByteArrayOutputStream zstd = new ByteArrayOutputStream();
+        try (ZstdOutputStream out = new ZstdOutputStream(zstd)) {
+            out.write("C1     4456897912345555\n".repeat(100).getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] corrupt = zstd.toByteArray();
+        for (int i = corrupt.length / 2; i < corrupt.length / 2 + 8; i++) {
+            corrupt[i] ^= (byte) 0x5A;
+        }
+
+        mockMvc.perform(post("/api/v1/cards/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(corrupt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalSuccess").value(0))
+                .andExpect(jsonPath("$.encoding").value("zstd"))
+                .andExpect(jsonPath("$.errors[0].code").value("READ_FAILED"));
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("Should export batch cards in order, masked by default")
+    void shouldExportBatch() throws Exception {
+        String token = getToken();
+
+        MvcResult ndjson = mockMvc.perform(get("/api/v1/cards/batches/LOTE0001/export")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String[] lines = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        Assertions.assertEquals(3, lines.length);
+        Assertions.assertEquals("445689******9999", objectMapper.readTree(lines[0]).get("cardNumber").asText());
+        Assertions.assertFalse(objectMapper.readTree(lines[0]).get("externalId").asText().isEmpty());
+
+        // Clear numbers are off unless app.export.reveal-enabled
+        mockMvc.perform(get("/api/v1/cards/batches/LOTE0001/export")
+                        .param("reveal", "true")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+
+        MvcResult txt = mockMvc.perform(get("/api/v1/cards/batches/LOTE0001/export")
+                        .param("format", "txt")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String file = mockMvc.perform(asyncDispatch(txt))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] txtLines = file.split("\n");
+        Assertions.assertEquals(5, txtLines.length);
+        Assertions.assertTrue(txtLines[0].endsWith("LOTE0001000003"));
+        Assertions.assertEquals("C1     445689******9999", txtLines[1]);
+        Assertions.assertEquals("C2     445689******9999", txtLines[2]);
+        Assertions.assertEquals("C3     445689******9999", txtLines[3]);
+        Assertions.assertEquals("LOTE0001000003", txtLines[4]);
+
+        mockMvc.perform(get("/api/v1/cards/batches/UNKNOWN/export")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("Should page cards by batch and BIN with masked numbers")
+    void shouldListCardsByBatchAndBin() throws Exception {
+        String token = getToken();
+
+        MvcResult first = mockMvc.perform(get("/api/v1/cards")
+                        .param("batchId", "LOTE0001")
+                        .param("size", "2")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cards.length()").value(2))
+                .andExpect(jsonPath("$.cards[0].maskedNumber").value("445689******9999"))
+                .andExpect(jsonPath("$.cards[0].bin").value("44568979"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn();
+        String cursor = objectMapper.readTree(first.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/v1/cards")
+                        .param("batchId", "LOTE0001")
+                        .param("size", "2")
+                        .param("cursor", cursor)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cards.length()").value(1))
+                .andExpect(jsonPath("$.cards[0].lastFour").value("9999"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/v1/cards")
+                        .param("bin", "445689")
+                        .param("batchId", "LOTE0002")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cards.length()").value(2))
+                .andExpect(jsonPath("$.cards[1].lastFour").value("3333"));
+
+        MvcResult firstByBin = mockMvc.perform(get("/api/v1/cards")
+                        .param("bin", "445689")
+                        .param("batchId", "LOTE0002")
+                        .param("size", "1")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cards.length()").value(1))
+                .andReturn();
+        String binCursor = objectMapper.readTree(firstByBin.getResponse().getContentAsString())
+                .get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/v1/cards")
+                        .param("bin", "445689")
+                        .param("batchId", "LOTE0002")
+                        .param("size", "1")
+                        .param("cursor", binCursor)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cards.length()").value(1))
+                .andExpect(jsonPath("$.cards[0].lastFour").value("3333"));
+
+        mockMvc.perform(get("/api/v1/cards")
+                        .param("bin", "12")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("Should expose rolling request latency per endpoint")
+    void shouldExposeRequestStats() throws Exception {
+        String token = getToken();
+
+        mockMvc.perform(get("/api/v1/stats/requests")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.windowSeconds").value(60))
+                .andExpect(jsonPath("$.endpoints[?(@.endpoint == 'POST /api/v1/cards')].count").isNotEmpty())
+                .andExpect(jsonPath("$.endpoints[?(@.endpoint == 'POST /api/v1/cards')].statusCounts.201").isNotEmpty());
+
+        mockMvc.perform(get("/api/v1/stats/requests"))
+                .andExpect(status().isForbidden());
+    }
 }
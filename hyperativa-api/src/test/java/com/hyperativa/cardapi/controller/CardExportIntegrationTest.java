@@ -0,0 +1,95 @@
+package com.hyperativa.cardapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyperativa.cardapi.dto.AuthRequest;
+import com.hyperativa.cardapi.dto.AuthResponse;
+import com.hyperativa.cardapi.entity.User;
+import com.hyperativa.cardapi.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cardexport;DB_CLOSE_DELAY=-1",
+        "app.export.reveal-enabled=true",
+        "app.export.chunk-size=2",
+        "app.export.decrypt-threads=2"
+})
+@AutoConfigureMockMvc
+class CardExportIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    @DisplayName("Only admins should export clear card numbers when revealing is enabled")
+    void shouldRevealOnlyToAdmins() throws Exception {
+        String admin = getToken("admin", "admin123");
+        String fileContent = """
+                DESAFIO-HYPERATIVA           20180524LOTE0007000003
+                C1     4456897912340001
+                C2     4456897912340002
+                C3     4456897912340003
+                LOTE0007000003
+                """;
+        MockMultipartFile file =
+                new MockMultipartFile("file", "batch.txt", MediaType.TEXT_PLAIN_VALUE, fileContent.getBytes());
+        mockMvc.perform(multipart("/api/v1/cards/batch")
+                        .file(file)
+                        .header("Authorization", "Bearer " + admin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalSuccess").value(3));
+
+        MvcResult export = mockMvc.perform(get("/api/v1/cards/batches/LOTE0007/export")
+                        .param("format", "txt")
+                        .param("reveal", "true")
+                        .header("Authorization", "Bearer " + admin))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String[] lines = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertArrayEquals(new String[]{"C1     4456897912340001", "C2     4456897912340002", "C3     4456897912340003"},
+                new String[]{lines[1], lines[2], lines[3]});
+
+        if (!userRepository.existsByUsername("operator")) {
+            userRepository.save(User.builder()
+                    .username("operator")
+                    .password(passwordEncoder.encode("operator123"))
+                    .build());
+        }
+        mockMvc.perform(get("/api/v1/cards/batches/LOTE0007/export")
+                        .param("reveal", "true")
+                        .header("Authorization", "Bearer " + getToken("operator", "operator123")))
+                .andExpect(status().isForbidden());
+    }
+
+    private String getToken(String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AuthRequest(username, password))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+}
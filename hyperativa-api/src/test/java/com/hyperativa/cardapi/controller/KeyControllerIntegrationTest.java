@@ -0,0 +1,69 @@
+package com.hyperativa.cardapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyperativa.cardapi.dto.AuthRequest;
+import com.hyperativa.cardapi.dto.AuthResponse;
+import com.hyperativa.cardapi.entity.User;
+import com.hyperativa.cardapi.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:keycontroller;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class KeyControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    @DisplayName("Only admin users should be able to rotate the data key")
+    void shouldRestrictRotationToAdmins() throws Exception {
+        if (!userRepository.existsByUsername("operator")) {
+            userRepository.save(User.builder()
+                    .username("operator")
+                    .password(passwordEncoder.encode("operator123"))
+                    .build());
+        }
+
+        String operator = getToken("operator", "operator123");
+        mockMvc.perform(post("/api/v1/keys/rotate")
+                        .header("Authorization", "Bearer " + operator))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/v1/keys/status")
+                        .header("Authorization", "Bearer " + operator))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/v1/keys/rotate")
+                        .header("Authorization", "Bearer " + getToken("admin", "admin123")))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.activeKeyId").isNumber());
+    }
+
+    private String getToken(String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AuthRequest(username, password))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+}
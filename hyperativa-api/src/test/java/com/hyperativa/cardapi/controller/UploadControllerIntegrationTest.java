@@ -0,0 +1,174 @@
+package com.hyperativa.cardapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyperativa.cardapi.dto.AuthRequest;
+import com.hyperativa.cardapi.dto.AuthResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:uploads;DB_CLOSE_DELAY=-1",
+        "app.upload.directory=target/test-uploads",
+        "app.upload.max-sessions-per-user=2",
+        "app.upload.max-bytes-per-user=1000"
+})
+@AutoConfigureMockMvc
+class UploadControllerIntegrationTest {
+
+    private static final String FILE = """
+            DESAFIO-HYPERATIVA           20180524LOTE0005000003
+            C1     4456897912340001
+            C2     4456897912340002
+            C3     4456897912340003
+            LOTE0005000003
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Should assemble chunks, reject bad ones and process the file on completion")
+    void shouldUploadInResumableChunks() throws Exception {
+        String token = getToken();
+        byte[] content = FILE.getBytes(StandardCharsets.UTF_8);
+        byte[] first = Arrays.copyOfRange(content, 0, 70);
+        byte[] second = Arrays.copyOfRange(content, 70, content.length);
+
+        MvcResult created = mockMvc.perform(post("/api/v1/cards/uploads")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.receivedBytes").value(0))
+                .andReturn();
+        JsonNode session = objectMapper.readTree(created.getResponse().getContentAsString());
+        String uri = "/api/v1/cards/uploads/" + session.get("uploadId").asText();
+
+        putChunk(token, uri, 0, first, sha256(first))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.receivedBytes").value(70))
+                .andExpect(jsonPath("$.lastChunkSha256").value(sha256(first)));
+
+        // Gap, corrupted chunk and retried chunk
+        putChunk(token, uri, 100, second, null).andExpect(status().isConflict());
+        putChunk(token, uri, 70, second, sha256(first)).andExpect(status().isBadRequest());
+        putChunk(token, uri, 0, first, sha256(first)).andExpect(jsonPath("$.receivedBytes").value(70));
+
+        mockMvc.perform(get(uri).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.receivedBytes").value(70));
+
+        putChunk(token, uri, 70, second, sha256(second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.receivedBytes").value(content.length));
+
+        mockMvc.perform(post(uri + "/complete").header("Authorization", "Bearer " + token))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").exists());
+        putChunk(token, uri, content.length, first, null).andExpect(status().isConflict());
+
+        JsonNode completed = awaitProcessed(token, uri);
+        assertEquals("COMPLETED", completed.get("status").asText());
+        assertEquals("LOTE0005", completed.at("/result/batchId").asText());
+        assertEquals(3, completed.at("/result/totalSuccess").asInt());
+        assertEquals(0, completed.at("/result/totalErrors").asInt());
+
+        mockMvc.perform(delete(uri).header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get(uri).header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should cap the open sessions and spooled bytes of a user")
+    void shouldEnforcePerUserLimits() throws Exception {
+        String token = getToken();
+        String first = createSession(token);
+        String second = createSession(token);
+        mockMvc.perform(post("/api/v1/cards/uploads").header("Authorization", "Bearer " + token))
+                .andExpect(status().isTooManyRequests());
+
+        putChunk(token, first, 0, new byte[600], null).andExpect(status().isOk());
+        putChunk(token, second, 0, new byte[600], null).andExpect(status().isTooManyRequests());
+        putChunk(token, second, 0, new byte[400], null)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.receivedBytes").value(400));
+
+        // Aborting frees both the session and its bytes
+        mockMvc.perform(delete(first).header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+        putChunk(token, second, 400, new byte[600], null).andExpect(status().isOk());
+        String third = createSession(token);
+
+        mockMvc.perform(delete(second).header("Authorization", "Bearer " + token));
+        mockMvc.perform(delete(third).header("Authorization", "Bearer " + token));
+    }
+
+    private String createSession(String token) throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/v1/cards/uploads")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return "/api/v1/cards/uploads/"
+                + objectMapper.readTree(created.getResponse().getContentAsString()).get("uploadId").asText();
+    }
+
+    private JsonNode awaitProcessed(String token, String uri) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            MvcResult polled = mockMvc.perform(get(uri).header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode session = objectMapper.readTree(polled.getResponse().getContentAsString());
+            if (!"PROCESSING".equals(session.get("status").asText()) || System.currentTimeMillis() > deadline) {
+                return session;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private ResultActions putChunk(
+            String token, String uri, long offset, byte[] chunk, String sha256) throws Exception {
+        MockHttpServletRequestBuilder request = put(uri)
+                .header("Authorization", "Bearer " + token)
+                .param("offset", String.valueOf(offset))
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(chunk);
+        if (sha256 != null) {
+            request.header("X-Chunk-SHA256", sha256);
+        }
+        return mockMvc.perform(request);
+    }
+
+    private String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    private String getToken() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AuthRequest("admin", "admin123"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+}
@@ -0,0 +1,118 @@
+package com.hyperativa.cardapi.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hyperativa.cardapi.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final RateLimitProperties properties = new RateLimitProperties();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should return 429 with Retry-After once a user's search burst is spent")
+    void shouldLimitSearchPerUser() throws Exception {
+        properties.setSearch(new RateLimitProperties.Limit(1, 2));
+        RateLimitFilter filter = newFilter();
+
+        authenticate("alice");
+        assertEquals(200, search(filter).getStatus());
+        assertEquals(200, search(filter).getStatus());
+        MockHttpServletResponse limited = search(filter);
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader("Retry-After"));
+        assertTrue(limited.getContentAsString().contains("Rate limit exceeded"));
+
+        // Another user has a bucket of their own
+        authenticate("bob");
+        assertEquals(200, search(filter).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should reject batch uploads beyond the global concurrency limit with 503")
+    void shouldLimitConcurrentBatches() throws Exception {
+        properties.setMaxConcurrentBatches(1);
+        properties.setBatchAdmissionWaitMs(50);
+        RateLimitFilter filter = newFilter();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> running = CompletableFuture.supplyAsync(() -> {
+            authenticate("alice");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            try {
+                filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/cards/batch"), response, (req, res) -> {
+                    started.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return response;
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        authenticate("bob");
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/cards/batch"), rejected, (req, res) -> fail());
+        assertEquals(503, rejected.getStatus());
+        assertEquals("10", rejected.getHeader("Retry-After"));
+
+        release.countDown();
+        assertEquals(200, running.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(1, filter.availableBatchPermits());
+    }
+
+    @Test
+    @DisplayName("Should not limit other endpoints")
+    void shouldIgnoreOtherEndpoints() throws Exception {
+        properties.setSearch(new RateLimitProperties.Limit(1, 1));
+        RateLimitFilter filter = newFilter();
+        authenticate("alice");
+
+        for (String uri : List.of("/api/v1/keys/status", "/api/v1/stats/requests", "/api/v1/keys/status")) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", uri), response, (req, res) -> { });
+            assertEquals(200, response.getStatus());
+        }
+    }
+
+    private RateLimitFilter newFilter() {
+        return new RateLimitFilter(properties, new ObjectMapper().registerModule(new JavaTimeModule()),
+                new SimpleMeterRegistry());
+    }
+
+    private static MockHttpServletResponse search(RateLimitFilter filter) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/cards/search"), response, (req, res) -> { });
+        return response;
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.entity.Card;
+import com.hyperativa.cardapi.repository.CardRepository;
+import com.hyperativa.cardapi.util.EncryptionUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:binbackfill;DB_CLOSE_DELAY=-1",
+        "app.card-bin.backfill.enabled=false",
+        "app.card-bin.backfill.chunk-size=2",
+        "app.card-bin.backfill.pause-ms=0"
+})
+class CardBinBackfillJobTest {
+
+    private static final List<String> CARDS = List.of(
+            "4456897912349999", "4456897956781234", "445689794321555", "5502094322968888", "4111111111111111111");
+
+    @Autowired
+    private CardBinBackfillJob backfillJob;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+
+    @Test
+    @DisplayName("Backfill should fill BIN and last four of cards stored without them")
+    void shouldBackfillBinAndLastFour() throws Exception {
+        // Rows as written before the columns existed
+        CARDS.forEach(cardNumber -> cardRepository.save(Card.builder()
+                .cardNumberEncrypted(encryptionUtil.encrypt(cardNumber))
+                .cardHash(encryptionUtil.hash(cardNumber))
+                .build()));
+
+        assertTrue(backfillJob.start());
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (backfillJob.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertFalse(backfillJob.isRunning());
+        assertEquals(CARDS.size(), backfillJob.getFilled());
+
+        Card longNumber = findCard("4456897956781234");
+        assertEquals("44568979", longNumber.getCardBin());
+        assertEquals("1234", longNumber.getLastFour());
+
+        Card shortNumber = findCard("445689794321555");
+        assertEquals("445689", shortNumber.getCardBin());
+        assertEquals("1555", shortNumber.getLastFour());
+    }
+
+    private Card findCard(String cardNumber) {
+        String hash = encryptionUtil.hash(cardNumber);
+        return cardRepository.findAll().stream()
+                .filter(card -> hash.equals(card.getCardHash()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
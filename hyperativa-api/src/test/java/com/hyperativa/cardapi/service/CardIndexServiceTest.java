@@ -0,0 +1,171 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.config.ShardingProperties;
+import com.hyperativa.cardapi.repository.CardHashView;
+import com.hyperativa.cardapi.repository.CardRepository;
+import com.hyperativa.cardapi.repository.CardShardRouter;
+import com.hyperativa.cardapi.service.CardIndexService.BuildWatermark;
+import com.hyperativa.cardapi.service.CardIndexService.Fingerprint;
+import com.hyperativa.cardapi.util.OffHeapHashIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardIndexServiceTest {
+
+    private static final String HASH = "ab".repeat(32);
+    private static final String EXTERNAL_ID = UUID.randomUUID().toString();
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Spy
+    private CardShardRouter shardRouter = new CardShardRouter(new ShardingProperties());
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @InjectMocks
+    private CardIndexService cardIndex;
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        cardIndex.close();
+    }
+
+    @Test
+    @DisplayName("Should resume an interrupted build from its watermark")
+    void shouldResumeBuildFromWatermark() throws Exception {
+        new BuildWatermark(0, 500, false, List.of()).save(directory);
+        when(cardRepository.count()).thenReturn(501L);
+        when(cardRepository.findHashChunkAfter(eq(500L), any())).thenReturn(List.of(view(501, HASH, EXTERNAL_ID)));
+        when(cardRepository.findHashChunkAfter(eq(501L), any())).thenReturn(List.of());
+
+        open();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!BuildWatermark.load(directory).complete() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertTrue(BuildWatermark.load(directory).complete());
+        assertEquals(Optional.of(EXTERNAL_ID), cardIndex.find(HASH));
+        verify(cardRepository, never()).findHashChunkAfter(eq(0L), any());
+    }
+
+    @Test
+    @DisplayName("Should not rebuild a completed index while the table has only gained cards")
+    void shouldSkipCompletedBuild() {
+        BuildWatermark.complete(List.of(new Fingerprint(10, 10))).save(directory);
+        when(cardRepository.count()).thenReturn(12L);
+        when(cardRepository.findMaxId()).thenReturn(15L);
+
+        open();
+
+        assertEquals(Optional.empty(), cardIndex.find(HASH));
+        verify(cardRepository, never()).findHashChunkAfter(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should rebuild a completed index when the table no longer matches its fingerprint")
+    void shouldRebuildOnFingerprintMismatch() throws Exception {
+        String staleHash = "cd".repeat(32);
+        try (OffHeapHashIndex stale = OffHeapHashIndex.open(directory, 10)) {
+            stale.put(HexFormat.of().parseHex(staleHash), new byte[OffHeapHashIndex.VALUE_BYTES]);
+        }
+        BuildWatermark.complete(List.of(new Fingerprint(5, 5))).save(directory);
+        when(cardRepository.count()).thenReturn(1L);
+        when(cardRepository.findMaxId()).thenReturn(1L);
+        when(cardRepository.findHashChunkAfter(eq(0L), any())).thenReturn(List.of(view(1, HASH, EXTERNAL_ID)));
+        when(cardRepository.findHashChunkAfter(eq(1L), any())).thenReturn(List.of());
+
+        open();
+        awaitComplete();
+
+        assertEquals(Optional.of(EXTERNAL_ID), cardIndex.find(HASH));
+        assertEquals(Optional.empty(), cardIndex.find(staleHash));
+        assertEquals(List.of(new Fingerprint(1, 1)), BuildWatermark.load(directory).fingerprints());
+    }
+
+    @Test
+    @DisplayName("Should index cards recorded while the index is growing")
+    void shouldKeepCardsRecordedDuringResize() throws Exception {
+        BuildWatermark.complete(List.of(new Fingerprint(0, 0))).save(directory);
+        open();
+
+        // More than the initial table holds: the first attempt only starts the resize
+        Map<String, String> recorded = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            recorded.put(String.format("%064x", i + 1), UUID.randomUUID().toString());
+        }
+        cardIndex.recordAll(recorded);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!allIndexed(recorded) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(allIndexed(recorded));
+    }
+
+    private boolean allIndexed(Map<String, String> recorded) {
+        return recorded.entrySet().stream()
+                .allMatch(card -> Optional.of(card.getValue()).equals(cardIndex.find(card.getKey())));
+    }
+
+    private void awaitComplete() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!BuildWatermark.load(directory).complete() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private void open() {
+        ReflectionTestUtils.setField(cardIndex, "enabled", true);
+        ReflectionTestUtils.setField(cardIndex, "directory", directory.toString());
+        ReflectionTestUtils.setField(cardIndex, "initialCapacity", 10L);
+        ReflectionTestUtils.setField(cardIndex, "loadChunkSize", 100);
+        cardIndex.open();
+    }
+
+    private static CardHashView view(long id, String hash, String externalId) {
+        return new CardHashView() {
+            public Long getId() {
+                return id;
+            }
+
+            public String getCardHash() {
+                return hash;
+            }
+
+            public String getExternalId() {
+                return externalId;
+            }
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.entity.Card;
+import com.hyperativa.cardapi.repository.CardRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Latency and allocation per card lookup by hash: the whole entity (a JPQL query for Card,
+ * as the lookup path did before) vs the external id alone (findExternalIdByCardHash, covered
+ * by idx_card_hash_external_id). Both run in a read-only transaction.
+ * <p>
+ * Only runs on demand:
+ * <pre>
+ * mvn test -Dtest=CardLookupBenchmarkTest -Dbenchmark.lookups=200000
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.lookups", matches = "\\d+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:lookupbench;DB_CLOSE_DELAY=-1",
+        "logging.level.com.hyperativa.cardapi=WARN"
+})
+class CardLookupBenchmarkTest {
+
+    private static final int CARDS = 10_000;
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Benchmark lookup by hash: entity vs covering projection")
+    void benchmarkLookups() {
+        int lookups = Integer.getInteger("benchmark.lookups");
+        List<String> hashes = new ArrayList<>(CARDS);
+        List<Card> cards = new ArrayList<>(CARDS);
+        for (int i = 0; i < CARDS; i++) {
+            String hash = String.format("%064x", i);
+            hashes.add(hash);
+            // Encrypted numbers are ~100 characters of Base64 in the TEXT column
+            cards.add(Card.builder().cardHash(hash).cardNumberEncrypted("v1:" + "x".repeat(100)).build());
+        }
+        cardRepository.saveAll(cards);
+
+        jdbcTemplate.queryForList("EXPLAIN SELECT external_id FROM cards WHERE card_hash = ?", String.class, hashes.getFirst())
+                .forEach(plan -> System.out.println("plan: " + plan.replaceAll("\\s+", " ")));
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Function<String, ?> entity = hash -> readOnly.execute(status -> entityManager
+                .createQuery("SELECT c FROM Card c WHERE c.cardHash = :cardHash", Card.class)
+                .setParameter("cardHash", hash)
+                .getResultStream()
+                .findFirst()
+                .map(Card::getExternalId));
+
+        run("warm-up", lookups / 10, hashes, entity);
+        run("warm-up", lookups / 10, hashes, cardRepository::findExternalIdByCardHash);
+
+        run("entity", lookups, hashes, entity);
+        run("projection", lookups, hashes, cardRepository::findExternalIdByCardHash);
+    }
+
+    private void run(String name, int lookups, List<String> hashes, Function<String, ?> lookup) {
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            lookup.apply(hashes.get(i % hashes.size()));
+        }
+        long elapsed = System.nanoTime() - start;
+        allocated = THREADS.getCurrentThreadAllocatedBytes() - allocated;
+
+        if (!name.equals("warm-up")) {
+            System.out.printf("%-10s %,d lookups, %.1f us and %,d bytes allocated per lookup%n",
+                    name, lookups, elapsed / 1e3 / lookups, allocated / lookups);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.hyperativa.cardapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardLookupCoalescerTest {
+
+    private final CardLookupCoalescer coalescer = new CardLookupCoalescer(new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("Should run one query for concurrent lookups of the same card")
+    void shouldCoalesceConcurrentLookups() throws Exception {
+        int callers = 16;
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch allWaiting = new CountDownLatch(callers - 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            Future<Optional<String>> leader = executor.submit(() -> coalescer.lookup("hash", () -> {
+                queries.incrementAndGet();
+                await(release);
+                return Optional.of("uuid-1");
+            }));
+            while (coalescer.getExecutedCount() == 0) {
+                Thread.onSpinWait();
+            }
+
+            List<Future<Optional<String>>> followers = new ArrayList<>();
+            for (int i = 1; i < callers; i++) {
+                followers.add(executor.submit(() -> {
+                    allWaiting.countDown();
+                    return coalescer.lookup("hash", () -> {
+                        queries.incrementAndGet();
+                        return Optional.of("unexpected");
+                    });
+                }));
+            }
+            assertTrue(allWaiting.await(5, TimeUnit.SECONDS));
+            while (coalescer.getCoalescedCount() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals(Optional.of("uuid-1"), leader.get(5, TimeUnit.SECONDS));
+            for (Future<Optional<String>> follower : followers) {
+                assertEquals(Optional.of("uuid-1"), follower.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, queries.get());
+        assertEquals(callers - 1, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    @DisplayName("Should run a new query once the previous one has finished")
+    void shouldNotCacheResults() {
+        coalescer.lookup("hash", Optional::empty);
+        Optional<String> result = coalescer.lookup("hash", () -> Optional.of("uuid-2"));
+
+        assertEquals(Optional.of("uuid-2"), result);
+        assertEquals(2, coalescer.getExecutedCount());
+    }
+
+    @Test
+    @DisplayName("Should propagate query failures")
+    void shouldPropagateFailure() {
+        assertThrows(IllegalStateException.class,
+                () -> coalescer.lookup("hash", () -> { throw new IllegalStateException("db down"); }));
+        assertEquals(Optional.of("uuid-3"), coalescer.lookup("hash", () -> Optional.of("uuid-3")));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.dto.CardRequest;
+import com.hyperativa.cardapi.dto.CardResponse;
+import com.hyperativa.cardapi.repository.CardRepository;
+import com.hyperativa.cardapi.util.EncryptionUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CardServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+
+    @Test
+    @DisplayName("Concurrent registrations of the same card should all return the same identifier")
+    void shouldReturnSameExternalIdUnderContention() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                String cardNumber = String.format("55550000%08d", round);
+                CyclicBarrier barrier = new CyclicBarrier(THREADS);
+
+                List<Future<CardResponse>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        barrier.await();
+                        return cardService.createCard(new CardRequest(cardNumber));
+                    }));
+                }
+
+                List<CardResponse> responses = new ArrayList<>();
+                for (Future<CardResponse> future : futures) {
+                    responses.add(future.get(30, TimeUnit.SECONDS));
+                }
+
+                Set<String> externalIds = responses.stream()
+                        .map(CardResponse::getExternalId)
+                        .collect(Collectors.toSet());
+                long created = responses.stream()
+                        .filter(r -> "Card registered successfully".equals(r.getMessage()))
+                        .count();
+
+                assertEquals(1, externalIds.size(), "All callers must see the same externalId");
+                assertEquals(1, created, "Exactly one caller must create the card");
+                assertTrue(cardRepository.existsByCardHash(encryptionUtil.hash(cardNumber)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,19 +1,37 @@
 package com.hyperativa.cardapi.service;
 
+import com.hyperativa.cardapi.config.ReplicaProperties;
+import com.hyperativa.cardapi.config.ShardingProperties;
+import com.hyperativa.cardapi.dto.BatchError;
+import com.hyperativa.cardapi.dto.BatchError.Code;
 import com.hyperativa.cardapi.dto.CardRequest;
 import com.hyperativa.cardapi.dto.CardResponse;
 import com.hyperativa.cardapi.entity.Card;
+import com.hyperativa.cardapi.repository.CardInsertStore;
 import com.hyperativa.cardapi.repository.CardRepository;
+import com.hyperativa.cardapi.repository.CardShardRouter;
 import com.hyperativa.cardapi.util.EncryptionUtil;
+import com.hyperativa.cardapi.util.ExternalIdGenerator;
 import com.hyperativa.cardapi.util.FileParserUtil;
+import com.hyperativa.cardapi.util.UuidV7Generator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -26,73 +44,128 @@ class CardServiceTest {
     @Mock
     private CardRepository cardRepository;
 
+    @Mock
+    private CardInsertStore cardInserts;
+
     @Mock
     private EncryptionUtil encryptionUtil;
 
     @Mock
     private FileParserUtil fileParserUtil;
 
+    @Mock
+    private CardIndexService cardIndex;
+
+    @Spy
+    private CardShardRouter shardRouter = new CardShardRouter(new ShardingProperties());
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    private ReplicaProperties replicaProperties = new ReplicaProperties();
+
+    @Spy
+    private ExternalIdGenerator externalIdGenerator = new UuidV7Generator();
+
+    @Spy
+    private CardLookupCoalescer lookupCoalescer = new CardLookupCoalescer(new SimpleMeterRegistry());
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private CardService cardService;
 
     @Test
-    @DisplayName("Should register a new card successfully")
+    @DisplayName("Should register a new card with a single insert")
     void shouldCreateNewCard() {
         CardRequest request = new CardRequest();
         request.setCardNumber("4456897999999999");
 
         when(encryptionUtil.hash(anyString())).thenReturn("abc123hash");
         when(encryptionUtil.encrypt(anyString())).thenReturn("encrypted_data");
-        when(cardRepository.findByCardHash("abc123hash")).thenReturn(Optional.empty());
-        when(cardRepository.save(any(Card.class))).thenAnswer(inv -> {
-            Card card = inv.getArgument(0);
-            card.setId(1L);
-            return card;
-        });
+        when(cardInserts.insertIfAbsent(any(Card.class))).thenReturn(true);
 
         CardResponse response = cardService.createCard(request);
 
         assertNotNull(response);
         assertNotNull(response.getExternalId());
         assertEquals("Card registered successfully", response.getMessage());
-        verify(cardRepository).save(any(Card.class));
+        verify(cardInserts).insertIfAbsent(any(Card.class));
+        verifyNoInteractions(cardRepository);
     }
 
     @Test
-    @DisplayName("Should return existing card if already registered")
+    @DisplayName("Should return existing card when the insert finds it registered")
     void shouldReturnExistingCard() {
         CardRequest request = new CardRequest();
         request.setCardNumber("4456897999999999");
 
-        Card existingCard = Card.builder()
-                .id(1L)
-                .externalId("uuid-123")
-                .cardHash("abc123hash")
-                .cardNumberEncrypted("encrypted")
-                .build();
-
         when(encryptionUtil.hash(anyString())).thenReturn("abc123hash");
-        when(cardRepository.findByCardHash("abc123hash")).thenReturn(Optional.of(existingCard));
+        when(encryptionUtil.encrypt(anyString())).thenReturn("encrypted_data");
+        when(cardInserts.insertIfAbsent(any(Card.class))).thenReturn(false);
+        when(cardRepository.findExternalIdByCardHash("abc123hash")).thenReturn(Optional.of("uuid-123"));
 
         CardResponse response = cardService.createCard(request);
 
         assertNotNull(response);
         assertEquals("uuid-123", response.getExternalId());
         assertEquals("Card already registered", response.getMessage());
-        verify(cardRepository, never()).save(any());
+        verify(cardIndex).record("abc123hash", "uuid-123");
+    }
+
+    @Test
+    @DisplayName("Should answer a card in the index without encrypting or inserting it")
+    void shouldReturnIndexedCardWithoutInsert() {
+        CardRequest request = new CardRequest();
+        request.setCardNumber("4456897999999999");
+
+        when(encryptionUtil.hash(anyString())).thenReturn("abc123hash");
+        when(cardIndex.find("abc123hash")).thenReturn(Optional.of("uuid-123"));
+
+        CardResponse response = cardService.createCard(request);
+
+        assertEquals("uuid-123", response.getExternalId());
+        assertEquals("Card already registered", response.getMessage());
+        verify(encryptionUtil, never()).encrypt(anyString());
+        verifyNoInteractions(cardInserts, cardRepository);
+    }
+
+    @Test
+    @DisplayName("Should fail when the insert is skipped but no card owns the hash")
+    void shouldFailWhenSkippedInsertHasNoCard() {
+        CardRequest request = new CardRequest();
+        request.setCardNumber("4456897999999999");
+
+        when(encryptionUtil.hash(anyString())).thenReturn("abc123hash");
+        when(encryptionUtil.encrypt(anyString())).thenReturn("encrypted_data");
+        when(cardInserts.insertIfAbsent(any(Card.class))).thenReturn(false);
+        when(cardRepository.findExternalIdByCardHash("abc123hash")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> cardService.createCard(request));
+    }
+
+    @Test
+    @DisplayName("Should report a failed insert with its line and a fixed message")
+    void shouldReportPersistFailureWithoutDetails() {
+        when(encryptionUtil.encrypt(anyString())).thenReturn("encrypted_data");
+        when(cardRepository.save(any(Card.class)))
+                .thenThrow(new DataIntegrityViolationException("insert into cards values ('4456897999999999')"));
+        List<BatchError> errors = new ArrayList<>();
+
+        Integer saved = ReflectionTestUtils.invokeMethod(cardService, "persistCards", List.of("4456897999999999"),
+                List.of("abc123hash"), List.of(7), "LOTE0001", (Consumer<BatchError>) errors::add);
+
+        assertEquals(0, saved);
+        assertEquals(List.of(new BatchError(7, Code.PERSIST_FAILED, "cardNumber", "insert failed")), errors);
     }
 
     @Test
     @DisplayName("Should find card by number")
     void shouldFindCardByNumber() {
-        Card card = Card.builder()
-                .id(1L)
-                .externalId("uuid-456")
-                .cardHash("hash123")
-                .build();
-
         when(encryptionUtil.hash("4456897999999999")).thenReturn("hash123");
-        when(cardRepository.findByCardHash("hash123")).thenReturn(Optional.of(card));
+        when(cardRepository.findExternalIdByCardHash("hash123")).thenReturn(Optional.of("uuid-456"));
 
         Optional<CardResponse> result = cardService.findByCardNumber("4456897999999999");
 
@@ -104,10 +177,39 @@ class CardServiceTest {
     @DisplayName("Should return empty when card not found")
     void shouldReturnEmptyWhenNotFound() {
         when(encryptionUtil.hash("0000000000000000")).thenReturn("notfoundhash");
-        when(cardRepository.findByCardHash("notfoundhash")).thenReturn(Optional.empty());
+        when(cardRepository.findExternalIdByCardHash("notfoundhash")).thenReturn(Optional.empty());
 
         Optional<CardResponse> result = cardService.findByCardNumber("0000000000000000");
 
         assertFalse(result.isPresent());
     }
+
+    @Test
+    @DisplayName("Should re-check primary when the replica misses")
+    void shouldFallBackToPrimaryOnReplicaMiss() {
+        replicaProperties.setEnabled(true);
+        when(encryptionUtil.hash("4456897999999999")).thenReturn("laggedhash");
+        when(cardRepository.findExternalIdByCardHash("laggedhash"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of("uuid-789"));
+
+        Optional<CardResponse> result = cardService.findByCardNumber("4456897999999999");
+
+        assertTrue(result.isPresent());
+        assertEquals("uuid-789", result.get().getExternalId());
+        verify(cardRepository, times(2)).findExternalIdByCardHash("laggedhash");
+    }
+
+    @Test
+    @DisplayName("Should answer from the card index without querying the database")
+    void shouldFindCardFromIndex() {
+        when(encryptionUtil.hash("4456897999999999")).thenReturn("indexedhash");
+        when(cardIndex.find("indexedhash")).thenReturn(Optional.of("uuid-999"));
+
+        Optional<CardResponse> result = cardService.findByCardNumber("4456897999999999");
+
+        assertTrue(result.isPresent());
+        assertEquals("uuid-999", result.get().getExternalId());
+        verifyNoInteractions(cardRepository);
+    }
 }
@@ -0,0 +1,76 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.dto.CardRequest;
+import com.hyperativa.cardapi.dto.CardResponse;
+import com.hyperativa.cardapi.repository.CardRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:writecombining;DB_CLOSE_DELAY=-1",
+        "app.card-write-combining.enabled=true",
+        "app.card-write-combining.window-ms=20",
+        "app.card-write-combining.max-batch-size=16"
+})
+class CardWriteCombiningTest {
+
+    private static final int THREADS = 32;
+    private static final int DISTINCT_CARDS = 8;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Test
+    @DisplayName("Combined registrations should give each caller the identifier of its own card")
+    void shouldCompleteEachCallerWithItsOwnCard() throws Exception {
+        String existing = "6666000000000000";
+        String existingId = cardService.createCard(new CardRequest(existing)).getExternalId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(THREADS);
+            List<Future<CardResponse>> futures = new ArrayList<>();
+            List<String> cardNumbers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                String cardNumber = String.format("666600000000%04d", t % DISTINCT_CARDS);
+                cardNumbers.add(cardNumber);
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    return cardService.createCard(new CardRequest(cardNumber));
+                }));
+            }
+
+            Map<String, List<CardResponse>> responsesByCard = new ConcurrentHashMap<>();
+            for (int t = 0; t < THREADS; t++) {
+                responsesByCard.computeIfAbsent(cardNumbers.get(t), card -> new ArrayList<>())
+                        .add(futures.get(t).get(30, TimeUnit.SECONDS));
+            }
+
+            assertEquals(DISTINCT_CARDS, responsesByCard.size());
+            responsesByCard.forEach((cardNumber, responses) -> {
+                assertEquals(1, responses.stream().map(CardResponse::getExternalId).collect(Collectors.toSet()).size());
+                String externalId = responses.get(0).getExternalId();
+                assertEquals(externalId, cardService.findByCardNumber(cardNumber).orElseThrow().getExternalId());
+                if (cardNumber.equals(existing)) {
+                    assertEquals(existingId, externalId);
+                }
+            });
+            assertEquals(DISTINCT_CARDS, cardRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.dto.CardRequest;
+import com.hyperativa.cardapi.dto.KeyStatusResponse;
+import com.hyperativa.cardapi.entity.Card;
+import com.hyperativa.cardapi.exception.KeyRotationInProgressException;
+import com.hyperativa.cardapi.repository.CardRepository;
+import com.hyperativa.cardapi.util.EncryptionUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:keyrotation;DB_CLOSE_DELAY=-1",
+        "app.encryption.reencryption.chunk-size=2",
+        "app.encryption.reencryption.pause-ms=0"
+})
+class DataKeyRotationTest {
+
+    private static final List<String> CARDS = List.of(
+            "4456897912349999", "4456897956789999", "4456897943219999", "4456897922969999", "4456897998199999");
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private DataKeyService dataKeyService;
+
+    @Autowired
+    private CardReEncryptionJob reEncryptionJob;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+
+    @Test
+    @DisplayName("Rotation should re-encrypt every stored card under the new key")
+    void shouldReEncryptAllCardsAfterRotation() throws Exception {
+        CARDS.forEach(card -> cardService.createCard(new CardRequest(card)));
+        int previousKeyId = encryptionUtil.getActiveKeyId();
+
+        KeyStatusResponse status = dataKeyService.rotate();
+        assertTrue(status.getActiveKeyId() > previousKeyId);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (reEncryptionJob.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertFalse(reEncryptionJob.isRunning());
+
+        for (String cardNumber : CARDS) {
+            Card card = findCard(cardNumber);
+            assertEquals(status.getActiveKeyId(), encryptionUtil.keyIdOf(card.getCardNumberEncrypted()));
+            assertEquals(cardNumber, encryptionUtil.decrypt(card.getCardNumberEncrypted()));
+            assertTrue(cardService.findByCardNumber(cardNumber).isPresent());
+        }
+        assertEquals(CARDS.size(), dataKeyService.getStatus().getReEncrypted());
+    }
+
+    @Test
+    @DisplayName("Rotation should be rejected while a re-encryption is still running")
+    void shouldRejectRotationWhileReEncrypting() {
+        AtomicBoolean running = (AtomicBoolean) ReflectionTestUtils.getField(reEncryptionJob, "running");
+        int activeKeyId = encryptionUtil.getActiveKeyId();
+        running.set(true);
+        try {
+            assertThrows(KeyRotationInProgressException.class, dataKeyService::rotate);
+            assertEquals(activeKeyId, encryptionUtil.getActiveKeyId());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Card findCard(String cardNumber) {
+        String hash = encryptionUtil.hash(cardNumber);
+        return cardRepository.findAll().stream()
+                .filter(card -> hash.equals(card.getCardHash()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,83 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.dto.BatchUploadResponse;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pipelineevents;DB_CLOSE_DELAY=-1",
+        "app.batch.stream-chunk-size=2"
+})
+class PipelineEventsTest {
+
+    private static final String BATCH = """
+            DESAFIO-HYPERATIVA           20180524JFR00001000005
+            C1     4456897911110001
+            C2     4456897911110002
+            C3     4456897911110002
+            C4     4456897911110003
+            C5     123
+            LOTE0001000005
+            """;
+
+    @Autowired
+    private CardService cardService;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("A batch and a lookup should emit one event per stage and chunk")
+    void shouldRecordPipelineStages() throws Exception {
+        Path file = tempDir.resolve("pipeline.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.hyperativa.cardapi.*");
+            recording.start();
+
+            BatchUploadResponse response = cardService.uploadBatch(
+                    new ByteArrayInputStream(BATCH.getBytes(StandardCharsets.UTF_8)), null, "admin");
+            assertEquals(4, response.getDuplicates().getFirst().line());
+            cardService.findByCardNumber("4456897911110001");
+
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+        List<RecordedEvent> parse = ofType(events, "BatchParse");
+        assertEquals(2, parse.size());
+        assertEquals("JFR00001", parse.getFirst().getString("batchId"));
+        assertEquals(2, parse.getFirst().getInt("cards"));
+        assertEquals(1, parse.get(1).getInt("invalidLines"));
+
+        assertEquals(2, ofType(events, "BatchHash").size());
+        // The in-file duplicate is dropped by the parser and never reaches the database stages
+        assertEquals(0, ofType(events, "BatchDedupLookup").stream().mapToInt(e -> e.getInt("duplicates")).sum());
+        assertEquals(3, ofType(events, "BatchEncrypt").stream().mapToInt(e -> e.getInt("cards")).sum());
+        assertEquals(0, ofType(events, "BatchInsert").stream().mapToInt(e -> e.getInt("failures")).sum());
+
+        RecordedEvent lookup = ofType(events, "CardLookup").getFirst();
+        assertEquals("database", lookup.getString("source"));
+        assertTrue(lookup.getBoolean("found"));
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.hyperativa.cardapi." + name))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .toList();
+    }
+}
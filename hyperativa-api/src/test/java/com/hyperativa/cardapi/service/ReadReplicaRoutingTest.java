@@ -0,0 +1,91 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.dto.CardRequest;
+import com.hyperativa.cardapi.dto.CardResponse;
+import com.hyperativa.cardapi.util.EncryptionUtil;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicaprimary;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "app.replica.enabled=true",
+        "app.replica.datasource.jdbc-url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "app.replica.datasource.username=sa",
+        "app.replica.datasource.maximum-pool-size=8"
+})
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    @BeforeEach
+    void createReplicaSchema() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/shard-schema.sql")).execute(replicaDataSource);
+    }
+
+    @Test
+    @DisplayName("Primary and replica pools should be sized independently")
+    void shouldConfigureSeparatePools() {
+        assertEquals("primary", primaryDataSource.getPoolName());
+        assertEquals("replica", replicaDataSource.getPoolName());
+        assertEquals(4, primaryDataSource.getMaximumPoolSize());
+        assertEquals(8, replicaDataSource.getMaximumPoolSize());
+    }
+
+    @Test
+    @DisplayName("Lookups should be served by the replica")
+    void shouldReadFromReplica() {
+        String cardNumber = "4111000011110001";
+        new JdbcTemplate(replicaDataSource).update(
+                "INSERT INTO cards (external_id, card_number_encrypted, card_hash, created_at) VALUES (?, ?, ?, ?)",
+                "replica-only-id", "n/a", encryptionUtil.hash(cardNumber), LocalDateTime.now());
+
+        Optional<CardResponse> found = cardService.findByCardNumber(cardNumber);
+
+        assertTrue(found.isPresent());
+        assertEquals("replica-only-id", found.get().getExternalId());
+    }
+
+    @Test
+    @DisplayName("A card should be found right after registration even if the replica lags")
+    void shouldReadYourWrites() {
+        String cardNumber = "4111000011110002";
+
+        CardResponse created = cardService.createCard(new CardRequest(cardNumber));
+        Optional<CardResponse> found = cardService.findByCardNumber(cardNumber);
+        CardResponse again = cardService.createCard(new CardRequest(cardNumber));
+
+        assertTrue(found.isPresent());
+        assertEquals(created.getExternalId(), found.get().getExternalId());
+        assertEquals(created.getExternalId(), again.getExternalId());
+
+        Integer replicaRows = new JdbcTemplate(replicaDataSource).queryForObject(
+                "SELECT COUNT(*) FROM cards WHERE card_hash = ?", Integer.class, encryptionUtil.hash(cardNumber));
+        assertEquals(0, replicaRows);
+    }
+}
@@ -0,0 +1,88 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.entity.RequestLog;
+import com.hyperativa.cardapi.entity.RequestLogRollup;
+import com.hyperativa.cardapi.repository.RequestLogRollupRepository;
+import com.hyperativa.cardapi.repository.RequestLogStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:requestlogs;DB_CLOSE_DELAY=-1",
+        "app.request-log.maintenance.enabled=false",
+        "app.request-log.retention-days=3"
+})
+class RequestLogMaintenanceJobTest {
+
+    @Autowired
+    private RequestLogStore requestLogStore;
+
+    @Autowired
+    private RequestLogRollupRepository rollupRepository;
+
+    @Autowired
+    private RequestLogMaintenanceJob maintenanceJob;
+
+    @Test
+    @DisplayName("Should roll up closed minutes and drop segments past retention")
+    void shouldRollUpAndDropExpiredSegments() {
+        LocalDateTime old = LocalDateTime.now().minusDays(10).truncatedTo(ChronoUnit.DAYS).plusHours(12);
+        LocalDateTime yesterday = old.plusDays(9);
+        LocalDateTime now = LocalDateTime.now();
+
+        requestLogStore.save(log("/api/v1/cards", "admin", 201, 10, old));
+        requestLogStore.save(log("/api/v1/cards", "admin", 201, 30, yesterday.plusSeconds(5)));
+        requestLogStore.save(log("/api/v1/cards", "admin", 400, 20, yesterday.plusSeconds(40)));
+        requestLogStore.save(log("/api/v1/cards/search", null, 500, 5, yesterday.plusSeconds(50)));
+        requestLogStore.save(log("/api/v1/cards", "admin", 201, 10, now));
+
+        maintenanceJob.run();
+
+        List<LocalDate> segments = requestLogStore.listSegments();
+        assertFalse(segments.contains(old.toLocalDate()));
+        assertTrue(segments.contains(yesterday.toLocalDate()));
+        assertTrue(segments.contains(now.toLocalDate()));
+
+        List<RequestLogRollup> rollups = rollupRepository.findAll();
+        assertEquals(3, rollups.size());
+
+        RequestLogRollup cards = rollups.stream()
+                .filter(r -> r.getBucketMinute().equals(yesterday) && "/api/v1/cards".equals(r.getEndpoint()))
+                .findFirst().orElseThrow();
+        assertEquals(2, cards.getRequestCount());
+        assertEquals(1, cards.getClientErrorCount());
+        assertEquals(50, cards.getTotalDurationMs());
+        assertEquals(30, cards.getMaxDurationMs());
+
+        RequestLogRollup search = rollups.stream()
+                .filter(r -> "/api/v1/cards/search".equals(r.getEndpoint()))
+                .findFirst().orElseThrow();
+        assertNull(search.getUsername());
+        assertEquals(1, search.getServerErrorCount());
+
+        // A second run neither duplicates closed minutes nor rolls up the current one
+        maintenanceJob.run();
+        assertEquals(3, rollupRepository.count());
+    }
+
+    private static RequestLog log(String endpoint, String username, int status, long durationMs, LocalDateTime at) {
+        return RequestLog.builder()
+                .method("POST")
+                .uri(endpoint)
+                .endpoint(endpoint)
+                .username(username)
+                .statusCode(status)
+                .durationMs(durationMs)
+                .createdAt(at)
+                .build();
+    }
+}
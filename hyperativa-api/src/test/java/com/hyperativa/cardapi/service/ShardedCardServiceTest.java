@@ -0,0 +1,114 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.config.ShardRoutingDataSource;
+import com.hyperativa.cardapi.dto.BatchUploadResponse;
+import com.hyperativa.cardapi.dto.CardRequest;
+import com.hyperativa.cardapi.dto.CardResponse;
+import com.hyperativa.cardapi.repository.CardShardRouter;
+import com.hyperativa.cardapi.util.EncryptionUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shardprimary;DB_CLOSE_DELAY=-1",
+        "app.sharding.enabled=true",
+        "app.sharding.shards[0].url=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1",
+        "app.sharding.shards[0].username=sa",
+        "app.sharding.shards[1].url=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+        "app.sharding.shards[1].username=sa",
+        "app.batch.parallel-parse-threshold-bytes=0"
+})
+class ShardedCardServiceTest {
+
+    private static final List<String> CARDS = List.of(
+            "4456897912349999", "4456897956789999", "4456897943219999",
+            "4456897922969999", "4456897998199999", "4456897912999999");
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardShardRouter shardRouter;
+
+    @Autowired
+    private ShardRoutingDataSource dataSource;
+
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+
+    @Test
+    @DisplayName("Batch upload should write each card only to the shard owning its hash")
+    void shouldRouteBatchWritesByHash() {
+        StringBuilder content = new StringBuilder("DESAFIO-HYPERATIVA           20180524LOTE0002000006\n");
+        for (int i = 0; i < CARDS.size(); i++) {
+            content.append(String.format("C%-6d%s%n", i + 1, CARDS.get(i)));
+        }
+        content.append("LOTE0002000006\n");
+
+        BatchUploadResponse response = uploadBatch(content.toString());
+        assertEquals(CARDS.size(), response.getTotalSuccess());
+
+        int[] expectedPerShard = new int[shardRouter.shardCount()];
+        for (String card : CARDS) {
+            String hash = encryptionUtil.hash(card);
+            int owner = shardRouter.shardFor(hash);
+            expectedPerShard[owner]++;
+
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                Integer rows = shardJdbc(shard).queryForObject(
+                        "SELECT COUNT(*) FROM cards WHERE card_hash = ?", Integer.class, hash);
+                assertEquals(shard == owner ? 1 : 0, rows);
+            }
+            assertTrue(cardService.findByCardNumber(card).isPresent());
+        }
+
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            Integer rows = shardJdbc(shard).queryForObject(
+                    "SELECT COUNT(*) FROM cards WHERE batch_id = 'LOTE0002'", Integer.class);
+            assertEquals(expectedPerShard[shard], rows);
+        }
+    }
+
+    @Test
+    @DisplayName("Single registration and lookup should use the owning shard")
+    void shouldRegisterAndFindOnOwningShard() {
+        String cardNumber = "5555000099990001";
+
+        CardResponse created = cardService.createCard(new CardRequest(cardNumber));
+        CardResponse again = cardService.createCard(new CardRequest(cardNumber));
+        Optional<CardResponse> found = cardService.findByCardNumber(cardNumber);
+
+        assertEquals(created.getExternalId(), again.getExternalId());
+        assertEquals("Card already registered", again.getMessage());
+        assertTrue(found.isPresent());
+        assertEquals(created.getExternalId(), found.get().getExternalId());
+
+        int owner = shardRouter.shardFor(encryptionUtil.hash(cardNumber));
+        String externalId = shardJdbc(owner).queryForObject(
+                "SELECT external_id FROM cards WHERE card_hash = ?", String.class, encryptionUtil.hash(cardNumber));
+        assertEquals(created.getExternalId(), externalId);
+    }
+
+    private BatchUploadResponse uploadBatch(String content) {
+        try {
+            return cardService.uploadBatch(new MockMultipartFile(
+                    "file", "cards.txt", "text/plain", content.getBytes(StandardCharsets.UTF_8)), "admin");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JdbcTemplate shardJdbc(int shard) {
+        return new JdbcTemplate(dataSource.getShard(shard));
+    }
+}
@@ -0,0 +1,63 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.dto.AuthRequest;
+import com.hyperativa.cardapi.dto.AuthResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * CPU time per access token issued: password login (BCrypt) vs refresh token rotation.
+ * <p>
+ * Only runs on demand:
+ * <pre>
+ * mvn test -Dtest=TokenIssuanceBenchmarkTest -Dbenchmark.tokens=200
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.tokens", matches = "\\d+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tokenbench;DB_CLOSE_DELAY=-1",
+        "logging.level.com.hyperativa.cardapi=WARN"
+})
+class TokenIssuanceBenchmarkTest {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private AuthService authService;
+
+    @Test
+    @DisplayName("Benchmark CPU per token: login vs refresh")
+    void benchmarkTokenIssuance() {
+        int tokens = Integer.getInteger("benchmark.tokens");
+        AuthRequest credentials = new AuthRequest("admin", "admin123");
+
+        // Warm-up
+        String refreshToken = authService.authenticate(credentials).getRefreshToken();
+        for (int i = 0; i < 20; i++) {
+            refreshToken = authService.refresh(refreshToken).getRefreshToken();
+        }
+
+        long start = THREADS.getCurrentThreadCpuTime();
+        for (int i = 0; i < tokens; i++) {
+            authService.authenticate(credentials);
+        }
+        long loginCpu = THREADS.getCurrentThreadCpuTime() - start;
+
+        start = THREADS.getCurrentThreadCpuTime();
+        for (int i = 0; i < tokens; i++) {
+            AuthResponse response = authService.refresh(refreshToken);
+            refreshToken = response.getRefreshToken();
+        }
+        long refreshCpu = THREADS.getCurrentThreadCpuTime() - start;
+
+        System.out.printf("login   %,d tokens, %.3f ms CPU per token%n", tokens, loginCpu / 1e6 / tokens);
+        System.out.printf("refresh %,d tokens, %.3f ms CPU per token (%.0fx less)%n",
+                tokens, refreshCpu / 1e6 / tokens, (double) loginCpu / Math.max(refreshCpu, 1));
+    }
+}
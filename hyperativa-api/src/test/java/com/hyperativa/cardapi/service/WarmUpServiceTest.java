@@ -0,0 +1,57 @@
+package com.hyperativa.cardapi.service;
+
+import com.hyperativa.cardapi.dto.CardRequest;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:warmup;DB_CLOSE_DELAY=-1",
+        "app.warm-up.enabled=true",
+        "app.warm-up.iterations=200",
+        "app.warm-up.parser-lines=2000",
+        "app.warm-up.preload-cards=10"
+})
+class WarmUpServiceTest {
+
+    @Autowired
+    private WarmUpService warmUpService;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardLookupCoalescer lookupCoalescer;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Warm-up should open the pool, run the workloads and preload the latest cards")
+    void shouldWarmUpBeforeReady() throws Exception {
+        // Ran once at startup, before the context was handed to the test
+        assertTrue(warmUpService.getDurationMs() >= 0);
+        assertNotNull(meterRegistry.find("application.warm-up.time").timeGauge());
+
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        assertTrue(pool.getHikariPoolMXBean().getTotalConnections() >= pool.getMinimumIdle());
+
+        cardService.createCard(new CardRequest("4456897911112222"));
+        cardService.createCard(new CardRequest("4456897933334444"));
+        double executed = lookupCoalescer.getExecutedCount();
+
+        warmUpService.run(null);
+
+        assertEquals(executed + 2, lookupCoalescer.getExecutedCount());
+    }
+}
@@ -0,0 +1,64 @@
+package com.hyperativa.cardapi.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyperativa.cardapi.dto.BatchError;
+import com.hyperativa.cardapi.dto.BatchError.Code;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchErrorReportTest {
+
+    private static final String INVALID = "invalid card number (length 1, expected 13 to 19 digits)";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should keep a capped sample and counts while writing every error to the file")
+    void shouldBoundSampleAndSpoolEverything() throws Exception {
+        Path file = directory.resolve("report.ndjson");
+        try (BatchErrorReport report = new BatchErrorReport("report", file, 3, objectMapper)) {
+            for (int line = 2; line < 1002; line++) {
+                report.accept(new BatchError(line, Code.INVALID_CARD_NUMBER, "cardNumber", INVALID));
+            }
+            report.accept(new BatchError(1002, Code.DUPLICATE, "cardNumber", "duplicate of line 2"));
+            report.accept(BatchError.of(Code.READ_FAILED, "Error processing file: reset"));
+
+            assertEquals("report", report.getId());
+            assertEquals(1001, report.getErrorCount());
+            assertEquals(1, report.getDuplicateCount());
+            assertEquals(Map.of(Code.INVALID_CARD_NUMBER, 1000L, Code.DUPLICATE, 1L, Code.READ_FAILED, 1L),
+                    report.getCounts());
+            assertEquals(List.of(2, 3, 4), report.getErrors().stream().map(BatchError::line).toList());
+            assertEquals(1002, report.getDuplicates().getFirst().line());
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1002, lines.size());
+        assertEquals(new BatchError(2, Code.INVALID_CARD_NUMBER, "cardNumber", INVALID),
+                objectMapper.readValue(lines.getFirst(), BatchError.class));
+        assertEquals("{\"code\":\"READ_FAILED\",\"message\":\"Error processing file: reset\"}", lines.getLast());
+    }
+
+    @Test
+    @DisplayName("Should not create a file nor expose an id when nothing was reported")
+    void shouldStayEmptyWithoutErrors() throws Exception {
+        Path file = directory.resolve("clean.ndjson");
+        try (BatchErrorReport report = new BatchErrorReport("clean", file, 3, objectMapper)) {
+            assertNull(report.getId());
+            assertEquals(0, report.getErrorCount());
+            assertTrue(report.getErrors().isEmpty());
+        }
+        assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,99 @@
+package com.hyperativa.cardapi.util;
+
+import com.hyperativa.cardapi.util.CompressedInput.Encoding;
+import io.airlift.compress.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedInputTest {
+
+    private static final byte[] CONTENT = "C1     4456897912349999\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    @DisplayName("Should detect and decompress gzip from magic bytes")
+    void shouldDecompressGzip() throws IOException {
+        byte[] gzip = compress(GZIPOutputStream::new);
+
+        try (CompressedInput input = CompressedInput.open(new ByteArrayInputStream(gzip), null, Long.MAX_VALUE)) {
+            assertEquals(Encoding.GZIP, input.encoding());
+            assertArrayEquals(CONTENT, input.stream().readAllBytes());
+            assertEquals(gzip.length, input.compressedBytes());
+            assertEquals(CONTENT.length, input.uncompressedBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Should decompress zstd named by Content-Encoding")
+    void shouldDecompressZstd() throws IOException {
+        byte[] zstd = compress(ZstdOutputStream::new);
+
+        try (CompressedInput input = CompressedInput.open(new ByteArrayInputStream(zstd), "zstd", Long.MAX_VALUE)) {
+            assertEquals(Encoding.ZSTD, input.encoding());
+            assertArrayEquals(CONTENT, input.stream().readAllBytes());
+            assertTrue(input.compressedBytes() < input.uncompressedBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Should pass plain text through and reject unknown encodings")
+    void shouldPassThroughPlainText() throws IOException {
+        try (CompressedInput input = CompressedInput.open(new ByteArrayInputStream(CONTENT), null, Long.MAX_VALUE)) {
+            assertEquals(Encoding.IDENTITY, input.encoding());
+            assertArrayEquals(CONTENT, input.stream().readAllBytes());
+            assertEquals(CONTENT.length, input.compressedBytes());
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> CompressedInput.open(new ByteArrayInputStream(CONTENT), "br", Long.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class,
+                () -> CompressedInput.open(new ByteArrayInputStream(CONTENT), "gzip", Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Should stop reading past the decompressed size limit")
+    void shouldEnforceSizeLimit() throws IOException {
+        byte[] gzip = compress(GZIPOutputStream::new);
+
+        try (CompressedInput input = CompressedInput.open(new ByteArrayInputStream(gzip), null, 1000)) {
+            assertThrows(IOException.class, () -> input.stream().readAllBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Should report corrupt zstd data as an IOException")
+    void shouldRejectCorruptZstd() throws IOException {
+        byte[] zstd = compress(ZstdOutputStream::new);
+        // Garble the compressed block but keep the frame intact, so the decoder fails with
+        // MalformedInputException rather than running out of input
+        for (int i = zstd.length / 2; i < zstd.length / 2 + 8; i++) {
+            zstd[i] ^= (byte) 0x5A;
+        }
+
+        try (CompressedInput input = CompressedInput.open(new ByteArrayInputStream(zstd), null, Long.MAX_VALUE)) {
+            assertEquals(Encoding.ZSTD, input.encoding());
+            IOException e = assertThrows(IOException.class, () -> input.stream().readAllBytes());
+            assertTrue(e.getMessage().startsWith("Body is not valid zstd data"));
+        }
+    }
+
+    private byte[] compress(Compressor compressor) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = compressor.wrap(bytes)) {
+            out.write(CONTENT);
+        }
+        return bytes.toByteArray();
+    }
+
+    private interface Compressor {
+        OutputStream wrap(OutputStream out) throws IOException;
+    }
+}
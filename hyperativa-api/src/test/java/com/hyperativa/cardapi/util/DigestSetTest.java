@@ -0,0 +1,73 @@
+package com.hyperativa.cardapi.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DigestSetTest {
+
+    @Test
+    @DisplayName("Should add new digests and return the first line of repeated ones")
+    void shouldDetectRepeatedDigests() {
+        DigestSet set = new DigestSet(4, 100);
+
+        assertEquals(0, set.putIfAbsent(digest(1), 0, 2));
+        assertEquals(0, set.putIfAbsent(digest(2), 0, 3));
+        assertEquals(2, set.putIfAbsent(digest(1), 0, 4));
+        assertEquals(3, set.putIfAbsent(digest(2), 0, 7));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    @DisplayName("Should grow past the initial capacity keeping every digest")
+    void shouldResize() {
+        DigestSet set = new DigestSet(16, 1_000_000);
+        for (int i = 1; i <= 50_000; i++) {
+            assertEquals(0, set.putIfAbsent(digest(i), 0, i));
+        }
+        for (int i = 1; i <= 50_000; i++) {
+            assertEquals(i, set.putIfAbsent(digest(i), 0, i + 50_000));
+        }
+        assertEquals(50_000, set.size());
+    }
+
+    @Test
+    @DisplayName("Should read digests at an offset and tell apart digests sharing the first bytes")
+    void shouldCompareWholeDigest() {
+        byte[] digests = new byte[2 * DigestSet.DIGEST_BYTES];
+        System.arraycopy(digest(1), 0, digests, 0, DigestSet.DIGEST_BYTES);
+        System.arraycopy(digest(1), 0, digests, DigestSet.DIGEST_BYTES, DigestSet.DIGEST_BYTES);
+        digests[digests.length - 1] ^= 1;
+
+        DigestSet set = new DigestSet(16, 100);
+        assertEquals(0, set.putIfAbsent(digests, 0, 1));
+        assertEquals(0, set.putIfAbsent(digests, DigestSet.DIGEST_BYTES, 2));
+        assertEquals(1, set.putIfAbsent(digest(1), 0, 3));
+    }
+
+    @Test
+    @DisplayName("Should stop adding at max entries but still find the digests it holds")
+    void shouldReportFull() {
+        DigestSet set = new DigestSet(16, 3);
+        for (int i = 1; i <= 3; i++) {
+            set.putIfAbsent(digest(i), 0, i);
+        }
+
+        assertEquals(DigestSet.FULL, set.putIfAbsent(digest(4), 0, 4));
+        assertEquals(2, set.putIfAbsent(digest(2), 0, 5));
+        assertEquals(3, set.size());
+    }
+
+    private static byte[] digest(int i) {
+        try {
+            return MessageDigest.getInstance("SHA-256")
+                    .digest(ByteBuffer.allocate(4).putInt(i).array());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
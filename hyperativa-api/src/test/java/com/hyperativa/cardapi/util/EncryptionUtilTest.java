@@ -60,4 +60,48 @@ class EncryptionUtilTest {
 
         assertNotEquals(hash1, hash2);
     }
+
+    @Test
+    @DisplayName("Ciphertext should carry the active data key id")
+    void shouldPrefixCiphertextWithActiveKeyId() {
+        encryptionUtil.installKey(7, encryptionUtil.generateWrappedKey());
+        encryptionUtil.activateKey(7);
+
+        String encrypted = encryptionUtil.encrypt("4456897999999999");
+
+        assertTrue(encrypted.startsWith("k7:"));
+        assertEquals(7, encryptionUtil.keyIdOf(encrypted));
+        assertEquals("4456897999999999", encryptionUtil.decrypt(encrypted));
+    }
+
+    @Test
+    @DisplayName("Ciphertexts under older keys should stay readable after rotation")
+    void shouldDecryptAcrossRotations() {
+        String legacy = encryptionUtil.encrypt("4456897999999999");
+
+        encryptionUtil.installKey(1, encryptionUtil.generateWrappedKey());
+        encryptionUtil.activateKey(1);
+        String underKey1 = encryptionUtil.encrypt("4456897922969999");
+
+        encryptionUtil.installKey(2, encryptionUtil.generateWrappedKey());
+        encryptionUtil.activateKey(2);
+
+        assertEquals(EncryptionUtil.MASTER_KEY_ID, encryptionUtil.keyIdOf(legacy));
+        assertEquals("4456897999999999", encryptionUtil.decrypt(legacy));
+        assertEquals("4456897922969999", encryptionUtil.decrypt(underKey1));
+    }
+
+    @Test
+    @DisplayName("Unknown key ids should be loaded through the wrapped key loader")
+    void shouldLoadUnknownKeysOnDemand() {
+        EncryptionUtil otherNode = new EncryptionUtil("TestSecretKey2024!!");
+        byte[] wrappedKey = otherNode.generateWrappedKey();
+        otherNode.installKey(3, wrappedKey);
+        otherNode.activateKey(3);
+        String encrypted = otherNode.encrypt("4456897999999999");
+
+        encryptionUtil.setWrappedKeyLoader(keyId -> keyId == 3 ? wrappedKey : null);
+
+        assertEquals("4456897999999999", encryptionUtil.decrypt(encrypted));
+    }
 }
@@ -0,0 +1,70 @@
+package com.hyperativa.cardapi.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Insert throughput into a table with a unique external_id index, random vs time-ordered ids.
+ * <p>
+ * Only runs on demand, e.g. against MySQL with 10M rows:
+ * <pre>
+ * mvn test -Dtest=ExternalIdInsertBenchmarkTest -Dbenchmark.rows=10000000 \
+ *     -Dbenchmark.jdbc-url=jdbc:mysql://localhost:3306/benchdb -Dbenchmark.username=root -Dbenchmark.password=root
+ * </pre>
+ * Without a jdbc-url it uses an in-memory H2 database. Only that setup has been measured so far,
+ * with 1M rows: random 45k rows/s vs uuid7 126k rows/s. The 10M-row MySQL run is still to do.
+ */
+@EnabledIfSystemProperty(named = "benchmark.rows", matches = "\\d+")
+class ExternalIdInsertBenchmarkTest {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Test
+    @DisplayName("Benchmark inserts with random and time-ordered external ids")
+    void benchmarkInserts() throws Exception {
+        long rows = Long.getLong("benchmark.rows");
+        run("random", new RandomUuidGenerator(), rows);
+        run("uuid7", new UuidV7Generator(), rows);
+    }
+
+    private void run(String name, ExternalIdGenerator generator, long rows) throws Exception {
+        String url = System.getProperty("benchmark.jdbc-url", "jdbc:h2:mem:bench_" + name);
+        try (Connection connection = DriverManager.getConnection(url,
+                System.getProperty("benchmark.username", "sa"), System.getProperty("benchmark.password", ""))) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS external_id_bench");
+                statement.execute("CREATE TABLE external_id_bench (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                        + "external_id VARCHAR(36) NOT NULL, CONSTRAINT uk_bench_external_id UNIQUE (external_id))");
+            }
+
+            connection.setAutoCommit(false);
+            long start = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO external_id_bench (external_id) VALUES (?)")) {
+                for (long i = 1; i <= rows; i++) {
+                    insert.setString(1, generator.generate());
+                    insert.addBatch();
+                    if (i % BATCH_SIZE == 0 || i == rows) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.printf("%-6s %,d rows in %,d ms (%,d rows/s)%n",
+                    name, rows, elapsedMs, rows * 1000 / Math.max(elapsedMs, 1));
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE external_id_bench");
+            }
+            connection.commit();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.hyperativa.cardapi.util;
+
+import com.hyperativa.cardapi.util.FileParserUtil.ParseResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Parsing throughput of a large Hyperativa file with 1 to N fork-join threads.
+ * <p>
+ * Only runs on demand: {@code mvn test -Dtest=FileParserBenchmarkTest -Dbenchmark.lines=20000000}
+ */
+@EnabledIfSystemProperty(named = "benchmark.lines", matches = "\\d+")
+class FileParserBenchmarkTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Benchmark parallel parsing from 1 to N cores")
+    void benchmarkParallelParsing() throws Exception {
+        int lines = Integer.getInteger("benchmark.lines");
+        Path file = directory.resolve("benchmark.txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("DESAFIO-HYPERATIVA           20180524LOTE0001" + String.format("%06d", lines % 1_000_000));
+            writer.newLine();
+            for (int i = 0; i < lines; i++) {
+                writer.write(String.format("C%-6d4456%012d", i % 1_000_000, i));
+                writer.newLine();
+            }
+            writer.write("LOTE0001" + String.format("%06d", lines % 1_000_000));
+            writer.newLine();
+        }
+
+        FileParserUtil parser = new FileParserUtil();
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                long start = System.nanoTime();
+                ParseResult result = parser.parse(file, pool);
+                long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+                assertEquals(lines, result.getCardNumbers().size());
+                System.out.printf("%2d threads: %,d lines in %,d ms (%,d lines/s)%n",
+                        threads, lines, elapsedMs, lines * 1000L / Math.max(elapsedMs, 1));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package com.hyperativa.cardapi.util;
 
+import com.hyperativa.cardapi.dto.BatchError;
+import com.hyperativa.cardapi.dto.BatchError.Code;
 import com.hyperativa.cardapi.util.FileParserUtil.ParseResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -67,6 +76,261 @@ class FileParserUtilTest {
         assertFalse(result.getErrors().isEmpty());
     }
 
+    @Test
+    @DisplayName("Should parse a file in parallel ranges with the same result and line numbers")
+    void shouldParseFileInParallel(@TempDir Path directory) throws Exception {
+        StringBuilder content = new StringBuilder("\r\nDESAFIO-HYPERATIVA           20180524LOTE0001002000\r\n");
+        for (int i = 0; i < 2000; i++) {
+            if (i % 97 == 0) {
+                content.append("C").append(i).append("     123\r\n");
+            } else {
+                content.append(String.format("C%-6d4456%012d%n", i, i));
+            }
+            if (i % 250 == 0) {
+                content.append("   \n");
+            }
+        }
+        content.append("LOTE0001002000\n\n");
+        Path file = Files.writeString(directory.resolve("batch.txt"), content);
+
+        ParseResult expected = fileParserUtil.parse(toStream(content.toString()));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParseResult result = fileParserUtil.parse(file, pool);
+
+            assertEquals("LOTE0001", result.getBatchId());
+            assertEquals(2000, result.getExpectedCount());
+            assertEquals(expected.getCardNumbers(), result.getCardNumbers());
+            assertEquals(expected.getErrors(), result.getErrors());
+            assertEquals(21, result.getErrors().size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should handle empty and header-only files in parallel parsing")
+    void shouldParseShortFilesInParallel(@TempDir Path directory) throws Exception {
+        ParseResult empty = fileParserUtil.parse(Files.writeString(directory.resolve("empty.txt"), " \n\n"));
+        assertEquals(List.of(BatchError.of(Code.EMPTY_FILE, "Empty file")), empty.getErrors());
+
+        ParseResult headerOnly = fileParserUtil.parse(Files.writeString(directory.resolve("header.txt"),
+                "DESAFIO-HYPERATIVA           20180524LOTE0001000000"));
+        assertEquals("LOTE0001", headerOnly.getBatchId());
+        assertTrue(headerOnly.getCardNumbers().isEmpty());
+        assertTrue(headerOnly.getErrors().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should hand card numbers over in chunks while reading")
+    void shouldParseInChunks() {
+        StringBuilder content = new StringBuilder("DESAFIO-HYPERATIVA           20180524LOTE0003000025\n");
+        for (int i = 0; i < 25; i++) {
+            content.append(String.format("C%-6d4456%012d%n", i, i));
+        }
+        content.append("LOTE0003000025\n");
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<String> cardNumbers = new ArrayList<>();
+        ParseResult result = fileParserUtil.parse(toStream(content.toString()), 10, (batchId, chunk, hashes, lines) -> {
+            assertEquals("LOTE0003", batchId);
+            chunkSizes.add(chunk.size());
+            cardNumbers.addAll(chunk);
+        });
+
+        assertEquals(List.of(10, 10, 5), chunkSizes);
+        assertEquals(fileParserUtil.parse(toStream(content.toString())).getCardNumbers(), cardNumbers);
+        assertTrue(result.getErrors().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should hand cards of a file on disk over in chunks as the ranges are merged")
+    void shouldParseFileInChunks(@TempDir Path directory) throws Exception {
+        StringBuilder content = new StringBuilder("DESAFIO-HYPERATIVA           20180524LOTE0003001000\n");
+        for (int i = 0; i < 1000; i++) {
+            content.append(String.format("C%-6d4456%012d%n", i, i % 900));
+        }
+        content.append("LOTE0003001000\n");
+        Path file = Files.writeString(directory.resolve("batch.txt"), content);
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<String> cardNumbers = new ArrayList<>();
+        List<BatchError> duplicates = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParseResult result = fileParserUtil.parse(file, pool, 250, (batchId, chunk, hashes, lines) -> {
+                assertEquals("LOTE0003", batchId);
+                chunkSizes.add(chunk.size());
+                cardNumbers.addAll(chunk);
+            }, duplicates::add);
+
+            assertEquals("LOTE0003", result.getBatchId());
+            assertTrue(result.getCardNumbers().isEmpty());
+        } finally {
+            pool.shutdown();
+        }
+
+        ParseResult expected = fileParserUtil.parse(toStream(content.toString()));
+        assertEquals(List.of(250, 250, 250, 150), chunkSizes);
+        assertEquals(expected.getCardNumbers(), cardNumbers);
+        assertEquals(expected.getDuplicates(), duplicates);
+    }
+
+    @Test
+    @DisplayName("Should let exceptions of the chunk handler propagate from the parallel parse")
+    void shouldPropagateChunkHandlerFailure(@TempDir Path directory) throws Exception {
+        Path file = Files.writeString(directory.resolve("batch.txt"), """
+                DESAFIO-HYPERATIVA           20180524LOTE0001000001
+                C1     4456897922969999
+                LOTE0001000001
+                """);
+
+        assertThrows(IllegalStateException.class, () -> fileParserUtil.parse(file, 10,
+                (batchId, chunk, hashes, lines) -> {
+                    throw new IllegalStateException("database down");
+                }, error -> { }));
+    }
+
+    @Test
+    @DisplayName("Should hand over the card hashes used for card_hash and the lines along with the cards")
+    void shouldHandOverCardHashes(@TempDir Path directory) throws Exception {
+        String content = """
+                DESAFIO-HYPERATIVA           20180524LOTE0001000003
+                C1     4456897922969999
+                C2     4456897999999999
+                C3     4456897922969999
+                LOTE0001000003
+                """;
+        EncryptionUtil encryptionUtil = new EncryptionUtil("TestSecretKey2024!!");
+        List<String> expected =
+                List.of(encryptionUtil.hash("4456897922969999"), encryptionUtil.hash("4456897999999999"));
+
+        List<String> streamed = new ArrayList<>();
+        List<Integer> streamedLines = new ArrayList<>();
+        fileParserUtil.parse(toStream(content), 10, (batchId, chunk, hashes, lines) -> {
+            streamed.addAll(hashes);
+            streamedLines.addAll(lines);
+        });
+        assertEquals(expected, streamed);
+        assertEquals(List.of(2, 3), streamedLines);
+
+        List<String> parallel = new ArrayList<>();
+        List<Integer> parallelLines = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            fileParserUtil.parse(Files.writeString(directory.resolve("batch.txt"), content), pool, 10,
+                    (batchId, chunk, hashes, lines) -> {
+                        parallel.addAll(hashes);
+                        parallelLines.addAll(lines);
+                    }, error -> { });
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(expected, parallel);
+        assertEquals(List.of(2, 3), parallelLines);
+    }
+
+    @Test
+    @DisplayName("Should report over-long lines and skip to the next line instead of buffering them")
+    void shouldSkipOverLongLines(@TempDir Path directory) throws Exception {
+        String content = "DESAFIO-HYPERATIVA           20180524LOTE0001000003\n"
+                + "C1     4456897922969999\n"
+                + "C2     " + "4".repeat(1_000_000) + "\r\n"
+                + "C3     4456897999999999\n"
+                + "LOTE0001000003\n";
+        BatchError tooLong = new BatchError(3, Code.INVALID_FORMAT, null, "line longer than 128 characters");
+
+        ParseResult streamed = fileParserUtil.parse(toStream(content));
+        assertEquals(List.of("4456897922969999", "4456897999999999"), streamed.getCardNumbers());
+        assertEquals(List.of(tooLong), streamed.getErrors());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Path file = Files.writeString(directory.resolve("batch.txt"), content);
+            ParseResult parallel = fileParserUtil.parse(file, pool);
+            assertEquals(streamed.getCardNumbers(), parallel.getCardNumbers());
+            assertEquals(streamed.getErrors(), parallel.getErrors());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should cut a body without newlines to one reported header line")
+    void shouldHandleBodyWithoutNewlines(@TempDir Path directory) throws Exception {
+        String content = "DESAFIO-HYPERATIVA           20180524LOTE0001000001" + "x".repeat(2_000_000);
+        List<BatchError> expected =
+                List.of(new BatchError(1, Code.INVALID_FORMAT, null, "line longer than 128 characters"));
+
+        ParseResult streamed = fileParserUtil.parse(toStream(content));
+        assertEquals("LOTE0001", streamed.getBatchId());
+        assertEquals(expected, streamed.getErrors());
+
+        ParseResult parallel = fileParserUtil.parse(Files.writeString(directory.resolve("batch.txt"), content));
+        assertEquals("LOTE0001", parallel.getBatchId());
+        assertEquals(expected, parallel.getErrors());
+        assertTrue(parallel.getCardNumbers().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should drop cards repeated within the file and report their lines")
+    void shouldReportDuplicates(@TempDir Path directory) throws Exception {
+        String content = """
+                DESAFIO-HYPERATIVA           20180524LOTE0001000006
+                C1     4456897922969999
+                C2     4456897999999999
+                C3     4456897999999999
+                C4     4456897998199999
+                C5     4456897999999999
+                C6     4456897922969999
+                LOTE0001000006
+                """;
+        List<String> expectedCards = List.of("4456897922969999", "4456897999999999", "4456897998199999");
+        List<BatchError> expectedDuplicates = List.of(duplicate(4, 3), duplicate(6, 3), duplicate(7, 2));
+
+        List<String> streamed = new ArrayList<>();
+        ParseResult chunked =
+                fileParserUtil.parse(toStream(content), 2, (batchId, chunk, hashes, lines) -> streamed.addAll(chunk));
+        assertEquals(expectedCards, streamed);
+        assertEquals(expectedDuplicates, chunked.getDuplicates());
+        assertTrue(chunked.getErrors().isEmpty());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Path file = Files.writeString(directory.resolve("batch.txt"), content);
+            ParseResult parallel = fileParserUtil.parse(file, pool);
+            assertEquals(expectedCards, parallel.getCardNumbers());
+            assertEquals(expectedDuplicates, parallel.getDuplicates());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should pass cards through once the duplicate limit is reached")
+    void shouldStopDeduplicatingAtLimit() {
+        ReflectionTestUtils.setField(fileParserUtil, "dedupMaxCards", 2);
+        String content = """
+                DESAFIO-HYPERATIVA           20180524LOTE0001000004
+                C1     4456897922969999
+                C2     4456897999999999
+                C3     4456897998199999
+                C4     4456897998199999
+                C5     4456897922969999
+                LOTE0001000004
+                """;
+
+        ParseResult result = fileParserUtil.parse(toStream(content));
+
+        assertEquals(List.of("4456897922969999", "4456897999999999", "4456897998199999", "4456897998199999"),
+                result.getCardNumbers());
+        assertEquals(List.of(duplicate(6, 2)), result.getDuplicates());
+    }
+
+    private static BatchError duplicate(int line, int firstLine) {
+        return new BatchError(line, Code.DUPLICATE, "cardNumber", "duplicate of line " + firstLine);
+    }
+
     private ByteArrayInputStream toStream(String content) {
         return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
     }
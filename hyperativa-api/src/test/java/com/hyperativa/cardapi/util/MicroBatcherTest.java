@@ -0,0 +1,143 @@
+package com.hyperativa.cardapi.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MicroBatcherTest {
+
+    @Test
+    @DisplayName("Should answer each item with its own result")
+    void shouldProcessInBatches() {
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test-batcher",
+                Duration.ofMillis(5), 16, Duration.ofSeconds(5), items -> items.stream().map(i -> i * 2).toList())) {
+            assertEquals(42, batcher.submit(21));
+        }
+    }
+
+    @Test
+    @DisplayName("Should settle every submission racing with close instead of leaving it waiting")
+    void shouldNotStrandSubmissionsOnClose() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 20; round++) {
+                MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test-batcher",
+                        Duration.ofMillis(1), 4, Duration.ofSeconds(30), items -> items);
+                CountDownLatch started = new CountDownLatch(1);
+                List<Future<?>> submissions = new ArrayList<>();
+                for (int t = 0; t < 8; t++) {
+                    submissions.add(executor.submit(() -> {
+                        started.countDown();
+                        for (int i = 0; i < 100; i++) {
+                            try {
+                                batcher.submit(i);
+                            } catch (IllegalStateException e) {
+                                return;
+                            }
+                        }
+                    }));
+                }
+                started.await();
+                batcher.close();
+
+                for (Future<?> submission : submissions) {
+                    submission.get(5, TimeUnit.SECONDS);
+                }
+                assertThrows(IllegalStateException.class, () -> batcher.submit(1));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop waiting for a batch after the timeout")
+    void shouldTimeOut() {
+        CountDownLatch release = new CountDownLatch(1);
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test-batcher",
+                Duration.ofMillis(1), 4, Duration.ofMillis(100), items -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return items;
+                })) {
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> batcher.submit(1));
+            assertTrue(e.getMessage().startsWith("Batch not processed within"));
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should process the items queued before close")
+    void shouldDrainQueueOnClose() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test-batcher",
+                Duration.ofMillis(1), 1, Duration.ofSeconds(5), items -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return items;
+                });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> submissions = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                int item = i;
+                submissions.add(executor.submit(() -> batcher.submit(item)));
+            }
+            Thread closer = Thread.ofPlatform().start(batcher::close);
+            Thread.sleep(50);
+            release.countDown();
+            closer.join();
+
+            for (int i = 0; i < 4; i++) {
+                assertEquals(i, submissions.get(i).get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should never process an item whose submitter timed out while it was queued")
+    void shouldDropQueuedItemOnTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger processed = new AtomicInteger();
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test-batcher",
+                Duration.ofMillis(1), 1, Duration.ofMillis(100), items -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    processed.addAndGet(items.size());
+                    return items;
+                })) {
+            Thread first = Thread.ofPlatform().start(() -> assertThrows(IllegalStateException.class,
+                    () -> batcher.submit(1)));
+            Thread.sleep(20);
+
+            MicroBatcher.TimedOutException e = assertThrows(MicroBatcher.TimedOutException.class,
+                    () -> batcher.submit(2));
+            assertFalse(e.isInFlight());
+            release.countDown();
+            first.join();
+        }
+        assertEquals(1, processed.get());
+    }
+}
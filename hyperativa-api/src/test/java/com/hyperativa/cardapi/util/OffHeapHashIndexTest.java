@@ -0,0 +1,119 @@
+package com.hyperativa.cardapi.util;
+
+import com.hyperativa.cardapi.util.OffHeapHashIndex.Entry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapHashIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should store and look up entries")
+    void shouldPutAndGet() {
+        try (OffHeapHashIndex index = OffHeapHashIndex.open(directory, 10)) {
+            index.put(key(1), value(1));
+
+            assertArrayEquals(value(1), index.get(key(1)));
+            assertNull(index.get(key(2)));
+            assertEquals(1, index.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should grow past the initial capacity in the background keeping every entry")
+    void shouldResize() throws Exception {
+        try (OffHeapHashIndex index = OffHeapHashIndex.open(directory, 10)) {
+            long initialCapacity = index.capacity();
+            List<Entry> entries = entries(5000);
+            for (int from = 0; from < entries.size(); from += 100) {
+                List<Entry> batch = entries.subList(from, from + 100);
+                while (!index.putAll(batch)) {
+                    index.awaitResize();
+                }
+            }
+            index.awaitResize();
+
+            assertTrue(index.capacity() > initialCapacity);
+            assertEquals(5000, index.size());
+            for (int i = 0; i < 5000; i++) {
+                assertArrayEquals(value(i), index.get(key(i)));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse a batch that does not fit instead of rehashing inline")
+    void shouldRefuseWritesPastMaxLoad() throws Exception {
+        try (OffHeapHashIndex index = OffHeapHashIndex.open(directory, 10)) {
+            long initialCapacity = index.capacity();
+
+            assertFalse(index.putAll(entries((int) initialCapacity)));
+            assertEquals(0, index.size());
+
+            index.awaitResize();
+            assertEquals(initialCapacity * 2, index.capacity());
+            assertTrue(index.putAll(entries((int) initialCapacity)));
+            assertArrayEquals(value(7), index.get(key(7)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reuse the snapshot after a clean close")
+    void shouldReopenAfterClose() throws Exception {
+        OffHeapHashIndex index = OffHeapHashIndex.open(directory, 2000);
+        assertTrue(index.putAll(entries(2000)));
+        index.close();
+
+        assertEquals(0, Files.size(directory.resolve("card-index.log")));
+        try (OffHeapHashIndex reopened = OffHeapHashIndex.open(directory, 10)) {
+            assertEquals(2000, reopened.size());
+            assertArrayEquals(value(1999), reopened.get(key(1999)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should recover entries written after the last checkpoint")
+    void shouldRecoverWithoutClose() {
+        OffHeapHashIndex crashed = OffHeapHashIndex.open(directory, 10);
+        crashed.putAll(entries(100));
+        crashed.checkpoint();
+        crashed.putAll(entries(300));
+
+        try (OffHeapHashIndex reopened = OffHeapHashIndex.open(directory, 10)) {
+            assertEquals(300, reopened.size());
+            assertArrayEquals(value(299), reopened.get(key(299)));
+        }
+    }
+
+    private static List<Entry> entries(int count) {
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(new Entry(key(i), value(i)));
+        }
+        return entries;
+    }
+
+    private static byte[] key(int i) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(Integer.toString(i).getBytes());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] value(int i) {
+        return ByteBuffer.allocate(OffHeapHashIndex.VALUE_BYTES).putLong(i).putLong(-i).array();
+    }
+}
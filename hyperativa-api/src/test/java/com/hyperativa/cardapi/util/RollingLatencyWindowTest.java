@@ -0,0 +1,65 @@
+package com.hyperativa.cardapi.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollingLatencyWindowTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final RollingLatencyWindow window =
+            new RollingLatencyWindow(TimeUnit.SECONDS.toNanos(60), 12, clock::get);
+
+    @Test
+    @DisplayName("Buckets should be monotonic and within 1/16 of the recorded value")
+    void shouldBoundBucketError() {
+        int previous = -1;
+        for (long micros = 0; micros < 10_000_000; micros += 1 + micros / 100) {
+            int bucket = RollingLatencyWindow.bucketOf(micros);
+            assertTrue(bucket >= previous);
+            long upper = RollingLatencyWindow.bucketUpperBound(bucket);
+            assertTrue(upper >= micros);
+            assertTrue(upper - micros <= micros / 16, "bucket too wide at " + micros);
+            previous = bucket;
+        }
+        assertTrue(RollingLatencyWindow.bucketOf(Long.MAX_VALUE >>> 26) < RollingLatencyWindow.BUCKETS);
+    }
+
+    @Test
+    @DisplayName("Should report percentiles and status counts")
+    void shouldReportPercentiles() {
+        for (int i = 1; i <= 1000; i++) {
+            window.record(TimeUnit.MICROSECONDS.toNanos(i * 100L), i <= 990 ? 200 : 500);
+        }
+
+        RollingLatencyWindow.Snapshot snapshot = window.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(50_000, snapshot.percentileMicros(50), 50_000 / 16.0);
+        assertEquals(95_000, snapshot.percentileMicros(95), 95_000 / 16.0);
+        assertEquals(99_000, snapshot.percentileMicros(99), 99_000 / 16.0);
+        assertEquals(100_000, snapshot.maxMicros());
+        assertEquals(Map.of(200, 990L, 500, 10L), snapshot.statusCounts());
+    }
+
+    @Test
+    @DisplayName("Recordings should expire once they leave the window")
+    void shouldExpireOldSlots() {
+        window.record(TimeUnit.MILLISECONDS.toNanos(900), 200);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        window.record(TimeUnit.MILLISECONDS.toNanos(1), 200);
+        assertEquals(2, window.snapshot().count());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        RollingLatencyWindow.Snapshot snapshot = window.snapshot();
+        assertEquals(1, snapshot.count());
+        assertTrue(snapshot.maxMicros() < 2_000);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        assertEquals(0, window.snapshot().count());
+    }
+}
@@ -0,0 +1,46 @@
+package com.hyperativa.cardapi.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Should admit the burst, then one request per emission interval")
+    void shouldAdmitBurstThenRate() {
+        TokenBucket bucket = new TokenBucket(2, 3);
+        long now = 123 * SECOND;
+
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(SECOND / 2, bucket.tryAcquire(now));
+
+        assertTrue(bucket.tryAcquire(now + SECOND / 4) > 0);
+        assertEquals(0, bucket.tryAcquire(now + SECOND / 2));
+        assertFalse(bucket.isIdle(now + SECOND / 2));
+    }
+
+    @Test
+    @DisplayName("A bucket should be idle once fully refilled")
+    void shouldBecomeIdleWhenRefilled() {
+        TokenBucket bucket = new TokenBucket(10, 5);
+        assertTrue(bucket.isIdle(0));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(0));
+        }
+        assertTrue(bucket.tryAcquire(0) > 0);
+        assertFalse(bucket.isIdle(SECOND / 4));
+        assertTrue(bucket.isIdle(SECOND / 2));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(SECOND / 2));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.hyperativa.cardapi.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7GeneratorTest {
+
+    private final UuidV7Generator generator = new UuidV7Generator();
+
+    @Test
+    @DisplayName("Should generate version 7 UUIDs carrying the timestamp")
+    void shouldGenerateVersion7() {
+        long now = System.currentTimeMillis();
+        UUID uuid = generator.next(now);
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(now, uuid.getMostSignificantBits() >>> 16);
+        assertEquals(36, generator.generate().length());
+    }
+
+    @Test
+    @DisplayName("Should sort identifiers by creation time")
+    void shouldBeTimeOrdered() {
+        long now = System.currentTimeMillis();
+        String earlier = generator.next(now).toString();
+        String later = generator.next(now + 1).toString();
+
+        assertTrue(earlier.compareTo(later) < 0);
+    }
+
+    @Test
+    @DisplayName("Should not repeat identifiers within the same millisecond")
+    void shouldBeUnique() {
+        long now = System.currentTimeMillis();
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(ids.add(generator.next(now)));
+        }
+    }
+}